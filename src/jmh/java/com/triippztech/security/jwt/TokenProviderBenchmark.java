@@ -0,0 +1,56 @@
+package com.triippztech.security.jwt;
+
+import com.triippztech.security.AuthoritiesConstants;
+
+import io.github.jhipster.config.JHipsterProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the JWT handling done by {@link JWTFilter} on every request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TokenProviderBenchmark {
+
+    private TokenProvider tokenProvider;
+
+    private String token;
+
+    @Setup
+    public void setup() throws Exception {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(
+            "NTRiZTAwOWNiYjVkNmU0ZWI0OWQzOWYwMjRkZjliYzQ2ZDVkY2RmZjllNzc1YjI1ZWQxMDJmZTMzYjc5YTYzOTJmNDZjMzRmYTdjOGY2ZjkxMjZmZjAwYTU2MDU4ZDlhMjMzNmUwZmI1NDZmNThlNzgzMDk1ODgyM2ExZmNhZjY=");
+        tokenProvider = new TokenProvider(jHipsterProperties);
+        tokenProvider.afterPropertiesSet();
+        Authentication authentication = new UsernamePasswordAuthenticationToken("user", "password", Arrays.asList(
+            new SimpleGrantedAuthority(AuthoritiesConstants.USER), new SimpleGrantedAuthority(AuthoritiesConstants.ADMIN)));
+        token = tokenProvider.createToken(authentication, false);
+    }
+
+    @Benchmark
+    public Authentication validateAndGetAuthentication() {
+        if (!tokenProvider.validateToken(token)) {
+            throw new IllegalStateException("Invalid token");
+        }
+        return tokenProvider.getAuthentication(token);
+    }
+
+    @Benchmark
+    public Authentication authenticate() {
+        return tokenProvider.authenticate(token).orElseThrow(() -> new IllegalStateException("Invalid token"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.triippztech.service;
+
+import com.triippztech.domain.Issue;
+import com.triippztech.domain.enumeration.Priority;
+import com.triippztech.domain.enumeration.Resolution;
+import com.triippztech.service.dto.IssueCriteria;
+
+import io.github.jhipster.service.filter.InstantFilter;
+import io.github.jhipster.service.filter.IntegerFilter;
+import io.github.jhipster.service.filter.LongFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the conversion of an {@link IssueCriteria} filtering on every field.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IssueQueryServiceBenchmark {
+
+    private IssueQueryService issueQueryService;
+
+    private IssueCriteria criteria;
+
+    @Setup
+    public void setup() {
+        // Building a specification does not touch the database
+        issueQueryService = new IssueQueryService(null, null, null);
+        criteria = new IssueCriteria();
+        LongFilter id = new LongFilter();
+        id.setIn(Arrays.asList(3L, 1L, 2L));
+        criteria.setId(id);
+        IntegerFilter number = new IntegerFilter();
+        number.setGreaterThan(10);
+        number.setLessOrEqualThan(1000);
+        criteria.setNumber(number);
+        IssueCriteria.PriorityFilter priority = new IssueCriteria.PriorityFilter();
+        priority.setIn(Arrays.asList(Priority.EMERGENCY, Priority.SHOWSTOPPER));
+        criteria.setPriority(priority);
+        IssueCriteria.ResolutionFilter resolution = new IssueCriteria.ResolutionFilter();
+        resolution.setEquals(Resolution.NEW);
+        criteria.setResolution(resolution);
+        LongFilter reviewerId = new LongFilter();
+        reviewerId.setSpecified(true);
+        criteria.setReviewerId(reviewerId);
+        InstantFilter reportedDate = new InstantFilter();
+        reportedDate.setGreaterOrEqualThan(Instant.parse("2019-01-01T00:00:00Z"));
+        criteria.setReportedDate(reportedDate);
+        LongFilter commentId = new LongFilter();
+        commentId.setSpecified(true);
+        criteria.setCommentId(commentId);
+        LongFilter userId = new LongFilter();
+        userId.setEquals(4L);
+        criteria.setUserId(userId);
+    }
+
+    @Benchmark
+    public Specification<Issue> createSpecification() {
+        return issueQueryService.createSpecification(criteria);
+    }
+
+    @Benchmark
+    public IssueCriteria normalizeCriteria() {
+        return IssueCriteriaMatcher.normalize(criteria);
+    }
+}
@@ -0,0 +1,59 @@
+package com.triippztech.service;
+
+import com.triippztech.IssueTrackerApp;
+import com.triippztech.domain.Issue;
+import com.triippztech.domain.enumeration.Priority;
+import com.triippztech.domain.enumeration.Resolution;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link IssueService#save(Issue)}, with its transaction and after-commit listeners,
+ * against the embedded H2 database of the test configuration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IssueServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private IssueService issueService;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(IssueTrackerApp.class)
+            .web(WebApplicationType.SERVLET)
+            .properties("server.port=0")
+            .run();
+        issueService = context.getBean(IssueService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Issue save() {
+        return issueService.save(new Issue()
+            .description("The flux capacitor overheats after 88 miles per hour")
+            .priority(Priority.EMERGENCY)
+            .resolution(Resolution.NEW)
+            .reportedDate(Instant.now()));
+    }
+}
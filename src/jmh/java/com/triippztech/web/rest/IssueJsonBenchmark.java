@@ -0,0 +1,85 @@
+package com.triippztech.web.rest;
+
+import com.triippztech.config.JacksonConfiguration;
+import com.triippztech.config.ReferencesModule;
+import com.triippztech.domain.Comment;
+import com.triippztech.domain.Issue;
+import com.triippztech.domain.User;
+import com.triippztech.domain.enumeration.Priority;
+import com.triippztech.domain.enumeration.Resolution;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the JSON serialization of issue lists with their user and comments,
+ * with the Jackson modules registered by {@link JacksonConfiguration} and the default filters of the
+ * {@link ReferencesModule}, which write the associations as references.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IssueJsonBenchmark {
+
+    private static final int COMMENTS_PER_ISSUE = 5;
+
+    @Param({"20", "200"})
+    private int issueCount;
+
+    private ObjectMapper objectMapper;
+
+    private List<Issue> issues;
+
+    @Setup
+    public void setup() {
+        JacksonConfiguration jacksonConfiguration = new JacksonConfiguration();
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+            .modules(jacksonConfiguration.javaTimeModule(), jacksonConfiguration.jdk8TimeModule(),
+                jacksonConfiguration.hibernate5Module(), jacksonConfiguration.afterburnerModule(),
+                jacksonConfiguration.referencesModule())
+            .filters(ReferencesModule.filters(Collections.emptySet()))
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+        User user = new User();
+        user.setId(1L);
+        user.setLogin("user");
+        issues = new ArrayList<>(issueCount);
+        for (int i = 0; i < issueCount; i++) {
+            Issue issue = new Issue()
+                .number(i)
+                .description("The flux capacitor overheats after 88 miles per hour")
+                .priority(Priority.EMERGENCY)
+                .resolution(Resolution.NEW)
+                .reviewerId(2L)
+                .reportedDate(Instant.now())
+                .user(user);
+            issue.setId((long) i);
+            for (int c = 0; c < COMMENTS_PER_ISSUE; c++) {
+                Comment comment = new Comment().description("Probably the capacitor again").date(Instant.now()).user(user);
+                comment.setId((long) (i * COMMENTS_PER_ISSUE + c));
+                issue.addComment(comment);
+            }
+            issues.add(issue);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeIssues() throws Exception {
+        return objectMapper.writeValueAsBytes(issues);
+    }
+}
@@ -0,0 +1,20 @@
+package com.triippztech.aop.coalescing;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a read-only method whose concurrent identical calls are coalesced by the {@link CoalescingAspect}: they share
+ * the result of a single execution.
+ * <p>
+ * The result is shared between the callers, which must not modify it: a {@link java.util.List} is returned
+ * unmodifiable.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Coalesced {
+}
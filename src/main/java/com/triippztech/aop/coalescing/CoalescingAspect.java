@@ -0,0 +1,202 @@
+package com.triippztech.aop.coalescing;
+
+import com.triippztech.service.IssueCriteriaMatcher;
+import com.triippztech.service.dto.IssueCriteria;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Aspect coalescing the concurrent identical calls of the {@link Coalesced} methods.
+ * <p>
+ * Calls are identical when they have the same method, the same arguments, with the {@link IssueCriteria}
+ * {@link IssueCriteriaMatcher#normalize(IssueCriteria) normalized}, and the same authorities. The first call executes
+ * the method; the calls made before it returns wait for it and get its result or exception, so that a burst of
+ * identical requests makes a single database round trip.
+ * <p>
+ * A call waits at most the given timeout for the result of the call it shares; it then executes the method itself, so
+ * that a hung execution does not block all the identical calls. A {@link List} result is returned unmodifiable, as it
+ * is shared between the callers.
+ * <p>
+ * The aspect runs outside of the transactions, so that the waiting calls do not hold a connection. Calls made within a
+ * transaction are not coalesced: they may depend on its uncommitted changes and expect entities it manages.
+ * <p>
+ * Each method has {@value #METRIC_NAME} counters, tagged with its type, its name and whether the call was
+ * {@code executed} or {@code shared}: the coalescing ratio is the share of the {@code shared} calls. The shared calls
+ * which then waited too long are also counted as {@code timed-out}.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CoalescingAspect {
+
+    public static final String METRIC_NAME = "method.coalesced";
+
+    private final MeterRegistry registry;
+
+    private final long waitTimeoutMs;
+
+    private final Map<CallKey, CompletableFuture<Object>> calls = new ConcurrentHashMap<>();
+
+    private final Map<Method, MethodCounters> counters = new ConcurrentHashMap<>();
+
+    public CoalescingAspect(MeterRegistry registry, long waitTimeoutMs) {
+        this.registry = registry;
+        this.waitTimeoutMs = waitTimeoutMs;
+    }
+
+    /**
+     * Advice that coalesces the calls of a method.
+     *
+     * @param joinPoint join point for advice.
+     * @return result, possibly shared with other calls.
+     * @throws Throwable the exception thrown by the method, possibly shared with other calls.
+     */
+    @Around("@annotation(com.triippztech.aop.coalescing.Coalesced)")
+    public Object coalesceAround(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        MethodCounters methodCounters = counters.computeIfAbsent(method, MethodCounters::new);
+        CallKey key = new CallKey(method, joinPoint.getArgs(), currentAuthorities());
+
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = calls.putIfAbsent(key, call);
+        if (inFlight != null) {
+            methodCounters.shared.increment();
+            try {
+                return inFlight.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            } catch (TimeoutException e) {
+                methodCounters.timedOut.increment();
+                // The next identical calls do not wait for the hung execution either
+                calls.remove(key, inFlight);
+                return shareable(joinPoint.proceed());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return shareable(joinPoint.proceed());
+            }
+        }
+
+        methodCounters.executed.increment();
+        Object result;
+        try {
+            result = shareable(joinPoint.proceed());
+        } catch (Throwable e) {
+            calls.remove(key, call);
+            call.completeExceptionally(e);
+            throw e;
+        }
+        calls.remove(key, call);
+        call.complete(result);
+        return result;
+    }
+
+    private static Object shareable(Object result) {
+        return result instanceof List ? Collections.unmodifiableList((List<?>) result) : result;
+    }
+
+    /**
+     * @return the authorities of the current user, which scope the results they may share.
+     */
+    private static Set<String> currentAuthorities() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return Collections.emptySet();
+        }
+        Set<String> authorities = new TreeSet<>();
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            authorities.add(authority.getAuthority());
+        }
+        return authorities;
+    }
+
+    private static final class CallKey {
+
+        private final Method method;
+
+        private final List<Object> arguments;
+
+        private final Set<String> authorities;
+
+        private CallKey(Method method, Object[] arguments, Set<String> authorities) {
+            Object[] normalized = arguments.clone();
+            for (int i = 0; i < normalized.length; i++) {
+                if (normalized[i] instanceof IssueCriteria) {
+                    normalized[i] = IssueCriteriaMatcher.normalize((IssueCriteria) normalized[i]);
+                }
+            }
+            this.method = method;
+            this.arguments = Arrays.asList(normalized);
+            this.authorities = authorities;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CallKey that = (CallKey) o;
+            return method.equals(that.method) &&
+                arguments.equals(that.arguments) &&
+                authorities.equals(that.authorities);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(method, arguments, authorities);
+        }
+    }
+
+    private final class MethodCounters {
+
+        private final Counter executed;
+
+        private final Counter shared;
+
+        private final Counter timedOut;
+
+        private MethodCounters(Method method) {
+            this.executed = counter(method, "executed");
+            this.shared = counter(method, "shared");
+            this.timedOut = counter(method, "timed-out");
+        }
+
+        private Counter counter(Method method, String result) {
+            return Counter.builder(METRIC_NAME)
+                .description("Calls of the coalesced methods, executed or sharing the result of a concurrent call")
+                .tag("class", method.getDeclaringClass().getSimpleName())
+                .tag("method", method.getName())
+                .tag("result", result)
+                .register(registry);
+        }
+    }
+}
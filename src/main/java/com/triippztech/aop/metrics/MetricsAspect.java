@@ -0,0 +1,148 @@
+package com.triippztech.aop.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aspect timing the execution of the service, repository and REST Spring components.
+ * <p>
+ * Each method has a {@value #METRIC_NAME} timer, tagged with its type, its name, its outcome and the class of the
+ * exception it threw. Timers are looked up once per method and outcome, so that timing a call only costs a map
+ * lookup and two clock reads.
+ * <p>
+ * Methods inherited from Spring Data, like {@code save}, are reported under the application repository they are
+ * called on.
+ */
+@Aspect
+public class MetricsAspect {
+
+    public static final String METRIC_NAME = "method.timed";
+
+    private static final String APPLICATION_PACKAGE = "com.triippztech.";
+
+    private final MeterRegistry registry;
+
+    private final boolean percentileHistogram;
+
+    private final Map<Class<?>, Map<Method, MethodTimers>> timers = new ConcurrentHashMap<>();
+
+    public MetricsAspect(MeterRegistry registry, boolean percentileHistogram) {
+        this.registry = registry;
+        this.percentileHistogram = percentileHistogram;
+    }
+
+    /**
+     * Pointcut that matches all repositories, services and Web REST endpoints.
+     */
+    @Pointcut("within(@org.springframework.stereotype.Repository *)" +
+        " || within(@org.springframework.stereotype.Service *)" +
+        " || within(@org.springframework.web.bind.annotation.RestController *)")
+    public void springBeanPointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Pointcut that matches all Spring beans in the application's main packages.
+     */
+    @Pointcut("within(com.triippztech.repository..*)"+
+        " || within(com.triippztech.service..*)"+
+        " || within(com.triippztech.web.rest..*)")
+    public void applicationPackagePointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Pointcut that matches the Spring Data repositories, whose implementations are not in the application's
+     * packages.
+     */
+    @Pointcut("target(org.springframework.data.repository.Repository)")
+    public void springDataRepositoryPointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Advice that times a method.
+     *
+     * @param joinPoint join point for advice.
+     * @return result.
+     * @throws Throwable the exception thrown by the method.
+     */
+    @Around("(applicationPackagePointcut() && springBeanPointcut()) || springDataRepositoryPointcut()")
+    public Object timeAround(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodTimers methodTimers = methodTimers(joinPoint);
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            methodTimers.success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            methodTimers.error(e).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private MethodTimers methodTimers(ProceedingJoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Class<?> proxyType = joinPoint.getThis() != null ? joinPoint.getThis().getClass() : method.getDeclaringClass();
+        return timers.computeIfAbsent(proxyType, type -> new ConcurrentHashMap<>())
+            .computeIfAbsent(method, key -> new MethodTimers(typeName(proxyType, method), method.getName()));
+    }
+
+    /**
+     * @return the simple name of the application type declaring or inheriting the method.
+     */
+    private static String typeName(Class<?> proxyType, Method method) {
+        Class<?> declaringType = method.getDeclaringClass();
+        if (!declaringType.getName().startsWith(APPLICATION_PACKAGE)) {
+            for (Class<?> type : ClassUtils.getAllInterfacesForClassAsSet(proxyType)) {
+                if (type.getName().startsWith(APPLICATION_PACKAGE) && declaringType.isAssignableFrom(type)) {
+                    return type.getSimpleName();
+                }
+            }
+        }
+        return declaringType.getSimpleName();
+    }
+
+    private final class MethodTimers {
+
+        private final String type;
+
+        private final String method;
+
+        private final Timer success;
+
+        private final Map<Class<?>, Timer> errors = new ConcurrentHashMap<>();
+
+        private MethodTimers(String type, String method) {
+            this.type = type;
+            this.method = method;
+            this.success = timer("success", "none");
+        }
+
+        private Timer error(Throwable e) {
+            return errors.computeIfAbsent(e.getClass(), exception -> timer("error", exception.getSimpleName()));
+        }
+
+        private Timer timer(String outcome, String exception) {
+            return Timer.builder(METRIC_NAME)
+                .description("Execution time of the repository, service and REST methods")
+                .tag("class", type)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .publishPercentileHistogram(percentileHistogram)
+                .register(registry);
+        }
+    }
+}
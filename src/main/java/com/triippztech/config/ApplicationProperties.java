@@ -1,6 +1,12 @@
 package com.triippztech.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Properties specific to Issue Tracker.
@@ -11,4 +17,521 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
 
+    private final IssueCounters issueCounters = new IssueCounters();
+
+    private final Search search = new Search();
+
+    private final Cache cache = new Cache();
+
+    private final Audit audit = new Audit();
+
+    private final IssueFeed issueFeed = new IssueFeed();
+
+    private final ReadReplicas readReplicas = new ReadReplicas();
+
+    private final MethodMetrics methodMetrics = new MethodMetrics();
+
+    private final RequestCoalescing requestCoalescing = new RequestCoalescing();
+
+    public IssueCounters getIssueCounters() {
+        return issueCounters;
+    }
+
+    public Search getSearch() {
+        return search;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Audit getAudit() {
+        return audit;
+    }
+
+    public IssueFeed getIssueFeed() {
+        return issueFeed;
+    }
+
+    public ReadReplicas getReadReplicas() {
+        return readReplicas;
+    }
+
+    public MethodMetrics getMethodMetrics() {
+        return methodMetrics;
+    }
+
+    public RequestCoalescing getRequestCoalescing() {
+        return requestCoalescing;
+    }
+
+    public static class IssueCounters {
+
+        /**
+         * Delay between two recomputations of the issue counters from the database, in milliseconds.
+         * Counters are updated incrementally in between, so this only bounds the drift caused by
+         * changes made on other instances or outside of the application.
+         */
+        private long reconcileDelayMs = 300000;
+
+        public long getReconcileDelayMs() {
+            return reconcileDelayMs;
+        }
+
+        public void setReconcileDelayMs(long reconcileDelayMs) {
+            this.reconcileDelayMs = reconcileDelayMs;
+        }
+    }
+
+    public static class Search {
+
+        /**
+         * Directory of the full-text index of the issues and comments. When empty, the index is kept
+         * in memory and rebuilt from the database on every start.
+         */
+        private String indexDirectory;
+
+        /**
+         * Delay between two commits of the full-text index to its directory, in milliseconds.
+         * Changes are searchable as soon as they are applied, this only bounds what a crash loses.
+         */
+        private long commitDelayMs = 10000;
+
+        /**
+         * Delay between two reconciliations of the full-text index with the database, in milliseconds. They apply the
+         * changes which the index missed: made by other instances, while this one was down, or lost in a crash.
+         */
+        private long reconcileDelayMs = 300000;
+
+        public String getIndexDirectory() {
+            return indexDirectory;
+        }
+
+        public void setIndexDirectory(String indexDirectory) {
+            this.indexDirectory = indexDirectory;
+        }
+
+        public long getCommitDelayMs() {
+            return commitDelayMs;
+        }
+
+        public void setCommitDelayMs(long commitDelayMs) {
+            this.commitDelayMs = commitDelayMs;
+        }
+
+        public long getReconcileDelayMs() {
+            return reconcileDelayMs;
+        }
+
+        public void setReconcileDelayMs(long reconcileDelayMs) {
+            this.reconcileDelayMs = reconcileDelayMs;
+        }
+    }
+
+    public static class IssueFeed {
+
+        /**
+         * Number of recent changes kept to resume a subscription from its {@code Last-Event-ID}. A subscriber
+         * resuming from an older change receives a {@code reset} event instead, and should reload its issues.
+         */
+        private int replaySize = 1000;
+
+        /**
+         * Time after which a subscription is closed, in milliseconds. Clients reconnect with their
+         * {@code Last-Event-ID}, which bounds how long a silently dropped connection is kept.
+         */
+        private long timeoutMs = 1800000;
+
+        /**
+         * Delay between two keep-alive comments sent to the subscribers, in milliseconds.
+         */
+        private long heartbeatMs = 20000;
+
+        /**
+         * Number of events waiting to be sent to a subscriber. A subscriber falling further behind is disconnected,
+         * and resumes from its {@code Last-Event-ID} when reconnecting, or receives a {@code reset} event.
+         */
+        private int queueSize = 1000;
+
+        public int getReplaySize() {
+            return replaySize;
+        }
+
+        public void setReplaySize(int replaySize) {
+            this.replaySize = replaySize;
+        }
+
+        public long getTimeoutMs() {
+            return timeoutMs;
+        }
+
+        public void setTimeoutMs(long timeoutMs) {
+            this.timeoutMs = timeoutMs;
+        }
+
+        public long getHeartbeatMs() {
+            return heartbeatMs;
+        }
+
+        public void setHeartbeatMs(long heartbeatMs) {
+            this.heartbeatMs = heartbeatMs;
+        }
+
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        public void setQueueSize(int queueSize) {
+            this.queueSize = queueSize;
+        }
+    }
+
+    public static class MethodMetrics {
+
+        /**
+         * Whether the repository, service and REST methods are timed. When disabled, they are not advised at all.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Whether the timers publish a histogram, from which the backend computes percentiles across instances.
+         */
+        private boolean percentileHistogram = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isPercentileHistogram() {
+            return percentileHistogram;
+        }
+
+        public void setPercentileHistogram(boolean percentileHistogram) {
+            this.percentileHistogram = percentileHistogram;
+        }
+    }
+
+    public static class RequestCoalescing {
+
+        /**
+         * Whether the concurrent identical calls of the coalesced methods share a single execution.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum time a call waits for the result of a concurrent identical call, before executing the method itself.
+         */
+        private long waitTimeoutMs = 10000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getWaitTimeoutMs() {
+            return waitTimeoutMs;
+        }
+
+        public void setWaitTimeoutMs(long waitTimeoutMs) {
+            this.waitTimeoutMs = waitTimeoutMs;
+        }
+    }
+
+    public static class ReadReplicas {
+
+        /**
+         * Whether read-only transactions are sent to the replicas. When disabled, everything uses
+         * {@code spring.datasource}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * JDBC URLs of the replicas. Their pools are configured like {@code spring.datasource.hikari}, read-only.
+         */
+        private List<String> urls = new ArrayList<>();
+
+        /**
+         * User of the replicas, {@code spring.datasource.username} when empty.
+         */
+        private String username;
+
+        /**
+         * Password of the replicas, {@code spring.datasource.password} when empty.
+         */
+        private String password;
+
+        /**
+         * Replication lag, in milliseconds, above which a replica is not used until it catches up.
+         */
+        private long maxLagMs = 10000;
+
+        /**
+         * Delay between two checks of the replication lag of the replicas, in milliseconds.
+         */
+        private long checkIntervalMs = 5000;
+
+        /**
+         * Query returning the replication lag of a replica, in milliseconds.
+         */
+        private String lagQuery = "select case when not pg_is_in_recovery() " +
+            "or pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 " +
+            "else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000, 0) end";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getUrls() {
+            return urls;
+        }
+
+        public void setUrls(List<String> urls) {
+            this.urls = urls;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public long getMaxLagMs() {
+            return maxLagMs;
+        }
+
+        public void setMaxLagMs(long maxLagMs) {
+            this.maxLagMs = maxLagMs;
+        }
+
+        public long getCheckIntervalMs() {
+            return checkIntervalMs;
+        }
+
+        public void setCheckIntervalMs(long checkIntervalMs) {
+            this.checkIntervalMs = checkIntervalMs;
+        }
+
+        public String getLagQuery() {
+            return lagQuery;
+        }
+
+        public void setLagQuery(String lagQuery) {
+            this.lagQuery = lagQuery;
+        }
+    }
+
+    public static class Cache {
+
+        /**
+         * Directory of the disk tier. Required when a region has a disk tier; its content is discarded on restart.
+         */
+        private String diskDirectory;
+
+        /**
+         * Sizing of the cache regions, by cache name. Regions which are not listed use
+         * {@code jhipster.cache.ehcache}.
+         */
+        private final Map<String, Region> regions = new LinkedHashMap<>();
+
+        public String getDiskDirectory() {
+            return diskDirectory;
+        }
+
+        public void setDiskDirectory(String diskDirectory) {
+            this.diskDirectory = diskDirectory;
+        }
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        public static class Region {
+
+            /**
+             * Number of entries kept on the heap, {@code jhipster.cache.ehcache.max-entries} by default.
+             */
+            private Long heapEntries;
+
+            /**
+             * Size of the off-heap tier, which holds serialized entries outside of the garbage collected heap.
+             * It must be larger than the heap tier.
+             */
+            private DataSize offHeap;
+
+            /**
+             * Size of the disk tier, which must be larger than the off-heap tier.
+             */
+            private DataSize disk;
+
+            /**
+             * Time to live of the entries, {@code jhipster.cache.ehcache.time-to-live-seconds} by default.
+             */
+            private Long timeToLiveSeconds;
+
+            public Long getHeapEntries() {
+                return heapEntries;
+            }
+
+            public void setHeapEntries(Long heapEntries) {
+                this.heapEntries = heapEntries;
+            }
+
+            public DataSize getOffHeap() {
+                return offHeap;
+            }
+
+            public void setOffHeap(DataSize offHeap) {
+                this.offHeap = offHeap;
+            }
+
+            public DataSize getDisk() {
+                return disk;
+            }
+
+            public void setDisk(DataSize disk) {
+                this.disk = disk;
+            }
+
+            public Long getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(Long timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+        }
+    }
+
+    public static class Audit {
+
+        /**
+         * Number of audit events waiting to be written before the overflow policy applies.
+         */
+        private int queueCapacity = 10000;
+
+        /**
+         * Maximum number of audit events written per transaction.
+         */
+        private int batchSize = 500;
+
+        /**
+         * Maximum time an audit event waits for its batch to fill up before being written, in milliseconds.
+         */
+        private long flushIntervalMs = 1000;
+
+        /**
+         * What to do with an audit event when the queue is full.
+         */
+        private OverflowPolicy overflowPolicy = OverflowPolicy.CALLER_RUNS;
+
+        /**
+         * Maximum time to wait on shutdown for the background writer, in milliseconds. The events still
+         * queued after it are written by the shutdown thread.
+         */
+        private long shutdownTimeoutMs = 10000;
+
+        /**
+         * Number of past months of audit events to keep, besides the current month. Older events are archived
+         * then purged every night; their daily counts are kept.
+         */
+        private int retentionMonths = 12;
+
+        /**
+         * Directory of the gzipped archives of the purged audit events, one file per month. When empty, the events
+         * are purged without being archived.
+         */
+        private String archiveDirectory;
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getFlushIntervalMs() {
+            return flushIntervalMs;
+        }
+
+        public void setFlushIntervalMs(long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+        }
+
+        public OverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+        }
+
+        public long getShutdownTimeoutMs() {
+            return shutdownTimeoutMs;
+        }
+
+        public void setShutdownTimeoutMs(long shutdownTimeoutMs) {
+            this.shutdownTimeoutMs = shutdownTimeoutMs;
+        }
+
+        public int getRetentionMonths() {
+            return retentionMonths;
+        }
+
+        public void setRetentionMonths(int retentionMonths) {
+            this.retentionMonths = retentionMonths;
+        }
+
+        public String getArchiveDirectory() {
+            return archiveDirectory;
+        }
+
+        public void setArchiveDirectory(String archiveDirectory) {
+            this.archiveDirectory = archiveDirectory;
+        }
+
+        public enum OverflowPolicy {
+            /**
+             * Write the event in the calling thread, as if there were no queue.
+             */
+            CALLER_RUNS,
+            /**
+             * Wait until the background writer makes room for the event.
+             */
+            BLOCK,
+            /**
+             * Drop the event.
+             */
+            DROP
+        }
+    }
 }
@@ -1,14 +1,27 @@
 package com.triippztech.config;
 
+import java.io.File;
 import java.time.Duration;
+import java.util.Map;
+
+import javax.cache.Caching;
 
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.impl.config.persistence.DefaultPersistenceConfiguration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
 import org.ehcache.jsr107.Eh107Configuration;
 
 import org.hibernate.cache.jcache.ConfigSettings;
 import io.github.jhipster.config.JHipsterProperties;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cloud.client.ServiceInstance;
@@ -20,11 +33,17 @@ import org.springframework.context.annotation.*;
 @EnableCaching
 public class CacheConfiguration {
 
+    private final Logger log = LoggerFactory.getLogger(CacheConfiguration.class);
+
     private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
 
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
-        JHipsterProperties.Cache.Ehcache ehcache =
-            jHipsterProperties.getCache().getEhcache();
+    private final JHipsterProperties.Cache.Ehcache ehcache;
+
+    private final ApplicationProperties.Cache cacheProperties;
+
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        this.ehcache = jHipsterProperties.getCache().getEhcache();
+        this.cacheProperties = applicationProperties.getCache();
 
         jcacheConfiguration = Eh107Configuration.fromEhcacheCacheConfiguration(
             CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
@@ -33,6 +52,22 @@ public class CacheConfiguration {
                 .build());
     }
 
+    /**
+     * Cache manager with a persistence directory, needed by the regions having a disk tier.
+     * Without {@code application.cache.disk-directory}, the cache manager is created by Spring Boot.
+     */
+    @Bean
+    @ConditionalOnProperty("application.cache.disk-directory")
+    public javax.cache.CacheManager jCacheCacheManager(ObjectProvider<JCacheManagerCustomizer> cacheManagerCustomizers) {
+        File diskDirectory = new File(cacheProperties.getDiskDirectory());
+        log.debug("Creating the cache manager with disk directory {}", diskDirectory);
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        javax.cache.CacheManager cacheManager = provider.getCacheManager(diskDirectory.toURI(),
+            new DefaultConfiguration(provider.getDefaultClassLoader(), new DefaultPersistenceConfiguration(diskDirectory)));
+        cacheManagerCustomizers.orderedStream().forEach(customizer -> customizer.customize(cacheManager));
+        return cacheManager;
+    }
+
     @Bean
     public HibernatePropertiesCustomizer hibernatePropertiesCustomizer(javax.cache.CacheManager cacheManager) {
         return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
@@ -49,7 +84,13 @@ public class CacheConfiguration {
             createCache(cm, com.triippztech.domain.Issue.class.getName());
             createCache(cm, com.triippztech.domain.Issue.class.getName() + ".comments");
             createCache(cm, com.triippztech.domain.Comment.class.getName());
+            createCache(cm, com.triippztech.service.IssueCriteriaCache.ISSUES_BY_CRITERIA_CACHE);
             // jhipster-needle-ehcache-add-entry
+            for (String cacheName : cacheProperties.getRegions().keySet()) {
+                if (cm.getCache(cacheName) == null) {
+                    log.warn("Cache sizing configured for unknown cache region {}", cacheName);
+                }
+            }
         };
     }
 
@@ -58,6 +99,29 @@ public class CacheConfiguration {
         if (cache != null) {
             cm.destroyCache(cacheName);
         }
-        cm.createCache(cacheName, jcacheConfiguration);
+        ApplicationProperties.Cache.Region region = cacheProperties.getRegions().get(cacheName);
+        cm.createCache(cacheName, region == null ? jcacheConfiguration : regionConfiguration(cacheName, region));
+    }
+
+    private javax.cache.configuration.Configuration<Object, Object> regionConfiguration(String cacheName,
+                                                                                       ApplicationProperties.Cache.Region region) {
+        ResourcePoolsBuilder resourcePools = ResourcePoolsBuilder.newResourcePoolsBuilder()
+            .heap(region.getHeapEntries() != null ? region.getHeapEntries() : ehcache.getMaxEntries(), EntryUnit.ENTRIES);
+        if (region.getOffHeap() != null) {
+            resourcePools = resourcePools.offheap(region.getOffHeap().toBytes(), MemoryUnit.B);
+        }
+        if (region.getDisk() != null) {
+            if (cacheProperties.getDiskDirectory() == null) {
+                throw new IllegalStateException("Cache region " + cacheName +
+                    " has a disk tier, but application.cache.disk-directory is not set");
+            }
+            resourcePools = resourcePools.disk(region.getDisk().toBytes(), MemoryUnit.B, false);
+        }
+        long timeToLiveSeconds = region.getTimeToLiveSeconds() != null ?
+            region.getTimeToLiveSeconds() : ehcache.getTimeToLiveSeconds();
+        return Eh107Configuration.fromEhcacheCacheConfiguration(
+            CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, resourcePools)
+                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(timeToLiveSeconds)))
+                .build());
     }
 }
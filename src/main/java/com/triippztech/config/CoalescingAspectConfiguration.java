@@ -0,0 +1,18 @@
+package com.triippztech.config;
+
+import com.triippztech.aop.coalescing.CoalescingAspect;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.*;
+
+@Configuration
+@EnableAspectJAutoProxy
+public class CoalescingAspectConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "application.request-coalescing", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public CoalescingAspect coalescingAspect(MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        return new CoalescingAspect(meterRegistry, applicationProperties.getRequestCoalescing().getWaitTimeoutMs());
+    }
+}
@@ -1,19 +1,30 @@
 package com.triippztech.config;
 
+import com.zaxxer.hikari.HikariDataSource;
 import io.github.jhipster.config.JHipsterConstants;
 import io.github.jhipster.config.h2.H2ConfigurationHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
 
 import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+import javax.sql.DataSource;
 import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Configuration
 @EnableJpaRepositories("com.triippztech.repository")
@@ -43,6 +54,62 @@ public class DatabaseConfiguration {
         return H2ConfigurationHelper.createServer(port);
     }
 
+    /**
+     * Route the read-only transactions to the replicas of {@code application.read-replicas}.
+     *
+     * @param dataSourceProperties the primary database settings.
+     * @param applicationProperties the replica settings.
+     * @return the routing data source.
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "application.read-replicas", name = "enabled", havingValue = "true")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                             ApplicationProperties applicationProperties) {
+        ApplicationProperties.ReadReplicas readReplicas = applicationProperties.getReadReplicas();
+        HikariDataSource primary = createPool(dataSourceProperties, dataSourceProperties.determineUrl(),
+            dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<String> urls = readReplicas.getUrls();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = createPool(dataSourceProperties, urls.get(i),
+                readReplicas.getUsername() != null ? readReplicas.getUsername() : dataSourceProperties.determineUsername(),
+                readReplicas.getPassword() != null ? readReplicas.getPassword() : dataSourceProperties.determinePassword());
+            replica.setPoolName(primary.getPoolName() + "-replica-" + (i + 1));
+            replica.setReadOnly(true);
+            replicas.put(replica.getPoolName(), replica);
+        }
+        log.info("Routing the read-only transactions to {} replicas", replicas.size());
+        return new ReplicaRoutingDataSource(primary, replicas, readReplicas);
+    }
+
+    /**
+     * The read-only flag is set after the transaction managers get their connection, which must only be obtained
+     * from {@link ReplicaRoutingDataSource} once the transaction has begun.
+     *
+     * @param replicaRoutingDataSource the routing data source.
+     * @return the data source of the application.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "application.read-replicas", name = "enabled", havingValue = "true")
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    /**
+     * Create a pool configured like the one of {@code spring.datasource}.
+     */
+    private HikariDataSource createPool(DataSourceProperties dataSourceProperties, String url, String username,
+                                        String password) {
+        HikariDataSource pool = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class)
+            .url(url).username(username).password(password).build();
+        Binder.get(env).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        if (pool.getPoolName() == null) {
+            pool.setPoolName("Hikari");
+        }
+        return pool;
+    }
+
     private String getValidPortForH2() {
         int port = Integer.parseInt(env.getProperty("server.port"));
         if (port < 10000) {
@@ -5,11 +5,14 @@ import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
 
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.zalando.problem.ProblemModule;
 import org.zalando.problem.violations.ConstraintViolationProblemModule;
 
+import java.util.Collections;
+
 @Configuration
 public class JacksonConfiguration {
 
@@ -43,6 +46,22 @@ public class JacksonConfiguration {
         return new AfterburnerModule();
     }
 
+    /*
+     * Serialization of the entity associations as compact references.
+     */
+    @Bean
+    public ReferencesModule referencesModule() {
+        return new ReferencesModule();
+    }
+
+    /*
+     * No association is expanded unless a write asks for it, like the REST responses having an "expand" parameter.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer referencesFiltersCustomizer() {
+        return builder -> builder.filters(ReferencesModule.filters(Collections.emptySet()));
+    }
+
     /*
      * Module for serialization/deserialization of RFC7807 Problem.
      */
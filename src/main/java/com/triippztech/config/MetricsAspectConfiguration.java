@@ -0,0 +1,18 @@
+package com.triippztech.config;
+
+import com.triippztech.aop.metrics.MetricsAspect;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.*;
+
+@Configuration
+@EnableAspectJAutoProxy
+public class MetricsAspectConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "application.method-metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public MetricsAspect metricsAspect(MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        return new MetricsAspect(meterRegistry, applicationProperties.getMethodMetrics().isPercentileHistogram());
+    }
+}
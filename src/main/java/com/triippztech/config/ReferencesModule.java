@@ -0,0 +1,113 @@
+package com.triippztech.config;
+
+import com.triippztech.domain.Issue;
+import com.triippztech.domain.User;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.AnnotatedClass;
+import com.fasterxml.jackson.databind.introspect.NopAnnotationIntrospector;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.hibernate.Hibernate;
+import org.hibernate.proxy.HibernateProxy;
+
+import javax.persistence.Entity;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Jackson module serializing the associations of the entities as compact references.
+ * <p>
+ * An entity referenced by another one, like the issue and the user of a comment, is written with only its identifying
+ * properties, such as {@code {"id": 1, "number": 12}} for an issue, unless the association is expanded: the full
+ * entity is then written. The expanded associations are chosen per write, by the {@link FilterProvider} of
+ * {@link #filters(Set)}, so that the same mapper serves both.
+ */
+public class ReferencesModule extends SimpleModule {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String FILTER_ID = "references";
+
+    private static final Map<Class<?>, Set<String>> REFERENCE_PROPERTIES = new HashMap<>();
+
+    static {
+        REFERENCE_PROPERTIES.put(Issue.class, new HashSet<>(Arrays.asList("id", "number")));
+        REFERENCE_PROPERTIES.put(User.class, new HashSet<>(Arrays.asList("id", "login")));
+    }
+
+    public ReferencesModule() {
+        super(ReferencesModule.class.getSimpleName());
+    }
+
+    @Override
+    public void setupModule(SetupContext context) {
+        super.setupModule(context);
+        context.insertAnnotationIntrospector(new NopAnnotationIntrospector() {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Object findFilterId(Annotated annotated) {
+                return annotated instanceof AnnotatedClass && annotated.hasAnnotation(Entity.class) ? FILTER_ID : null;
+            }
+        });
+    }
+
+    /**
+     * @param expand the names of the associations written in full.
+     * @return the filters writing the other associations as references.
+     */
+    public static FilterProvider filters(Set<String> expand) {
+        return new SimpleFilterProvider().addFilter(FILTER_ID, new ReferencesFilter(expand));
+    }
+
+    private static final class ReferencesFilter extends SimpleBeanPropertyFilter {
+
+        private final Set<String> expand;
+
+        private ReferencesFilter(Set<String> expand) {
+            this.expand = Collections.unmodifiableSet(new HashSet<>(expand));
+        }
+
+        @Override
+        public void serializeAsField(Object pojo, JsonGenerator gen, SerializerProvider provider, PropertyWriter writer)
+            throws Exception {
+            Set<String> properties = REFERENCE_PROPERTIES.get(writer.getType().getRawClass());
+            Object value = properties == null || expand.contains(writer.getName()) || !(writer instanceof BeanPropertyWriter)
+                ? null : ((BeanPropertyWriter) writer).get(pojo);
+            if (value == null) {
+                writer.serializeAsField(pojo, gen, provider);
+                return;
+            }
+            gen.writeFieldName(writer.getName());
+            gen.writeStartObject();
+            if (value instanceof HibernateProxy && !Hibernate.isInitialized(value)) {
+                // Only the id is known without loading the entity
+                gen.writeObjectField("id", ((HibernateProxy) value).getHibernateLazyInitializer().getIdentifier());
+            } else {
+                Object entity = Hibernate.unproxy(value);
+                JsonSerializer<Object> serializer = provider.findValueSerializer(entity.getClass());
+                for (Iterator<PropertyWriter> it = serializer.properties(); it.hasNext(); ) {
+                    PropertyWriter property = it.next();
+                    if (properties.contains(property.getName())) {
+                        property.serializeAsField(entity, gen, provider);
+                    }
+                }
+            }
+            gen.writeEndObject();
+        }
+    }
+}
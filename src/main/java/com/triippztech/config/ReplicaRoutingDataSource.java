@@ -0,0 +1,248 @@
+package com.triippztech.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link DataSource} sending the read-only transactions to replicas of the primary database.
+ * <p>
+ * Replicas are used in turn, as long as their replication lag, checked every
+ * {@code application.read-replicas.check-interval-ms} with {@code application.read-replicas.lag-query}, does not
+ * exceed {@code application.read-replicas.max-lag-ms}. Read-only transactions use the primary when no replica is
+ * available, and a replica which cannot provide a connection is not used until its next successful check.
+ * <p>
+ * The read-only flag of a transaction is only known once the transaction has begun, after the transaction manager
+ * got its connection: this data source must be wrapped in a {@link LazyConnectionDataSourceProxy}.
+ * <p>
+ * A read-only transaction does not always see the changes just committed by another transaction, even with a small
+ * lag; reads which must see them should not be read-only, and results cached for other transactions should not be
+ * computed {@link #isCurrentTransactionOnReplica() on a replica}.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements MeterBinder, Closeable {
+
+    /**
+     * Key of the transaction resource holding the name of the replica the current transaction uses.
+     */
+    private static final String REPLICA_RESOURCE = ReplicaRoutingDataSource.class.getName() + ".replica";
+
+    private final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas = new ArrayList<>();
+
+    private final ApplicationProperties.ReadReplicas properties;
+
+    private final AtomicInteger turn = new AtomicInteger();
+
+    private final ScheduledExecutorService checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param primary the data source of the primary database.
+     * @param replicas the data sources of the replicas, by name.
+     * @param properties the replica settings.
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    ApplicationProperties.ReadReplicas properties) {
+        this.primary = primary;
+        this.properties = properties;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+    }
+
+    /**
+     * Check the replicas, then keep checking them every {@code application.read-replicas.check-interval-ms}.
+     */
+    public void start() {
+        checkReplicas();
+        checker.scheduleWithFixedDelay(this::checkReplicas, properties.getCheckIntervalMs(),
+            properties.getCheckIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Check the replication lag of the replicas, and only use those which do not lag too much.
+     */
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try {
+                Double lag = new JdbcTemplate(replica.dataSource).queryForObject(properties.getLagQuery(), Double.class);
+                replica.lagMs = lag == null ? 0 : lag;
+                boolean available = replica.lagMs <= properties.getMaxLagMs();
+                if (available != replica.available) {
+                    log.info("Replica {} is {}, with a lag of {} ms", replica.name, available ? "available" : "lagging",
+                        Math.round(replica.lagMs));
+                }
+                replica.available = available;
+            } catch (RuntimeException e) {
+                if (replica.available) {
+                    log.warn("Replica {} is unavailable: {}", replica.name, e.getMessage());
+                }
+                replica.lagMs = Double.NaN;
+                replica.available = false;
+            }
+        }
+    }
+
+    /**
+     * @return whether the current transaction reads from a replica, so may not see the latest committed changes.
+     */
+    public static boolean isCurrentTransactionOnReplica() {
+        return TransactionSynchronizationManager.hasResource(REPLICA_RESOURCE);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = route();
+        if (replica != null) {
+            try {
+                return routed(replica, replica.dataSource.getConnection());
+            } catch (SQLException e) {
+                markUnavailable(replica, e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Replica replica = route();
+        if (replica != null) {
+            try {
+                return routed(replica, replica.dataSource.getConnection(username, password));
+            } catch (SQLException e) {
+                markUnavailable(replica, e);
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * @return the replica to use for the current transaction, or {@code null} to use the primary.
+     */
+    private Replica route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return null;
+        }
+        int start = turn.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+            if (replica.available) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Record that the current transaction uses the replica, until it completes.
+     */
+    private static Connection routed(Replica replica, Connection connection) {
+        if (TransactionSynchronizationManager.isSynchronizationActive() &&
+            !TransactionSynchronizationManager.hasResource(REPLICA_RESOURCE)) {
+            TransactionSynchronizationManager.bindResource(REPLICA_RESOURCE, replica.name);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+                @Override
+                public void suspend() {
+                    TransactionSynchronizationManager.unbindResource(REPLICA_RESOURCE);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(REPLICA_RESOURCE, replica.name);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(REPLICA_RESOURCE);
+                }
+            });
+        }
+        return connection;
+    }
+
+    private void markUnavailable(Replica replica, SQLException e) {
+        log.warn("Replica {} is unavailable, using the primary: {}", replica.name, e.getMessage());
+        replica.available = false;
+    }
+
+    /**
+     * Register the gauges of the replicas, and the metrics of the Hikari pools, which are not beans.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindPool(primary, registry);
+        for (Replica replica : replicas) {
+            Gauge.builder("datasource.replica.lag", replica, r -> r.lagMs)
+                .tag("replica", replica.name).baseUnit("milliseconds")
+                .description("Replication lag of the replica at its last check").register(registry);
+            Gauge.builder("datasource.replica.available", replica, r -> r.available ? 1 : 0)
+                .tag("replica", replica.name)
+                .description("Whether read-only transactions use the replica").register(registry);
+            bindPool(replica.dataSource, registry);
+        }
+    }
+
+    private static void bindPool(DataSource dataSource, MeterRegistry registry) {
+        if (dataSource instanceof HikariDataSource && ((HikariDataSource) dataSource).getMetricsTrackerFactory() == null) {
+            ((HikariDataSource) dataSource).setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        checker.shutdownNow();
+        closeDataSource(primary);
+        for (Replica replica : replicas) {
+            closeDataSource(replica.dataSource);
+        }
+    }
+
+    private static void closeDataSource(DataSource dataSource) throws IOException {
+        if (dataSource instanceof Closeable) {
+            ((Closeable) dataSource).close();
+        }
+    }
+
+    private static final class Replica {
+
+        private final String name;
+
+        private final DataSource dataSource;
+
+        private volatile boolean available;
+
+        private volatile double lagMs = Double.NaN;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.triippztech.config;
+
+import org.hibernate.boot.MetadataBuilder;
+import org.hibernate.boot.spi.MetadataBuilderContributor;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.type.InstantType;
+
+/**
+ * Registers the SQL functions used by the JPQL and criteria queries which are not standard JPA functions.
+ * <p>
+ * Registered with the {@code hibernate.metadata_builder_contributor} JPA property. Functions rendering literals,
+ * like {@code date_trunc('week', ...)}, keep them in the SQL, so that the expressions of a {@code GROUP BY} query
+ * are identical in its select and group by clauses instead of having their own bind parameters.
+ */
+public class SqlFunctionsContributor implements MetadataBuilderContributor {
+
+    /**
+     * Start of the ISO week, on Monday, of a timestamp.
+     */
+    public static final String WEEK_START = "week_start";
+
+    /**
+     * Start of the month of a timestamp.
+     */
+    public static final String MONTH_START = "month_start";
+
+    @Override
+    public void contribute(MetadataBuilder metadataBuilder) {
+        metadataBuilder.applySqlFunction(WEEK_START, new SQLFunctionTemplate(InstantType.INSTANCE, "date_trunc('week', ?1)"));
+        metadataBuilder.applySqlFunction(MONTH_START, new SQLFunctionTemplate(InstantType.INSTANCE, "date_trunc('month', ?1)"));
+    }
+}
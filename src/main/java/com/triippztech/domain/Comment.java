@@ -4,6 +4,7 @@ package com.triippztech.domain;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.*;
 import javax.validation.constraints.*;
@@ -18,6 +19,7 @@ import java.util.Objects;
 @Entity
 @Table(name = "comment")
 @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
+@DynamicUpdate
 public class Comment implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -44,6 +46,14 @@ public class Comment implements Serializable {
     @JsonIgnoreProperties("comments")
     private User user;
 
+    /**
+     * Incremented on every change. A comment saved with an older version is rejected instead of overwriting
+     * the changes made since.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here, do not remove
     public Long getId() {
         return id;
@@ -104,6 +114,14 @@ public class Comment implements Serializable {
     public void setUser(User user) {
         this.user = user;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here, do not remove
 
     @Override
@@ -128,6 +146,7 @@ public class Comment implements Serializable {
             "id=" + getId() +
             ", description='" + getDescription() + "'" +
             ", date='" + getDate() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
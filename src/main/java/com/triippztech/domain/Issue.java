@@ -3,8 +3,10 @@ package com.triippztech.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.*;
 import javax.validation.constraints.*;
@@ -16,8 +18,9 @@ import java.util.Set;
 import java.util.Objects;
 
 import com.triippztech.domain.enumeration.Priority;
-
+import com.triippztech.domain.enumeration.PriorityConverter;
 import com.triippztech.domain.enumeration.Resolution;
+import com.triippztech.domain.enumeration.ResolutionConverter;
 
 /**
  * A Issue.
@@ -25,6 +28,7 @@ import com.triippztech.domain.enumeration.Resolution;
 @Entity
 @Table(name = "issue")
 @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
+@DynamicUpdate
 public class Issue implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -34,19 +38,21 @@ public class Issue implements Serializable {
     @SequenceGenerator(name = "sequenceGenerator")
     private Long id;
 
-    @NotNull
-    @Column(name = "jhi_number", nullable = false)
+    /**
+     * Allocated by the server when a new issue has none.
+     */
+    @Column(name = "jhi_number", nullable = false, unique = true)
     private Integer number;
 
     @Lob
     @Column(name = "description")
     private String description;
 
-    @Enumerated(EnumType.STRING)
+    @Convert(converter = PriorityConverter.class)
     @Column(name = "priority")
     private Priority priority;
 
-    @Enumerated(EnumType.STRING)
+    @Convert(converter = ResolutionConverter.class)
     @Column(name = "resolution")
     private Resolution resolution;
 
@@ -56,6 +62,29 @@ public class Issue implements Serializable {
     @Column(name = "reported_date")
     private Instant reportedDate;
 
+    /**
+     * Maintained by {@link com.triippztech.service.CommentService} when comments are saved or deleted,
+     * so it is never written with the issue.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "comment_count", nullable = false, insertable = false, updatable = false)
+    private Integer commentCount = 0;
+
+    /**
+     * Maintained like {@link #commentCount}.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "last_comment_date", insertable = false, updatable = false)
+    private Instant lastCommentDate;
+
+    /**
+     * Incremented on every change, including of the comment activity. An issue saved with an older version
+     * is rejected instead of overwriting the changes made since.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "issue")
     @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
     private Set<Comment> comments = new HashSet<>();
@@ -151,6 +180,40 @@ public class Issue implements Serializable {
         this.reportedDate = reportedDate;
     }
 
+    public Integer getCommentCount() {
+        return commentCount;
+    }
+
+    public Issue commentCount(Integer commentCount) {
+        this.commentCount = commentCount;
+        return this;
+    }
+
+    public void setCommentCount(Integer commentCount) {
+        this.commentCount = commentCount;
+    }
+
+    public Instant getLastCommentDate() {
+        return lastCommentDate;
+    }
+
+    public Issue lastCommentDate(Instant lastCommentDate) {
+        this.lastCommentDate = lastCommentDate;
+        return this;
+    }
+
+    public void setLastCommentDate(Instant lastCommentDate) {
+        this.lastCommentDate = lastCommentDate;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Set<Comment> getComments() {
         return comments;
     }
@@ -216,6 +279,9 @@ public class Issue implements Serializable {
             ", resolution='" + getResolution() + "'" +
             ", reviewerId=" + getReviewerId() +
             ", reportedDate='" + getReportedDate() + "'" +
+            ", commentCount=" + getCommentCount() +
+            ", lastCommentDate='" + getLastCommentDate() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -0,0 +1,146 @@
+package com.triippztech.domain;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Objects;
+
+/**
+ * Number of {@link PersistentAuditEvent}s of a principal and type on a UTC day.
+ * <p>
+ * Counts are maintained when the events are written, and kept when the events are purged.
+ */
+@Entity
+@Table(name = "jhi_persistent_audit_evt_count")
+public class PersistentAuditEventCount implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "event_count", nullable = false)
+    private long count;
+
+    public PersistentAuditEventCount() {
+    }
+
+    public PersistentAuditEventCount(Key id, long count) {
+        this.id = id;
+        this.count = count;
+    }
+
+    public Key getId() {
+        return id;
+    }
+
+    public void setId(Key id) {
+        this.id = id;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PersistentAuditEventCount)) {
+            return false;
+        }
+        return id != null && id.equals(((PersistentAuditEventCount) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31;
+    }
+
+    @Override
+    public String toString() {
+        return "PersistentAuditEventCount{" +
+            "id=" + id +
+            ", count=" + count +
+            '}';
+    }
+
+    @Embeddable
+    public static class Key implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        @Column(name = "event_day", nullable = false)
+        private LocalDate day;
+
+        @Column(name = "principal", nullable = false, length = 50)
+        private String principal;
+
+        @Column(name = "event_type", nullable = false)
+        private String auditEventType;
+
+        public Key() {
+        }
+
+        public Key(LocalDate day, String principal, String auditEventType) {
+            this.day = day;
+            this.principal = principal;
+            this.auditEventType = auditEventType;
+        }
+
+        /**
+         * @param event an event with a date.
+         * @return the key of the count of the event.
+         */
+        public static Key of(PersistentAuditEvent event) {
+            return new Key(event.getAuditEventDate().atOffset(ZoneOffset.UTC).toLocalDate(), event.getPrincipal(),
+                event.getAuditEventType() == null ? "" : event.getAuditEventType());
+        }
+
+        public LocalDate getDay() {
+            return day;
+        }
+
+        public String getPrincipal() {
+            return principal;
+        }
+
+        public String getAuditEventType() {
+            return auditEventType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Objects.equals(day, key.day) &&
+                Objects.equals(principal, key.principal) &&
+                Objects.equals(auditEventType, key.auditEventType);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(day, principal, auditEventType);
+        }
+
+        @Override
+        public String toString() {
+            return "Key{" +
+                "day=" + day +
+                ", principal='" + principal + '\'' +
+                ", auditEventType='" + auditEventType + '\'' +
+                '}';
+        }
+    }
+}
@@ -1,8 +1,37 @@
 package com.triippztech.domain.enumeration;
 
 /**
- * The Priority enumeration.
+ * The Priority enumeration, from the most to the least severe.
+ * <p>
+ * Stored as its {@link #getCode() code}, so that sorting by priority follows the severity.
  */
 public enum Priority {
-    SHOWSTOPPER, EMERGENCY, HIGH, LOW, ROUTINE, DEFER
+    SHOWSTOPPER(0), EMERGENCY(1), HIGH(2), LOW(3), ROUTINE(4), DEFER(5);
+
+    private final short code;
+
+    Priority(int code) {
+        this.code = (short) code;
+    }
+
+    /**
+     * @return the stored code, which must never change.
+     */
+    public short getCode() {
+        return code;
+    }
+
+    /**
+     * @param code a stored code.
+     * @return the priority having this code.
+     * @throws IllegalArgumentException if no priority has this code.
+     */
+    public static Priority fromCode(short code) {
+        for (Priority priority : values()) {
+            if (priority.code == code) {
+                return priority;
+            }
+        }
+        throw new IllegalArgumentException("Unknown priority code: " + code);
+    }
 }
@@ -0,0 +1,21 @@
+package com.triippztech.domain.enumeration;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Stores a {@link Priority} as its {@code smallint} code.
+ */
+@Converter
+public class PriorityConverter implements AttributeConverter<Priority, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(Priority priority) {
+        return priority == null ? null : priority.getCode();
+    }
+
+    @Override
+    public Priority convertToEntityAttribute(Short code) {
+        return code == null ? null : Priority.fromCode(code);
+    }
+}
@@ -2,7 +2,36 @@ package com.triippztech.domain.enumeration;
 
 /**
  * The Resolution enumeration.
+ * <p>
+ * Stored as its {@link #getCode() code}.
  */
 public enum Resolution {
-    NEW, RELEASED, DUPLICATE, TESTED, FIXED, PARTIALLY_FIXED, REVIEWED, CANNOT_REPRODUCE
+    NEW(0), RELEASED(1), DUPLICATE(2), TESTED(3), FIXED(4), PARTIALLY_FIXED(5), REVIEWED(6), CANNOT_REPRODUCE(7);
+
+    private final short code;
+
+    Resolution(int code) {
+        this.code = (short) code;
+    }
+
+    /**
+     * @return the stored code, which must never change.
+     */
+    public short getCode() {
+        return code;
+    }
+
+    /**
+     * @param code a stored code.
+     * @return the resolution having this code.
+     * @throws IllegalArgumentException if no resolution has this code.
+     */
+    public static Resolution fromCode(short code) {
+        for (Resolution resolution : values()) {
+            if (resolution.code == code) {
+                return resolution;
+            }
+        }
+        throw new IllegalArgumentException("Unknown resolution code: " + code);
+    }
 }
@@ -0,0 +1,21 @@
+package com.triippztech.domain.enumeration;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Stores a {@link Resolution} as its {@code smallint} code.
+ */
+@Converter
+public class ResolutionConverter implements AttributeConverter<Resolution, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(Resolution resolution) {
+        return resolution == null ? null : resolution.getCode();
+    }
+
+    @Override
+    public Resolution convertToEntityAttribute(Short code) {
+        return code == null ? null : Resolution.fromCode(code);
+    }
+}
@@ -1,10 +1,17 @@
 package com.triippztech.repository;
 
 import com.triippztech.domain.Comment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Spring Data  repository for the Comment entity.
@@ -16,4 +23,30 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     @Query("select comment from Comment comment where comment.user.login = ?#{principal.username}")
     List<Comment> findByUserIsCurrentUser();
 
+    @EntityGraph(attributePaths = "user")
+    @Query("select comment from Comment comment where comment.issue.id = :issueId order by comment.date, comment.id")
+    Slice<Comment> findAllByIssueId(@Param("issueId") Long issueId, Pageable pageable);
+
+    /**
+     * Comments of the issue strictly after the {@code (date, id)} keyset position, so that the database seeks
+     * directly to it in the {@code idx_comment_issue_date} index.
+     */
+    @EntityGraph(attributePaths = "user")
+    @Query("select comment from Comment comment where comment.issue.id = :issueId " +
+        "and (comment.date > :date or (comment.date = :date and comment.id > :id)) order by comment.date, comment.id")
+    Slice<Comment> findAllByIssueIdAfter(@Param("issueId") Long issueId, @Param("date") Instant date,
+                                         @Param("id") Long id, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.FETCH_SIZE, value = "500"))
+    @Query("select comment.id, issue.id, comment.version, comment.description from Comment comment join comment.issue issue")
+    Stream<Object[]> streamAllDescriptions();
+
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.FETCH_SIZE, value = "500"))
+    @Query("select comment.id, comment.version from Comment comment where comment.issue is not null")
+    Stream<Object[]> streamAllVersions();
+
+    @Query("select comment.id, issue.id, comment.version, comment.description from Comment comment join comment.issue issue " +
+        "where comment.id in :ids")
+    List<Object[]> findDescriptionsByIdIn(@Param("ids") Collection<Long> ids);
+
 }
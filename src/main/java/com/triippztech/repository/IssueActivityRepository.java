@@ -0,0 +1,37 @@
+package com.triippztech.repository;
+
+import java.time.Instant;
+
+/**
+ * Updates of the comment activity of the issues: their comment count and last comment date.
+ * <p>
+ * The counters are updated in the database rather than read and written back, so that concurrent comments on an
+ * issue are all counted. Each update also increments the version of the issue.
+ */
+public interface IssueActivityRepository {
+
+    /**
+     * Count a comment added to the issue.
+     *
+     * @param id the id of the issue.
+     * @param date the date of the comment.
+     * @return the number of updated issues.
+     */
+    int addComment(Long id, Instant date);
+
+    /**
+     * Uncount a comment removed from the issue.
+     *
+     * @param id the id of the issue.
+     * @return the number of updated issues.
+     */
+    int removeComment(Long id);
+
+    /**
+     * Recompute the last comment date of the issue, after the date of one of its comments changed.
+     *
+     * @param id the id of the issue.
+     * @return the number of updated issues.
+     */
+    int updateLastCommentDate(Long id);
+}
@@ -0,0 +1,85 @@
+package com.triippztech.repository;
+
+import com.triippztech.domain.Issue;
+
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.InstantType;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * Native implementation of the {@link IssueActivityRepository}.
+ * <p>
+ * A JPQL bulk update evicts the whole {@link Issue} region of the second-level cache, so a comment would evict all
+ * the cached issues. The updates are therefore native statements, declared with an empty query space so that
+ * Hibernate evicts nothing, and only the updated issue is evicted, now and again after the transaction completes,
+ * in case a concurrent transaction cached it in between. An issue already loaded in the persistence context is
+ * refreshed, so that it has the new counters and version.
+ */
+public class IssueActivityRepositoryImpl implements IssueActivityRepository {
+
+    private final EntityManager entityManager;
+
+    public IssueActivityRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public int addComment(Long id, Instant date) {
+        return update(id, "update issue set version = version + 1, comment_count = comment_count + 1, " +
+            "last_comment_date = case when last_comment_date is null or last_comment_date < :date " +
+            "then :date else last_comment_date end where id = :id",
+            query -> query.setParameter("date", date, InstantType.INSTANCE));
+    }
+
+    @Override
+    public int removeComment(Long id) {
+        return update(id, "update issue set version = version + 1, comment_count = comment_count - 1, " +
+            "last_comment_date = (select max(c.jhi_date) from comment c where c.issue_id = :id) where id = :id",
+            query -> { });
+    }
+
+    @Override
+    public int updateLastCommentDate(Long id) {
+        return update(id, "update issue set version = version + 1, " +
+            "last_comment_date = (select max(c.jhi_date) from comment c where c.issue_id = :id) where id = :id",
+            query -> { });
+    }
+
+    private int update(Long id, String sql, Consumer<NativeQuery<?>> parameters) {
+        // The statements read the comments, which must include the pending changes
+        entityManager.flush();
+        NativeQuery<?> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+        query.addSynchronizedQuerySpace("");
+        query.setParameter("id", id);
+        parameters.accept(query);
+        int updated = query.executeUpdate();
+
+        evict(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(id);
+                }
+            });
+        }
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityKey key = session.generateEntityKey(id, session.getFactory().getMetamodel().entityPersister(Issue.class));
+        Object managed = session.getPersistenceContext().getEntity(key);
+        if (managed != null) {
+            entityManager.refresh(managed);
+        }
+        return updated;
+    }
+
+    private void evict(Long id) {
+        entityManager.getEntityManagerFactory().getCache().evict(Issue.class, id);
+    }
+}
@@ -2,21 +2,83 @@ package com.triippztech.repository;
 
 import com.triippztech.domain.Issue;
 import com.triippztech.domain.enumeration.Resolution;
+import com.triippztech.service.dto.IssueSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Spring Data  repository for the Issue entity.
+ * <p>
+ * List queries fetch the issue user in the same statement, so a list costs a constant number of SQL statements.
  */
 @SuppressWarnings("unused")
 @Repository
-public interface IssueRepository extends JpaRepository<Issue, Long>, JpaSpecificationExecutor<Issue> {
+public interface IssueRepository extends JpaRepository<Issue, Long>, JpaSpecificationExecutor<Issue>,
+    IssueActivityRepository {
+
+    String SUMMARY_SELECT = "select new com.triippztech.service.dto.IssueSummary(issue.id, issue.number, issue.priority, " +
+        "issue.resolution, issue.reportedDate, reporter.login, issue.commentCount, issue.lastCommentDate) " +
+        "from Issue issue left join issue.user reporter ";
 
     @Query("select issue from Issue issue where issue.user.login = ?#{principal.username}")
     List<Issue> findByUserIsCurrentUser();
 
+    @EntityGraph(attributePaths = "user")
     List<Issue> findAllByResolution(Resolution resolution);
 
+    Optional<Issue> findOneByNumber(Integer number);
+
+    /**
+     * Unlike other queries, this does not flush the pending changes first, so that it does not break the JDBC batches
+     * of a bulk insert.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.FLUSH_MODE, value = "COMMIT"))
+    boolean existsByNumber(Integer number);
+
+    /**
+     * Like {@link #existsByNumber(Integer)}, this does not flush the pending changes first.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.FLUSH_MODE, value = "COMMIT"))
+    @Query("select max(issue.number) from Issue issue")
+    Optional<Integer> findMaxNumber();
+
+    @Override
+    @EntityGraph(attributePaths = "user")
+    List<Issue> findAll(@Nullable Specification<Issue> spec);
+
+    @Override
+    @EntityGraph(attributePaths = "user")
+    Page<Issue> findAll(@Nullable Specification<Issue> spec, Pageable pageable);
+
+    @Query("select issue.priority, issue.resolution, count(issue) from Issue issue group by issue.priority, issue.resolution")
+    List<Object[]> countGroupedByPriorityAndResolution();
+
+    @Query(SUMMARY_SELECT)
+    List<IssueSummary> findAllSummaries();
+
+    @Query(SUMMARY_SELECT + "where issue.resolution = :resolution")
+    List<IssueSummary> findAllSummariesByResolution(@Param("resolution") Resolution resolution);
+
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.FETCH_SIZE, value = "500"))
+    @Query("select issue.id, issue.version, issue.description from Issue issue")
+    Stream<Object[]> streamAllDescriptions();
+
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.FETCH_SIZE, value = "500"))
+    @Query("select issue.id, issue.version from Issue issue")
+    Stream<Object[]> streamAllVersions();
+
+    @Query("select issue.id, issue.version, issue.description from Issue issue where issue.id in :ids")
+    List<Object[]> findDescriptionsByIdIn(@Param("ids") Collection<Long> ids);
+
 }
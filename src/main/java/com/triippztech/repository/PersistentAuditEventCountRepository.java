@@ -0,0 +1,36 @@
+package com.triippztech.repository;
+
+import com.triippztech.domain.PersistentAuditEventCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Spring Data JPA repository for the {@link PersistentAuditEventCount} entity.
+ */
+public interface PersistentAuditEventCountRepository
+    extends JpaRepository<PersistentAuditEventCount, PersistentAuditEventCount.Key> {
+
+    /**
+     * Add to an existing count.
+     *
+     * @param day the day of the count.
+     * @param principal the principal of the count.
+     * @param auditEventType the event type of the count.
+     * @param count the number to add.
+     * @return the number of updated counts: 0 if the count does not exist yet.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update PersistentAuditEventCount c set c.count = c.count + :count " +
+        "where c.id.day = :day and c.id.principal = :principal and c.id.auditEventType = :auditEventType")
+    int increment(@Param("day") LocalDate day, @Param("principal") String principal,
+                  @Param("auditEventType") String auditEventType, @Param("count") long count);
+
+    @Query("select c from PersistentAuditEventCount c where c.id.day between :fromDay and :toDay " +
+        "order by c.id.day, c.id.principal, c.id.auditEventType")
+    List<PersistentAuditEventCount> findAllByDayBetween(@Param("fromDay") LocalDate fromDay, @Param("toDay") LocalDate toDay);
+}
@@ -0,0 +1,235 @@
+package com.triippztech.repository;
+
+import com.triippztech.config.ApplicationProperties;
+import com.triippztech.domain.PersistentAuditEvent;
+import com.triippztech.domain.PersistentAuditEventCount;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.PersistenceException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind writer of {@link PersistentAuditEvent}s.
+ * <p>
+ * Events are queued in a bounded buffer and written by a background thread, in batches of up to
+ * {@code application.audit.batch-size} events per transaction, so that Hibernate sends the events and their data
+ * rows as JDBC batches. The {@link PersistentAuditEventCount daily counts} are updated in the same transactions.
+ * An event waits at most {@code application.audit.flush-interval-ms} for its batch to fill up.
+ * When the buffer is full, {@code application.audit.overflow-policy} decides whether the event is written by the
+ * caller, waits for room, or is dropped. The events still queued on shutdown are written before the application
+ * stops.
+ */
+@Component
+public class PersistentAuditEventWriter implements InitializingBean, DisposableBean {
+
+    private final Logger log = LoggerFactory.getLogger(PersistentAuditEventWriter.class);
+
+    private final PersistenceAuditEventRepository persistenceAuditEventRepository;
+
+    private final PersistentAuditEventCountRepository persistentAuditEventCountRepository;
+
+    private final ApplicationProperties.Audit properties;
+
+    private final BlockingQueue<PersistentAuditEvent> queue;
+
+    /**
+     * Joins the current transaction, if any: only the writer thread and {@link #flush()} use it.
+     */
+    private final TransactionTemplate batchTransactionTemplate;
+
+    private final TransactionTemplate callerTransactionTemplate;
+
+    private final Counter dropped;
+
+    private volatile boolean stopped;
+
+    private Thread thread;
+
+    public PersistentAuditEventWriter(PersistenceAuditEventRepository persistenceAuditEventRepository,
+                                      PersistentAuditEventCountRepository persistentAuditEventCountRepository,
+                                      PlatformTransactionManager transactionManager,
+                                      ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.persistenceAuditEventRepository = persistenceAuditEventRepository;
+        this.persistentAuditEventCountRepository = persistentAuditEventCountRepository;
+        this.properties = applicationProperties.getAudit();
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.batchTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.callerTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.callerTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Gauge.builder("audit.events.queued", queue, BlockingQueue::size)
+            .description("Audit events waiting to be written").register(meterRegistry);
+        this.dropped = Counter.builder("audit.events.dropped")
+            .description("Audit events dropped because the queue was full").register(meterRegistry);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        thread = new Thread(this::run, "audit-event-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop the background writer, then write the events it left in the queue.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        stopped = true;
+        if (thread != null) {
+            thread.join(properties.getShutdownTimeoutMs());
+            if (thread.isAlive()) {
+                log.warn("Audit event writer did not stop within {} ms", properties.getShutdownTimeoutMs());
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Queue an event to be written.
+     *
+     * @param event the event.
+     */
+    public void write(PersistentAuditEvent event) {
+        if (stopped) {
+            callerTransactionTemplate.execute(status -> save(Collections.singletonList(event)));
+            return;
+        }
+        if (!queue.offer(event)) {
+            switch (properties.getOverflowPolicy()) {
+                case BLOCK:
+                    if (!put(event)) {
+                        return;
+                    }
+                    break;
+                case DROP:
+                    drop(event);
+                    return;
+                default:
+                    callerTransactionTemplate.execute(status -> save(Collections.singletonList(event)));
+                    return;
+            }
+        }
+        if (stopped) {
+            // Stopped while queueing: the shutdown flush may already have run
+            flush();
+        }
+    }
+
+    /**
+     * Write all the queued events in the calling thread, in the current transaction if there is one.
+     */
+    public void flush() {
+        List<PersistentAuditEvent> batch = new ArrayList<>();
+        while (queue.drainTo(batch, properties.getBatchSize()) > 0) {
+            persist(batch);
+            batch.clear();
+        }
+    }
+
+    private void run() {
+        List<PersistentAuditEvent> batch = new ArrayList<>();
+        while (!stopped) {
+            try {
+                PersistentAuditEvent first = queue.poll(properties.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getFlushIntervalMs());
+                while (batch.size() < properties.getBatchSize() && !stopped) {
+                    queue.drainTo(batch, properties.getBatchSize() - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= properties.getBatchSize() || remaining <= 0) {
+                        break;
+                    }
+                    PersistentAuditEvent next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+                persist(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Could not write {} audit events: {}", batch.size(), e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void persist(List<PersistentAuditEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            batchTransactionTemplate.execute(status -> save(batch));
+        } catch (PersistenceException | DataAccessException e) {
+            log.warn("Could not write a batch of {} audit events, writing them one by one: {}", batch.size(), e.getMessage());
+            for (PersistentAuditEvent event : batch) {
+                // The id allocated by the failed attempt was rolled back with it
+                event.setId(null);
+                try {
+                    batchTransactionTemplate.execute(status -> save(Collections.singletonList(event)));
+                } catch (PersistenceException | DataAccessException eventException) {
+                    log.error("Could not write audit event {}: {}", event, eventException.getMessage());
+                }
+            }
+        }
+    }
+
+    private List<PersistentAuditEvent> save(List<PersistentAuditEvent> events) {
+        List<PersistentAuditEvent> saved = persistenceAuditEventRepository.saveAll(events);
+        Map<PersistentAuditEventCount.Key, Long> counts = events.stream()
+            .filter(event -> event.getAuditEventDate() != null)
+            .collect(Collectors.groupingBy(PersistentAuditEventCount.Key::of, Collectors.counting()));
+        counts.forEach((key, count) -> {
+            if (persistentAuditEventCountRepository.increment(key.getDay(), key.getPrincipal(),
+                key.getAuditEventType(), count) == 0) {
+                persistentAuditEventCountRepository.save(new PersistentAuditEventCount(key, count));
+            }
+        });
+        return saved;
+    }
+
+    private boolean put(PersistentAuditEvent event) {
+        try {
+            while (!queue.offer(event, properties.getFlushIntervalMs(), TimeUnit.MILLISECONDS)) {
+                if (stopped) {
+                    callerTransactionTemplate.execute(status -> save(Collections.singletonList(event)));
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            drop(event);
+            return false;
+        }
+    }
+
+    private void drop(PersistentAuditEvent event) {
+        dropped.increment();
+        log.warn("Audit event queue is full, dropping {}", event);
+    }
+}
@@ -1,6 +1,6 @@
 package com.triippztech.security.jwt;
 
-import org.springframework.security.core.Authentication;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.GenericFilterBean;
@@ -11,15 +11,25 @@ import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
 
 /**
  * Filters incoming requests and installs a Spring Security principal if a header corresponding to a valid user is
  * found.
+ * <p>
+ * Browsers cannot set headers on the requests of an {@code EventSource}, so the server-sent event streams also accept
+ * the token in the {@value #ACCESS_TOKEN_PARAMETER} query parameter. Only these {@code GET} requests do: a URL is
+ * more easily leaked, typically in access logs, than a header.
  */
 public class JWTFilter extends GenericFilterBean {
 
     public static final String AUTHORIZATION_HEADER = "Authorization";
 
+    public static final String ACCESS_TOKEN_PARAMETER = "access_token";
+
+    private static final Set<String> EVENT_STREAM_PATHS = Collections.singleton("/api/issues/stream");
+
     private TokenProvider tokenProvider;
 
     public JWTFilter(TokenProvider tokenProvider) {
@@ -31,9 +41,9 @@ public class JWTFilter extends GenericFilterBean {
         throws IOException, ServletException {
         HttpServletRequest httpServletRequest = (HttpServletRequest) servletRequest;
         String jwt = resolveToken(httpServletRequest);
-        if (StringUtils.hasText(jwt) && this.tokenProvider.validateToken(jwt)) {
-            Authentication authentication = this.tokenProvider.getAuthentication(jwt);
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+        if (StringUtils.hasText(jwt)) {
+            this.tokenProvider.authenticate(jwt)
+                .ifPresent(authentication -> SecurityContextHolder.getContext().setAuthentication(authentication));
         }
         filterChain.doFilter(servletRequest, servletResponse);
     }
@@ -43,6 +53,10 @@ public class JWTFilter extends GenericFilterBean {
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
             return bearerToken.substring(7);
         }
+        if (HttpMethod.GET.matches(request.getMethod()) &&
+            EVENT_STREAM_PATHS.contains(request.getRequestURI().substring(request.getContextPath().length()))) {
+            return request.getParameter(ACCESS_TOKEN_PARAMETER);
+        }
         return null;
     }
 }
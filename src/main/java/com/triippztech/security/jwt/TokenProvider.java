@@ -2,7 +2,11 @@ package com.triippztech.security.jwt;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -28,6 +32,16 @@ public class TokenProvider implements InitializingBean {
 
     private static final String AUTHORITIES_KEY = "auth";
 
+    /**
+     * Maximum number of verified tokens kept by {@link #authenticate(String)}.
+     */
+    static final int MAX_CACHED_AUTHENTICATIONS = 10000;
+
+    /**
+     * Authentications of the verified tokens, keyed by token hash, until the tokens expire.
+     */
+    private final ConcurrentMap<String, CachedAuthentication> authentications = new ConcurrentHashMap<>();
+
     private Key key;
 
     private long tokenValidityInMilliseconds;
@@ -86,7 +100,41 @@ public class TokenProvider implements InitializingBean {
             .setSigningKey(key)
             .parseClaimsJws(token)
             .getBody();
+        return toAuthentication(token, claims);
+    }
+
+    /**
+     * Validate a token and build its authentication, parsing and verifying the token only once.
+     * <p>
+     * The authentications of valid tokens are cached until the tokens expire, so the next requests carrying the same
+     * token skip the signature verification.
+     *
+     * @param token the token.
+     * @return the authentication, or empty if the token is not valid.
+     */
+    public Optional<Authentication> authenticate(String token) {
+        String hash = hash(token);
+        long now = System.currentTimeMillis();
+        CachedAuthentication cached = authentications.get(hash);
+        if (cached != null) {
+            if (now < cached.expiration) {
+                return Optional.of(cached.authentication);
+            }
+            authentications.remove(hash, cached);
+        }
+        Optional<Claims> claims = parseClaims(token);
+        if (!claims.isPresent()) {
+            return Optional.empty();
+        }
+        Authentication authentication = toAuthentication(token, claims.get());
+        Date expiration = claims.get().getExpiration();
+        if (expiration != null) {
+            cache(hash, new CachedAuthentication(authentication, expiration.getTime()), now);
+        }
+        return Optional.of(authentication);
+    }
 
+    private Authentication toAuthentication(String token, Claims claims) {
         Collection<? extends GrantedAuthority> authorities =
             Arrays.stream(claims.get(AUTHORITIES_KEY).toString().split(","))
                 .map(SimpleGrantedAuthority::new)
@@ -97,10 +145,33 @@ public class TokenProvider implements InitializingBean {
         return new UsernamePasswordAuthenticationToken(principal, token, authorities);
     }
 
+    private void cache(String hash, CachedAuthentication cached, long now) {
+        if (authentications.size() >= MAX_CACHED_AUTHENTICATIONS) {
+            authentications.values().removeIf(entry -> now >= entry.expiration);
+            if (authentications.size() >= MAX_CACHED_AUTHENTICATIONS) {
+                log.debug("JWT authentication cache is full, not caching the token");
+                return;
+            }
+        }
+        authentications.put(hash, cached);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
     public boolean validateToken(String authToken) {
+        return parseClaims(authToken).isPresent();
+    }
+
+    private Optional<Claims> parseClaims(String authToken) {
         try {
-            Jwts.parser().setSigningKey(key).parseClaimsJws(authToken);
-            return true;
+            return Optional.of(Jwts.parser().setSigningKey(key).parseClaimsJws(authToken).getBody());
         } catch (io.jsonwebtoken.security.SecurityException | MalformedJwtException e) {
             log.info("Invalid JWT signature.");
             log.trace("Invalid JWT signature trace: {}", e);
@@ -114,6 +185,18 @@ public class TokenProvider implements InitializingBean {
             log.info("JWT token compact of handler are invalid.");
             log.trace("JWT token compact of handler are invalid trace: {}", e);
         }
-        return false;
+        return Optional.empty();
+    }
+
+    private static final class CachedAuthentication {
+
+        private final Authentication authentication;
+
+        private final long expiration;
+
+        private CachedAuthentication(Authentication authentication, long expiration) {
+            this.authentication = authentication;
+            this.expiration = expiration;
+        }
     }
 }
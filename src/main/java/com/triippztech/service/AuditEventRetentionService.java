@@ -0,0 +1,242 @@
+package com.triippztech.service;
+
+import com.triippztech.config.ApplicationProperties;
+import com.triippztech.domain.PersistentAuditEvent;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Service purging the {@link PersistentAuditEvent}s older than {@code application.audit.retention-months}.
+ * <p>
+ * Expired events are purged a month at a time, after being archived as gzipped newline-delimited JSON when
+ * {@code application.audit.archive-directory} is set. On PostgreSQL, the events are stored in monthly partitions,
+ * which are dropped instead of deleted row by row, and the partitions of the coming months are created ahead.
+ * The daily counts of the events are kept.
+ */
+@Service
+public class AuditEventRetentionService {
+
+    private static final String EVENT_TABLE = "jhi_persistent_audit_event";
+
+    private static final String DATA_TABLE = "jhi_persistent_audit_evt_data";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(AuditEventRetentionService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationProperties.Audit properties;
+
+    private Boolean partitioned;
+
+    public AuditEventRetentionService(DataSource dataSource, PlatformTransactionManager transactionManager,
+                                      ObjectMapper objectMapper, ApplicationProperties applicationProperties) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.properties = applicationProperties.getAudit();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        createPartitions();
+    }
+
+    /**
+     * Purge the expired audit events every night.
+     * <p>
+     * This is scheduled to get fired at 03:30 (am).
+     */
+    @Scheduled(cron = "0 30 3 * * ?")
+    public void purgeExpiredEvents() {
+        createPartitions();
+        purge(YearMonth.now(ZoneOffset.UTC).minusMonths(properties.getRetentionMonths()));
+    }
+
+    /**
+     * Archive then delete the audit events of the months before the given one.
+     *
+     * @param firstRetainedMonth the first month whose events are kept, in UTC.
+     * @return the number of purged months.
+     */
+    public int purge(YearMonth firstRetainedMonth) {
+        int purged = 0;
+        while (true) {
+            Timestamp oldest = jdbcTemplate.queryForObject("select min(event_date) from " + EVENT_TABLE, Timestamp.class);
+            if (oldest == null || !YearMonth.from(oldest.toLocalDateTime()).isBefore(firstRetainedMonth)) {
+                return purged;
+            }
+            purgeMonth(YearMonth.from(oldest.toLocalDateTime()));
+            purged++;
+        }
+    }
+
+    private void purgeMonth(YearMonth month) {
+        Timestamp from = toTimestamp(month);
+        Timestamp to = toTimestamp(month.plusMonths(1));
+        if (properties.getArchiveDirectory() != null) {
+            archive(month, from, to);
+        }
+        transactionTemplate.execute(status -> {
+            int dataRows = jdbcTemplate.update("delete from " + DATA_TABLE + " where event_id in " +
+                "(select event_id from " + EVENT_TABLE + " where event_date >= ? and event_date < ?)", from, to);
+            String partition = partitionName(month);
+            if (isPartitioned() && partitionExists(partition)) {
+                jdbcTemplate.execute("drop table " + partition);
+                log.debug("Dropped audit event partition {}", partition);
+            }
+            // Events of the month which are not in its partition, or all of them without partitions
+            int events = jdbcTemplate.update("delete from " + EVENT_TABLE + " where event_date >= ? and event_date < ?",
+                from, to);
+            log.info("Purged the audit events of {}: {} rows deleted, {} data rows deleted", month, events, dataRows);
+            return null;
+        });
+    }
+
+    /**
+     * Write the events of a month, with their data, to {@code audit-events-YYYY-MM.ndjson.gz}. The file is written
+     * aside then moved in place, so a file is always complete; an archive left by an interrupted purge is replaced.
+     */
+    private void archive(YearMonth month, Timestamp from, Timestamp to) {
+        Path directory = Paths.get(properties.getArchiveDirectory());
+        Path archive = directory.resolve("audit-events-" + month + ".ndjson.gz");
+        try {
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, "audit-events-" + month, ".tmp");
+            try {
+                long events;
+                try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(temporary))) {
+                    events = transactionTemplate.execute(status -> writeEvents(output, from, to));
+                }
+                Files.move(temporary, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                log.info("Archived {} audit events of {} to {}", events, month, archive);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not archive the audit events of " + month + " to " + archive, e);
+        }
+    }
+
+    private long writeEvents(OutputStream output, Timestamp from, Timestamp to) {
+        ObjectNode[] current = new ObjectNode[1];
+        long[] events = new long[1];
+        jdbcTemplate.query("select e.event_id, e.principal, e.event_date, e.event_type, d.name, d.value " +
+            "from " + EVENT_TABLE + " e left join " + DATA_TABLE + " d on d.event_id = e.event_id " +
+            "where e.event_date >= ? and e.event_date < ? order by e.event_id", resultSet -> {
+            long id = resultSet.getLong(1);
+            if (current[0] == null || current[0].get("id").asLong() != id) {
+                writeLine(output, current[0]);
+                current[0] = objectMapper.createObjectNode()
+                    .put("id", id)
+                    .put("principal", resultSet.getString(2))
+                    .put("date", resultSet.getTimestamp(3).toLocalDateTime().toInstant(ZoneOffset.UTC).toString())
+                    .put("type", resultSet.getString(4));
+                current[0].putObject("data");
+                events[0]++;
+            }
+            String name = resultSet.getString(5);
+            if (name != null) {
+                ((ObjectNode) current[0].get("data")).put(name, resultSet.getString(6));
+            }
+        }, from, to);
+        writeLine(output, current[0]);
+        return events[0];
+    }
+
+    private void writeLine(OutputStream output, ObjectNode event) {
+        if (event == null) {
+            return;
+        }
+        try {
+            output.write(objectMapper.writeValueAsBytes(event));
+            output.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Create the partitions of the current and next months, if the events are partitioned.
+     */
+    public void createPartitions() {
+        if (!isPartitioned()) {
+            return;
+        }
+        YearMonth month = YearMonth.now(ZoneOffset.UTC);
+        for (YearMonth partitionMonth : new YearMonth[]{month, month.plusMonths(1)}) {
+            String partition = partitionName(partitionMonth);
+            if (partitionExists(partition)) {
+                continue;
+            }
+            try {
+                jdbcTemplate.execute("create table " + partition + " partition of " + EVENT_TABLE +
+                    " for values from ('" + partitionMonth.atDay(1) + "') to ('" + partitionMonth.plusMonths(1).atDay(1) + "')");
+                log.info("Created audit event partition {}", partition);
+            } catch (DataAccessException e) {
+                // Typically because the default partition already holds events of the month
+                log.warn("Could not create audit event partition {}: {}", partition, e.getMessage());
+            }
+        }
+    }
+
+    private synchronized boolean isPartitioned() {
+        if (partitioned == null) {
+            String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            partitioned = "PostgreSQL".equals(database) && jdbcTemplate.queryForObject("select count(*) " +
+                "from pg_partitioned_table p join pg_class c on c.oid = p.partrelid where c.relname = ?",
+                Long.class, EVENT_TABLE) > 0;
+        }
+        return partitioned;
+    }
+
+    private boolean partitionExists(String partition) {
+        return jdbcTemplate.queryForObject("select count(*) from pg_class where relname = ?", Long.class, partition) > 0;
+    }
+
+    private static String partitionName(YearMonth month) {
+        return EVENT_TABLE + "_p" + PARTITION_SUFFIX.format(month);
+    }
+
+    /**
+     * Event dates are stored as UTC date times.
+     */
+    private static Timestamp toTimestamp(YearMonth month) {
+        return Timestamp.valueOf(month.atDay(1).atStartOfDay());
+    }
+}
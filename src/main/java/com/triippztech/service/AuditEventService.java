@@ -2,6 +2,8 @@ package com.triippztech.service;
 
 import com.triippztech.config.audit.AuditEventConverter;
 import com.triippztech.repository.PersistenceAuditEventRepository;
+import com.triippztech.repository.PersistentAuditEventCountRepository;
+import com.triippztech.service.dto.AuditEventCountDTO;
 import org.springframework.boot.actuate.audit.AuditEvent;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -9,7 +11,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * Service for managing audit events.
@@ -22,13 +27,17 @@ public class AuditEventService {
 
     private final PersistenceAuditEventRepository persistenceAuditEventRepository;
 
+    private final PersistentAuditEventCountRepository persistentAuditEventCountRepository;
+
     private final AuditEventConverter auditEventConverter;
 
     public AuditEventService(
         PersistenceAuditEventRepository persistenceAuditEventRepository,
+        PersistentAuditEventCountRepository persistentAuditEventCountRepository,
         AuditEventConverter auditEventConverter) {
 
         this.persistenceAuditEventRepository = persistenceAuditEventRepository;
+        this.persistentAuditEventCountRepository = persistentAuditEventCountRepository;
         this.auditEventConverter = auditEventConverter;
     }
 
@@ -48,4 +57,18 @@ public class AuditEventService {
             .map(Optional::get)
             .map(auditEventConverter::convertToAuditEvent);
     }
+
+    /**
+     * Get the daily counts of the audit events, including the purged ones.
+     *
+     * @param fromDay the first UTC day.
+     * @param toDay the last UTC day, included.
+     * @return the counts per day, principal and type.
+     */
+    @Transactional(readOnly = true)
+    public List<AuditEventCountDTO> findCounts(LocalDate fromDay, LocalDate toDay) {
+        return persistentAuditEventCountRepository.findAllByDayBetween(fromDay, toDay).stream()
+            .map(AuditEventCountDTO::new)
+            .collect(Collectors.toList());
+    }
 }
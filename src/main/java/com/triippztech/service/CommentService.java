@@ -1,40 +1,132 @@
 package com.triippztech.service;
 
 import com.triippztech.domain.Comment;
+import com.triippztech.domain.Issue;
 import com.triippztech.repository.CommentRepository;
+import com.triippztech.repository.IssueRepository;
+import com.triippztech.service.dto.BatchResultDTO;
+import com.triippztech.service.dto.CommentCursor;
+import com.triippztech.service.event.CommentChangedEvent;
+import com.triippztech.service.util.BatchFetchUtil;
+import com.triippztech.service.util.SparseFieldsUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
  * Service Implementation for managing {@link Comment}.
+ * <p>
+ * Saving or deleting a comment also maintains the comment count and last comment date of its {@link Issue},
+ * so that issue lists show the activity without reading the comments.
  */
 @Service
 @Transactional
 public class CommentService {
 
+    private static final List<String> UNPATCHABLE_PROPERTIES = Arrays.asList("id", "version");
+
     private final Logger log = LoggerFactory.getLogger(CommentService.class);
 
     private final CommentRepository commentRepository;
 
-    public CommentService(CommentRepository commentRepository) {
+    private final IssueRepository issueRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ObjectMapper objectMapper;
+
+    private final EntityManager entityManager;
+
+    public CommentService(CommentRepository commentRepository, IssueRepository issueRepository,
+                          ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper,
+                          EntityManager entityManager) {
         this.commentRepository = commentRepository;
+        this.issueRepository = issueRepository;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
     }
 
     /**
      * Save a comment.
+     * <p>
+     * An existing comment without a version overwrites the stored one.
      *
      * @param comment the entity to save.
      * @return the persisted entity.
+     * @throws ObjectOptimisticLockingFailureException if the comment was changed since the version of the entity.
      */
     public Comment save(Comment comment) {
         log.debug("Request to save Comment : {}", comment);
-        return commentRepository.save(comment);
+        // Loaded in the persistence context, so the save below merges into it without another query
+        Optional<Comment> existing = comment.getId() == null ? Optional.empty() : commentRepository.findById(comment.getId());
+        Long previousIssueId = existing.map(Comment::getIssue).map(Issue::getId).orElse(null);
+        Instant previousDate = existing.map(Comment::getDate).orElse(null);
+        if (comment.getVersion() == null) {
+            existing.ifPresent(stored -> comment.setVersion(stored.getVersion()));
+        }
+        referenceIssue(comment);
+        Comment result = commentRepository.save(comment);
+        updateIssueActivity(previousIssueId, previousDate, result.getIssue() == null ? null : result.getIssue().getId(),
+            result.getDate());
+        eventPublisher.publishEvent(existing.isPresent() ?
+            CommentChangedEvent.updated(previousIssueId, result) : CommentChangedEvent.created(result));
+        return result;
+    }
+
+    /**
+     * Apply changes to a comment: only the properties present in the changes are written, as a JSON merge patch.
+     *
+     * @param id the id of the entity.
+     * @param version the version which the comment must still have, or {@code null}.
+     * @param changes the new values of the changed properties; its {@code id} and {@code version} are ignored.
+     * @return the updated entity, or empty if the comment does not exist.
+     * @throws ObjectOptimisticLockingFailureException if the comment does not have the version anymore.
+     * @throws IllegalArgumentException if the changes are not valid values of the properties.
+     */
+    public Optional<Comment> partialUpdate(Long id, Long version, ObjectNode changes) {
+        log.debug("Request to partially update Comment : {} with : {}", id, changes);
+        Optional<Comment> existing = commentRepository.findById(id);
+        if (!existing.isPresent()) {
+            return Optional.empty();
+        }
+        Comment comment = existing.get();
+        if (version != null && !version.equals(comment.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Comment.class, id);
+        }
+        Long previousIssueId = comment.getIssue() == null ? null : comment.getIssue().getId();
+        Instant previousDate = comment.getDate();
+        try {
+            objectMapper.readerForUpdating(comment).readValue(changes.deepCopy().without(UNPATCHABLE_PROPERTIES));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid comment changes: " + e.getMessage(), e);
+        }
+        referenceIssue(comment);
+        // Written now, to report invalid values and to return the new version
+        commentRepository.flush();
+        updateIssueActivity(previousIssueId, previousDate, comment.getIssue() == null ? null : comment.getIssue().getId(),
+            comment.getDate());
+        eventPublisher.publishEvent(CommentChangedEvent.updated(previousIssueId, comment));
+        return Optional.of(comment);
     }
 
     /**
@@ -48,6 +140,47 @@ public class CommentService {
         return commentRepository.findAll();
     }
 
+    /**
+     * Get some fields of all the comments, in id order. Only the columns of the requested fields are read,
+     * so the descriptions are not unless requested.
+     *
+     * @param fields the names of the fields to return; the id is always returned.
+     * @return a map from field name to value per comment.
+     * @throws IllegalArgumentException if a field is unknown or not a basic field of the comments.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findAllFields(Collection<String> fields) {
+        log.debug("Request to get the fields {} of all Comments", fields);
+        return SparseFieldsUtil.findFields(entityManager, Comment.class, null, fields, Sort.unsorted(), false);
+    }
+
+    /**
+     * @return the names of the fields which can be read by {@link #findAllFields(Collection)}.
+     */
+    @Transactional(readOnly = true)
+    public List<String> getFieldNames() {
+        return SparseFieldsUtil.fieldNames(entityManager, Comment.class);
+    }
+
+
+    /**
+     * Get a keyset page of the comments of an issue, oldest first.
+     *
+     * @param issueId the id of the issue.
+     * @param after the position of the last comment of the previous page, or {@code null} for the first page.
+     * @param size the maximum number of comments to return.
+     * @return the comments, and whether a next page exists, or empty if the issue does not exist.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Slice<Comment>> findAllByIssue(Long issueId, CommentCursor after, int size) {
+        log.debug("Request to get Comments of Issue : {} after : {}", issueId, after);
+        if (!issueRepository.existsById(issueId)) {
+            return Optional.empty();
+        }
+        PageRequest page = PageRequest.of(0, size);
+        return Optional.of(after == null ? commentRepository.findAllByIssueId(issueId, page) :
+            commentRepository.findAllByIssueIdAfter(issueId, after.getDate(), after.getId(), page));
+    }
 
     /**
      * Get one comment by id.
@@ -61,6 +194,18 @@ public class CommentService {
         return commentRepository.findById(id);
     }
 
+    /**
+     * Get the comments with the given ids, from the second-level cache or else with a single query.
+     *
+     * @param ids the ids of the entities.
+     * @return the found entities and the missing ids, in the order of the ids.
+     */
+    @Transactional(readOnly = true)
+    public BatchResultDTO<Comment> findAllById(Collection<Long> ids) {
+        log.debug("Request to get Comments : {}", ids);
+        return BatchFetchUtil.findAllById(entityManager, Comment.class, ids);
+    }
+
     /**
      * Delete the comment by id.
      *
@@ -68,6 +213,38 @@ public class CommentService {
      */
     public void delete(Long id) {
         log.debug("Request to delete Comment : {}", id);
+        Optional<Comment> existing = commentRepository.findById(id);
         commentRepository.deleteById(id);
+        existing.ifPresent(comment -> {
+            Long issueId = comment.getIssue() == null ? null : comment.getIssue().getId();
+            updateIssueActivity(issueId, comment.getDate(), null, null);
+            eventPublisher.publishEvent(CommentChangedEvent.deleted(id, issueId));
+        });
+    }
+
+    /**
+     * Replace the issue of a comment by the stored one when it has no version, as when the client only sent its id:
+     * Hibernate would otherwise take it for a new issue.
+     */
+    private void referenceIssue(Comment comment) {
+        Issue issue = comment.getIssue();
+        if (issue != null && issue.getId() != null && issue.getVersion() == null) {
+            issueRepository.findById(issue.getId()).ifPresent(comment::setIssue);
+        }
+    }
+
+    /**
+     * Update the activity of the issues a comment was removed from and added to. The counters are updated in the
+     * database rather than read and written back, so that concurrent comments on an issue are all counted.
+     */
+    private void updateIssueActivity(Long previousIssueId, Instant previousDate, Long issueId, Instant date) {
+        if (previousIssueId != null && !previousIssueId.equals(issueId)) {
+            issueRepository.removeComment(previousIssueId);
+        }
+        if (issueId != null && !issueId.equals(previousIssueId)) {
+            issueRepository.addComment(issueId, date);
+        } else if (issueId != null && !Objects.equals(previousDate, date)) {
+            issueRepository.updateLastCommentDate(issueId);
+        }
     }
 }
@@ -0,0 +1,384 @@
+package com.triippztech.service;
+
+import com.triippztech.config.ApplicationProperties;
+import com.triippztech.repository.IssueRepository;
+import com.triippztech.service.dto.IssueChangeDTO;
+import com.triippztech.service.dto.IssueCriteria;
+import com.triippztech.service.event.CommentChangedEvent;
+import com.triippztech.service.event.IssueBatchChangedEvent;
+import com.triippztech.service.event.IssueChangedEvent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Service publishing the committed {@link IssueChangedEvent}s and {@link CommentChangedEvent}s to server-sent event
+ * subscribers, each with its own {@link IssueCriteria}.
+ * <p>
+ * An issue change is sent to the subscribers whose criteria matched the issue before or after the change, so that
+ * they see issues leaving their criteria; a comment change is sent to the subscribers whose criteria match its issue.
+ * Like for {@link IssueCriteriaCache}, the comment filters of the criteria are ignored.
+ * <p>
+ * The recent changes are kept to resume a subscription from the {@code Last-Event-ID} sent by reconnecting clients.
+ * Event ids are only meaningful to the instance which sent them: a client resuming on another instance, or from a
+ * change which is no longer kept, receives a {@code reset} event telling it to reload its issues.
+ * <p>
+ * Changes are matched against the criteria by a single thread, in commit order, then queued for each subscriber.
+ * Each queue is sent by its own task, so that a slow connection, whose writes block, does not delay the other
+ * subscribers. A subscriber falling more than {@code application.issue-feed.queue-size} events behind is
+ * disconnected: it resumes from its {@code Last-Event-ID} when reconnecting, or receives a {@code reset} event.
+ */
+@Service
+public class IssueChangeFeedService implements DisposableBean {
+
+    public static final String RESET_EVENT = "reset";
+
+    private final Logger log = LoggerFactory.getLogger(IssueChangeFeedService.class);
+
+    private final IssueRepository issueRepository;
+
+    private final ApplicationProperties.IssueFeed properties;
+
+    /**
+     * Prefix of the event ids, which differs from one instance, or one start, to another.
+     */
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    private final Deque<Change> recent = new ArrayDeque<>();
+
+    private long sequence;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "issue-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Unbounded, so that each subscriber blocked in a write holds its own thread; idle threads are released.
+     */
+    private final ExecutorService senders = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "issue-feed-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public IssueChangeFeedService(IssueRepository issueRepository, ApplicationProperties applicationProperties) {
+        this.issueRepository = issueRepository;
+        this.properties = applicationProperties.getIssueFeed();
+    }
+
+    /**
+     * Subscribe to the changes of the issues matching the criteria.
+     *
+     * @param criteria the criteria of the issues.
+     * @param lastEventId the id of the last event received by the client, to resume from, or {@code null}.
+     * @return the emitter of the events.
+     */
+    public SseEmitter subscribe(IssueCriteria criteria, String lastEventId) {
+        return subscribe(new SseEmitter(properties.getTimeoutMs()), criteria, lastEventId);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, IssueCriteria criteria, String lastEventId) {
+        // Without any filter, also receive the comment changes of issues which no longer exist
+        Subscriber subscriber = new Subscriber(emitter, new IssueCriteria().equals(criteria) ? null : criteria,
+            properties.getQueueSize());
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        dispatcher.execute(() -> {
+            replay(subscriber, lastEventId);
+            subscribers.add(subscriber);
+        });
+        return emitter;
+    }
+
+    /**
+     * Publish a committed issue change.
+     *
+     * @param event the change.
+     */
+    @TransactionalEventListener
+    public void onIssueChanged(IssueChangedEvent event) {
+        publish(Collections.singletonList(change(event)));
+    }
+
+    /**
+     * Publish committed issue changes, sent to each subscriber at once.
+     *
+     * @param event the changes.
+     */
+    @TransactionalEventListener
+    public void onIssuesChanged(IssueBatchChangedEvent event) {
+        List<Change> changes = new ArrayList<>(event.getChanges().size());
+        event.getChanges().forEach(change -> changes.add(change(change)));
+        publish(changes);
+    }
+
+    /**
+     * Publish a committed comment change.
+     *
+     * @param event the change.
+     */
+    @TransactionalEventListener
+    public void onCommentChanged(CommentChangedEvent event) {
+        List<Long> issueIds = new ArrayList<>();
+        List<IssueChangedEvent.State> states = new ArrayList<>();
+        for (Long issueId : new Long[]{event.getPreviousIssueId(), event.getIssueId()}) {
+            if (issueId != null && !issueIds.contains(issueId)) {
+                // Still in the committed transaction's persistence context, so this is usually not a query
+                issueRepository.findById(issueId).ifPresent(issue -> {
+                    issueIds.add(issueId);
+                    states.add(IssueChangedEvent.State.of(issue));
+                });
+            }
+        }
+        publish(Collections.singletonList(new Change(IssueChangeDTO.of(event), issueIds, states)));
+    }
+
+    /**
+     * Send a keep-alive comment to the subscribers, so that proxies keep their connections open and that
+     * closed connections are detected.
+     * <p>
+     * This is scheduled to get fired every {@code application.issue-feed.heartbeat-ms}.
+     */
+    @Scheduled(initialDelayString = "${application.issue-feed.heartbeat-ms:20000}",
+        fixedDelayString = "${application.issue-feed.heartbeat-ms:20000}")
+    public void heartbeat() {
+        if (!subscribers.isEmpty()) {
+            dispatcher.execute(() -> subscribers.forEach(subscriber ->
+                send(subscriber, SseEmitter.event().comment("keep-alive"))));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        dispatcher.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private static Change change(IssueChangedEvent event) {
+        List<Long> issueIds = new ArrayList<>();
+        List<IssueChangedEvent.State> states = new ArrayList<>();
+        if (event.getPrevious() != null) {
+            issueIds.add(event.getIssueId());
+            states.add(event.getPrevious());
+        }
+        if (event.getCurrent() != null) {
+            issueIds.add(event.getIssueId());
+            states.add(event.getCurrent());
+        }
+        return new Change(IssueChangeDTO.of(event), issueIds, states);
+    }
+
+    private synchronized void publish(List<Change> changes) {
+        for (Change change : changes) {
+            change.sequence = ++sequence;
+            recent.addLast(change);
+        }
+        while (recent.size() > properties.getReplaySize()) {
+            recent.removeFirst();
+        }
+        // Queued while holding the lock, so that changes are sent in sequence order
+        dispatcher.execute(() -> subscribers.forEach(subscriber -> changes.forEach(change -> dispatch(subscriber, change))));
+    }
+
+    private void dispatch(Subscriber subscriber, Change change) {
+        if (change.sequence <= subscriber.lastSequence) {
+            // Already replayed
+            return;
+        }
+        subscriber.lastSequence = change.sequence;
+        if (change.matches(subscriber.criteria)) {
+            send(subscriber, event(change));
+        }
+    }
+
+    private void replay(Subscriber subscriber, String lastEventId) {
+        long last = parseSequence(lastEventId);
+        List<Change> missed = new ArrayList<>();
+        boolean complete;
+        long current;
+        synchronized (this) {
+            current = sequence;
+            long oldest = recent.isEmpty() ? sequence + 1 : recent.getFirst().sequence;
+            complete = last >= 0 && last <= sequence && last >= oldest - 1;
+            if (complete) {
+                recent.stream().filter(change -> change.sequence > last).forEach(missed::add);
+            }
+            subscriber.lastSequence = sequence;
+        }
+        if (lastEventId == null) {
+            return;
+        }
+        missed.removeIf(change -> !change.matches(subscriber.criteria));
+        if (!complete || missed.size() > properties.getQueueSize()) {
+            log.debug("Cannot resume the issue feed from event {}, sending a reset", lastEventId);
+            send(subscriber, SseEmitter.event().id(eventId(current)).name(RESET_EVENT).data(RESET_EVENT));
+            return;
+        }
+        missed.forEach(change -> send(subscriber, event(change)));
+    }
+
+    private SseEmitter.SseEventBuilder event(Change change) {
+        return SseEmitter.event()
+            .id(eventId(change.sequence))
+            .name(change.change.getEntity().name().toLowerCase(Locale.ROOT))
+            .data(change.change);
+    }
+
+    /**
+     * Queue an event for a subscriber, disconnecting it if its queue is full. Called by the dispatcher thread.
+     */
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (subscriber.closed) {
+            return;
+        }
+        if (!subscriber.queue.offer(event)) {
+            log.debug("Issue feed subscriber is {} events behind, disconnecting it", subscriber.queue.size());
+            subscribers.remove(subscriber);
+            subscriber.queue.clear();
+            // Completed by its sender, which may be blocked in a write holding the lock of the emitter
+            subscriber.behind = true;
+            subscriber.closed = true;
+        }
+        if (subscriber.sending.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    /**
+     * Send the queued events of a subscriber, until its queue is empty.
+     */
+    private void drain(Subscriber subscriber) {
+        do {
+            SseEmitter.SseEventBuilder event;
+            while (!subscriber.closed && (event = subscriber.queue.poll()) != null) {
+                try {
+                    subscriber.emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // The emitter completes itself on IOException; IllegalStateException means it was already complete
+                    log.debug("Issue feed subscriber disconnected: {}", e.getMessage());
+                    subscribers.remove(subscriber);
+                    subscriber.closed = true;
+                }
+            }
+            if (subscriber.closed) {
+                subscriber.queue.clear();
+                if (subscriber.behind) {
+                    subscriber.emitter.complete();
+                }
+                // Still marked as sending, so that no other task is started for it
+                return;
+            }
+            subscriber.sending.set(false);
+            // An event queued after the last poll but before the flag was cleared did not start a task
+        } while (!subscriber.queue.isEmpty() && subscriber.sending.compareAndSet(false, true));
+    }
+
+    private String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    /**
+     * @return the sequence of an event id sent by this instance, or -1.
+     */
+    private long parseSequence(String eventId) {
+        if (eventId == null || !eventId.startsWith(epoch + "-")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static final class Change {
+
+        /**
+         * Assigned when published.
+         */
+        private long sequence;
+
+        private final IssueChangeDTO change;
+
+        private final List<Long> issueIds;
+
+        private final List<IssueChangedEvent.State> states;
+
+        private Change(IssueChangeDTO change, List<Long> issueIds, List<IssueChangedEvent.State> states) {
+            this.change = change;
+            this.issueIds = issueIds;
+            this.states = states;
+        }
+
+        private boolean matches(IssueCriteria criteria) {
+            if (criteria == null) {
+                return true;
+            }
+            for (int i = 0; i < states.size(); i++) {
+                if (IssueCriteriaMatcher.mayMatch(criteria, issueIds.get(i), states.get(i))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final IssueCriteria criteria;
+
+        /**
+         * Only accessed by the dispatcher thread.
+         */
+        private long lastSequence;
+
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+
+        /**
+         * Whether a sender task is started for the queue.
+         */
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        /**
+         * Whether the subscriber is disconnected, so that the events are no longer queued nor sent.
+         */
+        private volatile boolean closed;
+
+        /**
+         * Whether the subscriber was disconnected for falling behind, so that its sender completes the emitter.
+         */
+        private volatile boolean behind;
+
+        private Subscriber(SseEmitter emitter, IssueCriteria criteria, int queueSize) {
+            this.emitter = emitter;
+            this.criteria = criteria;
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.triippztech.service;
+
+import com.triippztech.domain.enumeration.Priority;
+import com.triippztech.domain.enumeration.Resolution;
+import com.triippztech.repository.IssueRepository;
+import com.triippztech.service.dto.IssueCountDTO;
+import com.triippztech.service.dto.IssueCriteria;
+import com.triippztech.service.event.ChangeType;
+import com.triippztech.service.event.IssueBatchChangedEvent;
+import com.triippztech.service.event.IssueChangedEvent;
+
+import io.github.jhipster.service.filter.Filter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Service maintaining in memory the number of issues for each {@link Priority} and {@link Resolution} pair.
+ * <p>
+ * Counters are loaded with a single {@code group by} query, then updated incrementally from the
+ * {@link IssueChangedEvent}s of committed transactions. They are periodically recomputed from the database,
+ * which bounds the drift caused by changes made on other instances. The changes committed while they are recomputed
+ * are applied again to the new counters, as the query may not have seen them.
+ * <p>
+ * Counts requested within a read-write transaction are not answered from the counters, which cannot see its
+ * uncommitted changes.
+ */
+@Service
+public class IssueCounterService {
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private static final Resolution[] RESOLUTIONS = Resolution.values();
+
+    /**
+     * One more slot per dimension, for the issues without priority or resolution.
+     */
+    private static final int RESOLUTION_SLOTS = RESOLUTIONS.length + 1;
+
+    private final Logger log = LoggerFactory.getLogger(IssueCounterService.class);
+
+    private final IssueRepository issueRepository;
+
+    private volatile AtomicLongArray counts;
+
+    /**
+     * The changes applied since the current recomputation started, or {@code null}. Guarded by {@code this}.
+     */
+    private List<IssueChangedEvent> changedDuringReconcile;
+
+    /**
+     * Serializes the recomputations, without blocking the changes applied meanwhile.
+     */
+    private final Object reconcileLock = new Object();
+
+    public IssueCounterService(IssueRepository issueRepository) {
+        this.issueRepository = issueRepository;
+    }
+
+    /**
+     * Get the number of issues for every priority and resolution pair having at least one issue.
+     *
+     * @return the list of counts.
+     */
+    public List<IssueCountDTO> getCounts() {
+        AtomicLongArray current = loadedCounts();
+        List<IssueCountDTO> result = new ArrayList<>();
+        for (int p = 0; p <= PRIORITIES.length; p++) {
+            for (int r = 0; r <= RESOLUTIONS.length; r++) {
+                long count = current.get(p * RESOLUTION_SLOTS + r);
+                if (count > 0) {
+                    result.add(new IssueCountDTO(priorityOf(p), resolutionOf(r), count));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Count the issues matching the criteria from the counters, if they can answer it.
+     *
+     * @param criteria the criteria which the counted entities should match.
+     * @return the number of matching issues, or empty if the criteria filters on anything else
+     * than the priority and the resolution, or if a read-write transaction is active.
+     */
+    public OptionalLong count(IssueCriteria criteria) {
+        if (TransactionSynchronizationManager.isActualTransactionActive() &&
+            !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return OptionalLong.empty();
+        }
+        if (criteria != null && (criteria.getId() != null || criteria.getNumber() != null ||
+            criteria.getReviewerId() != null || criteria.getReportedDate() != null ||
+            criteria.getCommentId() != null || criteria.getUserId() != null)) {
+            return OptionalLong.empty();
+        }
+        Filter<Priority> priorityFilter = criteria == null ? null : criteria.getPriority();
+        Filter<Resolution> resolutionFilter = criteria == null ? null : criteria.getResolution();
+        AtomicLongArray current = loadedCounts();
+        long total = 0;
+        for (int p = 0; p <= PRIORITIES.length; p++) {
+            if (!IssueCriteriaMatcher.matches(priorityFilter, priorityOf(p))) {
+                continue;
+            }
+            for (int r = 0; r <= RESOLUTIONS.length; r++) {
+                if (IssueCriteriaMatcher.matches(resolutionFilter, resolutionOf(r))) {
+                    total += current.get(p * RESOLUTION_SLOTS + r);
+                }
+            }
+        }
+        return OptionalLong.of(total);
+    }
+
+    /**
+     * Apply a committed issue change to the counters.
+     *
+     * @param event the change.
+     */
+    @TransactionalEventListener
+    public void onIssueChanged(IssueChangedEvent event) {
+        apply(Collections.singletonList(event));
+    }
+
+    /**
+     * Apply committed issue changes to the counters.
+     *
+     * @param event the changes.
+     */
+    @TransactionalEventListener
+    public void onIssuesChanged(IssueBatchChangedEvent event) {
+        apply(event.getChanges());
+    }
+
+    private void apply(List<IssueChangedEvent> events) {
+        AtomicLongArray current;
+        synchronized (this) {
+            if (changedDuringReconcile != null) {
+                changedDuringReconcile.addAll(events);
+            }
+            current = counts;
+        }
+        if (current == null) {
+            // Not loaded yet: the first read will see these changes in the database
+            return;
+        }
+        events.forEach(event -> apply(current, event));
+    }
+
+    private static void apply(AtomicLongArray current, IssueChangedEvent event) {
+        int previous = event.getType() == ChangeType.CREATED ? -1 :
+            slot(event.getPreviousPriority(), event.getPreviousResolution());
+        int next = event.getType() == ChangeType.DELETED ? -1 :
+            slot(event.getPriority(), event.getResolution());
+        if (previous != next) {
+            if (previous >= 0) {
+                current.decrementAndGet(previous);
+            }
+            if (next >= 0) {
+                current.incrementAndGet(next);
+            }
+        }
+    }
+
+    /**
+     * Recompute all the counters from the database.
+     * <p>
+     * This is scheduled to get fired every {@code application.issue-counters.reconcile-delay-ms}.
+     */
+    @Scheduled(initialDelayString = "${application.issue-counters.reconcile-delay-ms:300000}",
+        fixedDelayString = "${application.issue-counters.reconcile-delay-ms:300000}")
+    public void reconcile() {
+        synchronized (reconcileLock) {
+            recompute();
+        }
+    }
+
+    private void recompute() {
+        synchronized (this) {
+            changedDuringReconcile = new ArrayList<>();
+        }
+        AtomicLongArray loaded = new AtomicLongArray((PRIORITIES.length + 1) * RESOLUTION_SLOTS);
+        try {
+            for (Object[] row : issueRepository.countGroupedByPriorityAndResolution()) {
+                loaded.set(slot((Priority) row[0], (Resolution) row[1]), (Long) row[2]);
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                changedDuringReconcile = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            // Committed after the query started, or just before it: the next recomputation corrects the latter
+            changedDuringReconcile.forEach(event -> apply(loaded, event));
+            changedDuringReconcile = null;
+            if (counts != null && log.isDebugEnabled()) {
+                for (int i = 0; i < loaded.length(); i++) {
+                    if (loaded.get(i) != counts.get(i)) {
+                        log.debug("Issue counter {}/{} drifted from {} to {}", priorityOf(i / RESOLUTION_SLOTS),
+                            resolutionOf(i % RESOLUTION_SLOTS), counts.get(i), loaded.get(i));
+                    }
+                }
+            }
+            counts = loaded;
+        }
+    }
+
+    private AtomicLongArray loadedCounts() {
+        AtomicLongArray current = counts;
+        if (current == null) {
+            synchronized (reconcileLock) {
+                if (counts == null) {
+                    recompute();
+                }
+                current = counts;
+            }
+        }
+        return current;
+    }
+
+    private static int slot(Priority priority, Resolution resolution) {
+        int p = priority == null ? PRIORITIES.length : priority.ordinal();
+        int r = resolution == null ? RESOLUTIONS.length : resolution.ordinal();
+        return p * RESOLUTION_SLOTS + r;
+    }
+
+    private static Priority priorityOf(int index) {
+        return index < PRIORITIES.length ? PRIORITIES[index] : null;
+    }
+
+    private static Resolution resolutionOf(int index) {
+        return index < RESOLUTIONS.length ? RESOLUTIONS[index] : null;
+    }
+}
@@ -0,0 +1,356 @@
+package com.triippztech.service;
+
+import com.triippztech.config.ReplicaRoutingDataSource;
+import com.triippztech.service.dto.IssueCriteria;
+import com.triippztech.service.event.ChangeType;
+import com.triippztech.service.event.CommentChangedEvent;
+import com.triippztech.service.event.IssueBatchChangedEvent;
+import com.triippztech.service.event.IssueChangedEvent;
+
+import io.github.jhipster.service.filter.Filter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Cache of the {@link IssueQueryService} results: the ids and the number of the issues matching a criteria,
+ * keyed by the {@link IssueCriteriaMatcher#normalize(IssueCriteria) normalized} criteria.
+ * <p>
+ * An entry is evicted when a committed {@link IssueChangedEvent} moves an issue in or out of its criteria, so
+ * changes which do not affect the result, like a new description, keep it cached. Changes made on other instances
+ * are only seen when the entry expires.
+ * <p>
+ * The cached criteria are also indexed locally by the properties they filter, so that an eviction pass only tests
+ * the criteria filtering the properties which the change modified, without iterating over the cache region. Keys
+ * outliving their entry, expired or evicted by the cache, are pruned whenever the index doubles in size.
+ * <p>
+ * The cache is only read and filled from read-only transactions, which cannot see uncommitted changes. It is not
+ * filled from the transactions {@link ReplicaRoutingDataSource#isCurrentTransactionOnReplica() routed to a replica},
+ * which may not see the change that evicted an entry yet: the generation check would not detect the stale result.
+ */
+@Service
+public class IssueCriteriaCache {
+
+    public static final String ISSUES_BY_CRITERIA_CACHE = "issuesByCriteria";
+
+    /**
+     * Results with more issues only have their count cached.
+     */
+    public static final int MAX_CACHED_IDS = 1000;
+
+    private static final int MIN_PRUNED_SIZE = 1000;
+
+    private static final String ID = "id";
+    private static final String NUMBER = "number";
+    private static final String PRIORITY = "priority";
+    private static final String RESOLUTION = "resolution";
+    private static final String REVIEWER_ID = "reviewerId";
+    private static final String REPORTED_DATE = "reportedDate";
+    private static final String USER_ID = "userId";
+    private static final String COMMENT_ID = "commentId";
+
+    private final Logger log = LoggerFactory.getLogger(IssueCriteriaCache.class);
+
+    private final Cache<Object, Object> cache;
+
+    /**
+     * Incremented before each eviction pass, so that a result computed concurrently with a change is not cached.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Set<IssueCriteria> keys = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, Set<IssueCriteria>> keysByFilter = new ConcurrentHashMap<>();
+
+    /**
+     * Size of the index from which the keys whose entry is gone are pruned.
+     */
+    private final AtomicInteger prunedSize = new AtomicInteger(MIN_PRUNED_SIZE);
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private final Counter evictions;
+
+    public IssueCriteriaCache(CacheManager cacheManager, MeterRegistry meterRegistry) {
+        this.cache = Objects.requireNonNull(cacheManager.getCache(ISSUES_BY_CRITERIA_CACHE));
+        this.hits = Counter.builder("issue.criteria.cache.gets").tag("result", "hit")
+            .description("Issue criteria results served from the cache").register(meterRegistry);
+        this.misses = Counter.builder("issue.criteria.cache.gets").tag("result", "miss")
+            .description("Issue criteria results computed from the database").register(meterRegistry);
+        this.evictions = Counter.builder("issue.criteria.cache.evictions")
+            .description("Issue criteria results evicted by an issue or comment change").register(meterRegistry);
+    }
+
+    /**
+     * Get the ids of the issues matching the criteria.
+     *
+     * @param criteria the criteria.
+     * @return the cached ids, or empty if they are not cached.
+     */
+    public Optional<List<Long>> getIds(IssueCriteria criteria) {
+        if (!isCacheable()) {
+            return Optional.empty();
+        }
+        Result result = (Result) cache.get(IssueCriteriaMatcher.normalize(criteria));
+        if (result == null || result.ids == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(result.ids);
+    }
+
+    /**
+     * Get the number of issues matching the criteria.
+     *
+     * @param criteria the criteria.
+     * @return the cached number, or empty if it is not cached.
+     */
+    public OptionalLong getCount(IssueCriteria criteria) {
+        if (!isCacheable()) {
+            return OptionalLong.empty();
+        }
+        Result result = (Result) cache.get(IssueCriteriaMatcher.normalize(criteria));
+        if (result == null) {
+            misses.increment();
+            return OptionalLong.empty();
+        }
+        hits.increment();
+        return OptionalLong.of(result.count);
+    }
+
+    /**
+     * @return the current generation, to read before computing a result to cache.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Cache the ids of the issues matching the criteria, unless the issues changed since the given generation.
+     *
+     * @param criteria the criteria.
+     * @param ids the ids of all the matching issues.
+     * @param generation the {@link #generation()} read before computing the ids.
+     */
+    public void putIds(IssueCriteria criteria, List<Long> ids, long generation) {
+        if (isFillable()) {
+            put(IssueCriteriaMatcher.normalize(criteria), new Result(ids.size() > MAX_CACHED_IDS ? null :
+                Collections.unmodifiableList(new ArrayList<>(ids)), ids.size()), false, generation);
+        }
+    }
+
+    /**
+     * Cache the number of issues matching the criteria, unless the issues changed since the given generation.
+     *
+     * @param criteria the criteria.
+     * @param count the number of matching issues.
+     * @param generation the {@link #generation()} read before computing the number.
+     */
+    public void putCount(IssueCriteria criteria, long count, long generation) {
+        if (isFillable()) {
+            put(IssueCriteriaMatcher.normalize(criteria), new Result(null, count), true, generation);
+        }
+    }
+
+    /**
+     * Evict the results which a committed issue change moved the issue in or out of.
+     *
+     * @param event the change.
+     */
+    @TransactionalEventListener
+    public void onIssueChanged(IssueChangedEvent event) {
+        evictIf(candidates(event), criteria -> moves(criteria, event));
+    }
+
+    /**
+     * Evict, in a single pass, the results which committed issue changes moved an issue in or out of.
+     *
+     * @param event the changes.
+     */
+    @TransactionalEventListener
+    public void onIssuesChanged(IssueBatchChangedEvent event) {
+        Set<IssueCriteria> candidates = new HashSet<>();
+        for (IssueChangedEvent change : event.getChanges()) {
+            candidates.addAll(candidates(change));
+            if (candidates.size() == keys.size()) {
+                break;
+            }
+        }
+        evictIf(candidates, criteria -> event.getChanges().stream().anyMatch(change -> moves(criteria, change)));
+    }
+
+    /**
+     * Evict the results filtering on comments when a committed comment change adds or removes a comment from an issue.
+     *
+     * @param event the change.
+     */
+    @TransactionalEventListener
+    public void onCommentChanged(CommentChangedEvent event) {
+        if (event.getType() == ChangeType.UPDATED && Objects.equals(event.getPreviousIssueId(), event.getIssueId())) {
+            return;
+        }
+        evictIf(keysFiltering(COMMENT_ID), criteria -> true);
+    }
+
+    /**
+     * @return the cached criteria which may move an issue in or out of their results on this change: all of them
+     * when the issue was created or deleted, else those filtering a modified property.
+     */
+    private Set<IssueCriteria> candidates(IssueChangedEvent event) {
+        IssueChangedEvent.State previous = event.getPrevious();
+        IssueChangedEvent.State current = event.getCurrent();
+        if (previous == null || current == null) {
+            return keys;
+        }
+        Set<IssueCriteria> candidates = new HashSet<>();
+        if (!Objects.equals(previous.getNumber(), current.getNumber())) {
+            candidates.addAll(keysFiltering(NUMBER));
+        }
+        if (previous.getPriority() != current.getPriority()) {
+            candidates.addAll(keysFiltering(PRIORITY));
+        }
+        if (previous.getResolution() != current.getResolution()) {
+            candidates.addAll(keysFiltering(RESOLUTION));
+        }
+        if (!Objects.equals(previous.getReviewerId(), current.getReviewerId())) {
+            candidates.addAll(keysFiltering(REVIEWER_ID));
+        }
+        if (!Objects.equals(previous.getReportedDate(), current.getReportedDate())) {
+            candidates.addAll(keysFiltering(REPORTED_DATE));
+        }
+        if (!Objects.equals(previous.getUserId(), current.getUserId())) {
+            candidates.addAll(keysFiltering(USER_ID));
+        }
+        return candidates;
+    }
+
+    private Set<IssueCriteria> keysFiltering(String property) {
+        return keysByFilter.getOrDefault(property, Collections.emptySet());
+    }
+
+    private static List<String> filteredProperties(IssueCriteria criteria) {
+        List<String> properties = new ArrayList<>();
+        addIfFiltered(properties, ID, criteria.getId());
+        addIfFiltered(properties, NUMBER, criteria.getNumber());
+        addIfFiltered(properties, PRIORITY, criteria.getPriority());
+        addIfFiltered(properties, RESOLUTION, criteria.getResolution());
+        addIfFiltered(properties, REVIEWER_ID, criteria.getReviewerId());
+        addIfFiltered(properties, REPORTED_DATE, criteria.getReportedDate());
+        addIfFiltered(properties, USER_ID, criteria.getUserId());
+        addIfFiltered(properties, COMMENT_ID, criteria.getCommentId());
+        return properties;
+    }
+
+    private static void addIfFiltered(List<String> properties, String property, Filter<?> filter) {
+        if (filter != null) {
+            properties.add(property);
+        }
+    }
+
+    private static boolean moves(IssueCriteria criteria, IssueChangedEvent event) {
+        boolean before = event.getPrevious() != null &&
+            IssueCriteriaMatcher.mayMatch(criteria, event.getIssueId(), event.getPrevious());
+        boolean after = event.getCurrent() != null &&
+            IssueCriteriaMatcher.mayMatch(criteria, event.getIssueId(), event.getCurrent());
+        return before != after;
+    }
+
+    private void put(IssueCriteria key, Result result, boolean ifAbsent, long expectedGeneration) {
+        if (ifAbsent) {
+            cache.putIfAbsent(key, result);
+        } else {
+            cache.put(key, result);
+        }
+        // Indexed after the put, so that pruning cannot drop it before: a pass missing it changed the generation
+        index(key);
+        if (generation.get() != expectedGeneration) {
+            // An eviction pass may have run before the put: drop the possibly stale result
+            cache.remove(key);
+            unindex(key);
+        }
+    }
+
+    private void evictIf(Set<IssueCriteria> candidates, Predicate<IssueCriteria> predicate) {
+        generation.incrementAndGet();
+        for (IssueCriteria criteria : candidates.toArray(new IssueCriteria[0])) {
+            if (predicate.test(criteria)) {
+                unindex(criteria);
+                if (cache.remove(criteria)) {
+                    log.debug("Evicted cached issues for criteria {}", criteria);
+                    evictions.increment();
+                }
+            }
+        }
+    }
+
+    private void index(IssueCriteria key) {
+        if (!keys.add(key)) {
+            return;
+        }
+        for (String property : filteredProperties(key)) {
+            keysByFilter.computeIfAbsent(property, name -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+        int size = keys.size();
+        int pruned = prunedSize.get();
+        if (size >= pruned && prunedSize.compareAndSet(pruned, Integer.MAX_VALUE)) {
+            keys.removeIf(criteria -> !cache.containsKey(criteria));
+            keysByFilter.values().forEach(filtered -> filtered.retainAll(keys));
+            prunedSize.set(Math.max(MIN_PRUNED_SIZE, 2 * keys.size()));
+        }
+    }
+
+    private void unindex(IssueCriteria key) {
+        if (keys.remove(key)) {
+            for (String property : filteredProperties(key)) {
+                keysFiltering(property).remove(key);
+            }
+        }
+    }
+
+    private static boolean isCacheable() {
+        return TransactionSynchronizationManager.isActualTransactionActive() &&
+            TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private static boolean isFillable() {
+        return isCacheable() && !ReplicaRoutingDataSource.isCurrentTransactionOnReplica();
+    }
+
+    private static final class Result implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Long> ids;
+
+        private final long count;
+
+        private Result(List<Long> ids, long count) {
+            this.ids = ids;
+            this.count = count;
+        }
+    }
+}
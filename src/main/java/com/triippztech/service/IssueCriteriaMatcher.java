@@ -0,0 +1,150 @@
+package com.triippztech.service;
+
+import com.triippztech.service.dto.IssueCriteria;
+import com.triippztech.service.event.IssueChangedEvent;
+
+import io.github.jhipster.service.filter.Filter;
+import io.github.jhipster.service.filter.RangeFilter;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Evaluates {@link IssueCriteria} in memory, with the same semantic as the specifications built by
+ * {@link IssueQueryService}: a filter applies its {@code equals}, else its {@code in}, else all its other conditions.
+ */
+public final class IssueCriteriaMatcher {
+
+    private IssueCriteriaMatcher() {
+    }
+
+    /**
+     * Return a copy of the criteria where filters matching the same issues are equal: ignored conditions are dropped,
+     * {@code in} lists are sorted and deduplicated, and empty filters are removed.
+     *
+     * @param criteria the criteria, or {@code null}.
+     * @return the normalized copy.
+     */
+    public static IssueCriteria normalize(IssueCriteria criteria) {
+        IssueCriteria normalized = new IssueCriteria();
+        if (criteria != null) {
+            normalized.setId(normalize(criteria.getId()));
+            normalized.setNumber(normalize(criteria.getNumber()));
+            normalized.setPriority(normalize(criteria.getPriority()));
+            normalized.setResolution(normalize(criteria.getResolution()));
+            normalized.setReviewerId(normalize(criteria.getReviewerId()));
+            normalized.setReportedDate(normalize(criteria.getReportedDate()));
+            normalized.setCommentId(normalize(criteria.getCommentId()));
+            normalized.setUserId(normalize(criteria.getUserId()));
+        }
+        return normalized;
+    }
+
+    /**
+     * Check whether an issue in the given state matches the criteria.
+     * <p>
+     * The comment filter cannot be evaluated from the state of the issue, so it is considered matching:
+     * a {@code true} result only means that the issue may match.
+     *
+     * @param criteria the criteria, or {@code null}.
+     * @param issueId the id of the issue.
+     * @param state the state of the issue.
+     * @return whether the issue may match the criteria.
+     */
+    public static boolean mayMatch(IssueCriteria criteria, Long issueId, IssueChangedEvent.State state) {
+        return criteria == null || (matches(criteria.getId(), issueId) &&
+            matches(criteria.getNumber(), state.getNumber()) &&
+            matches(criteria.getPriority(), state.getPriority()) &&
+            matches(criteria.getResolution(), state.getResolution()) &&
+            matches(criteria.getReviewerId(), state.getReviewerId()) &&
+            matches(criteria.getReportedDate(), state.getReportedDate()) &&
+            matches(criteria.getUserId(), state.getUserId()));
+    }
+
+    /**
+     * Check whether a value matches a filter.
+     *
+     * @param filter the filter, or {@code null} to match everything.
+     * @param value the value, or {@code null}.
+     * @param <T> the type of the value.
+     * @return whether the value matches.
+     */
+    public static <T> boolean matches(Filter<T> filter, T value) {
+        if (filter == null) {
+            return true;
+        }
+        if (filter.getEquals() != null) {
+            return filter.getEquals().equals(value);
+        }
+        if (filter.getIn() != null) {
+            return filter.getIn().contains(value);
+        }
+        if (filter.getSpecified() != null && filter.getSpecified() != (value != null)) {
+            return false;
+        }
+        if (filter instanceof RangeFilter) {
+            return matchesRange((RangeFilter) filter, (Comparable) value);
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean matchesRange(RangeFilter filter, Comparable value) {
+        if (filter.getGreaterThan() == null && filter.getGreaterOrEqualThan() == null &&
+            filter.getLessThan() == null && filter.getLessOrEqualThan() == null) {
+            return true;
+        }
+        // Like in SQL, a comparison with null is never true
+        return value != null &&
+            (filter.getGreaterThan() == null || value.compareTo(filter.getGreaterThan()) > 0) &&
+            (filter.getGreaterOrEqualThan() == null || value.compareTo(filter.getGreaterOrEqualThan()) >= 0) &&
+            (filter.getLessThan() == null || value.compareTo(filter.getLessThan()) < 0) &&
+            (filter.getLessOrEqualThan() == null || value.compareTo(filter.getLessOrEqualThan()) <= 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Comparable<? super T>, F extends Filter<T>> F normalize(F filter) {
+        if (filter == null) {
+            return null;
+        }
+        F normalized = (F) filter.copy();
+        if (normalized.getEquals() != null) {
+            normalized.setIn(null);
+            normalized.setSpecified(null);
+            if (normalized instanceof RangeFilter) {
+                clearRange((RangeFilter<T>) normalized);
+            }
+            return normalized;
+        }
+        if (normalized.getIn() != null) {
+            List<T> in = normalized.getIn().stream().distinct().sorted().collect(Collectors.toList());
+            normalized.setSpecified(null);
+            if (normalized instanceof RangeFilter) {
+                clearRange((RangeFilter<T>) normalized);
+            }
+            if (in.size() == 1) {
+                normalized.setEquals(in.get(0));
+                normalized.setIn(null);
+            } else {
+                normalized.setIn(in);
+            }
+            return normalized;
+        }
+        if (normalized.getSpecified() == null && !(normalized instanceof RangeFilter && hasRange((RangeFilter<T>) normalized))) {
+            return null;
+        }
+        return normalized;
+    }
+
+    private static <T extends Comparable<? super T>> boolean hasRange(RangeFilter<T> filter) {
+        return filter.getGreaterThan() != null || filter.getGreaterOrEqualThan() != null ||
+            filter.getLessThan() != null || filter.getLessOrEqualThan() != null;
+    }
+
+    private static <T extends Comparable<? super T>> void clearRange(RangeFilter<T> filter) {
+        filter.setGreaterThan(null);
+        filter.setGreaterOrEqualThan(null);
+        filter.setLessThan(null);
+        filter.setLessOrEqualThan(null);
+    }
+}
@@ -0,0 +1,238 @@
+package com.triippztech.service;
+
+import com.triippztech.domain.Issue;
+import com.triippztech.service.dto.IssueImportResultDTO;
+import com.triippztech.service.event.IssueBatchChangedEvent;
+import com.triippztech.service.event.IssueChangedEvent;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service for importing {@link Issue}s in bulk.
+ * <p>
+ * Rows are read one at a time from a JSON array or a newline-delimited JSON stream, validated, then persisted in
+ * chunks of {@value #CHUNK_SIZE}, each in its own transaction, so that Hibernate sends them as JDBC batches and
+ * memory stays flat whatever the size of the input. When a chunk fails in the database, its rows are retried one
+ * by one to report the failing ones. Rows without a number get an allocated one, which they keep when retried; it
+ * is never one of the numbers given by the other rows of their chunk. A row whose allocated number turns out to be
+ * used, by an issue created meanwhile with its own number, is retried once more with another one.
+ * <p>
+ * Each transaction publishes a single {@link IssueBatchChangedEvent} for the issues it created.
+ */
+@Service
+public class IssueImportService {
+
+    /**
+     * Number of issues persisted per transaction.
+     */
+    public static final int CHUNK_SIZE = 1000;
+
+    /**
+     * Failure of a row whose number is used by another issue.
+     */
+    public static final String NUMBER_USED_MESSAGE = "Issue number already used";
+
+    /**
+     * Failure of a row rejected by the database for another reason, typically a missing user; the database error
+     * itself is only logged, as it describes the schema.
+     */
+    public static final String SAVE_FAILED_MESSAGE = "Issue could not be saved";
+
+    private final Logger log = LoggerFactory.getLogger(IssueImportService.class);
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Validator validator;
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectReader rowReader;
+
+    private final IssueNumberAllocator issueNumberAllocator;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public IssueImportService(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                              Validator validator, ObjectMapper objectMapper, IssueNumberAllocator issueNumberAllocator,
+                              ApplicationEventPublisher eventPublisher) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.rowReader = objectMapper.readerFor(JsonNode.class);
+        this.issueNumberAllocator = issueNumberAllocator;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Import the issues of a JSON array, or of a stream of JSON objects such as newline-delimited JSON.
+     * <p>
+     * The import stops at the first malformed JSON row; the rows before it stay imported.
+     *
+     * @param input the rows.
+     * @return the number of imported issues and the failed rows.
+     * @throws IOException if the input cannot be read.
+     */
+    public IssueImportResultDTO importIssues(InputStream input) throws IOException {
+        log.debug("Request to import Issues");
+        IssueImportResultDTO result = new IssueImportResultDTO();
+        Map<Long, Issue> chunk = new LinkedHashMap<>();
+        long row = 0;
+        try (MappingIterator<JsonNode> rows = rowReader.readValues(input)) {
+            while (true) {
+                JsonNode node;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    node = rows.nextValue();
+                } catch (JsonProcessingException e) {
+                    result.addFailure(row + 1, "Malformed JSON, this row and the next ones were not imported: " +
+                        e.getOriginalMessage());
+                    break;
+                }
+                row++;
+                Issue issue = toIssue(row, node, result);
+                if (issue != null) {
+                    chunk.put(row, issue);
+                    if (chunk.size() == CHUNK_SIZE) {
+                        persist(chunk, result);
+                        chunk.clear();
+                    }
+                }
+            }
+        }
+        persist(chunk, result);
+        log.debug("Imported {} Issues, {} rows failed", result.getImported(), result.getFailures().size());
+        return result;
+    }
+
+    private Issue toIssue(long row, JsonNode node, IssueImportResultDTO result) {
+        Issue issue;
+        try {
+            issue = objectMapper.treeToValue(node, Issue.class);
+        } catch (JsonProcessingException e) {
+            result.addFailure(row, e.getOriginalMessage());
+            return null;
+        }
+        if (issue == null) {
+            result.addFailure(row, "Empty row");
+            return null;
+        }
+        if (issue.getId() != null) {
+            result.addFailure(row, "A new issue cannot already have an ID");
+            return null;
+        }
+        Set<ConstraintViolation<Issue>> violations = validator.validate(issue);
+        if (!violations.isEmpty()) {
+            result.addFailure(row, violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", ")));
+            return null;
+        }
+        return issue;
+    }
+
+    private void persist(Map<Long, Issue> chunk, IssueImportResultDTO result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        // Not flushed before the end of the chunk, so the allocator cannot see them in the database
+        Set<Integer> reserved = chunk.values().stream()
+            .map(Issue::getNumber)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        reserved.stream().max(Integer::compare).ifPresent(issueNumberAllocator::used);
+        Set<Issue> allocated = Collections.newSetFromMap(new IdentityHashMap<>());
+        try {
+            transactionTemplate.execute(status -> {
+                List<IssueChangedEvent> changes = new ArrayList<>(chunk.size());
+                chunk.values().forEach(issue -> changes.add(persist(issue, reserved, allocated)));
+                entityManager.flush();
+                entityManager.clear();
+                eventPublisher.publishEvent(new IssueBatchChangedEvent(changes));
+                return null;
+            });
+            result.addImported(chunk.size());
+        } catch (PersistenceException | DataAccessException e) {
+            log.debug("Import of a chunk of {} Issues failed, retrying them one by one: {}", chunk.size(), e.getMessage());
+            chunk.forEach((row, issue) -> {
+                try {
+                    persistRow(issue, reserved, allocated);
+                    result.addImported(1);
+                } catch (PersistenceException | DataAccessException rowException) {
+                    log.debug("Import of row {} failed: {}", row,
+                        NestedExceptionUtils.getMostSpecificCause(rowException).getMessage());
+                    result.addFailure(row, IssueNumberAllocator.isNumberUsed(rowException) ?
+                        NUMBER_USED_MESSAGE : SAVE_FAILED_MESSAGE);
+                }
+            });
+        }
+    }
+
+    private void persistRow(Issue issue, Set<Integer> reserved, Set<Issue> allocated) {
+        // The id allocated by the failed attempt was rolled back with it
+        issue.setId(null);
+        try {
+            persistOne(issue, reserved, allocated);
+        } catch (PersistenceException | DataAccessException e) {
+            if (!allocated.contains(issue) || !IssueNumberAllocator.isNumberUsed(e)) {
+                throw e;
+            }
+            log.debug("Allocated issue number {} is already used, allocating another one", issue.getNumber());
+            issueNumberAllocator.refreshUsed();
+            issue.setId(null);
+            issue.setNumber(null);
+            persistOne(issue, reserved, allocated);
+        }
+    }
+
+    private void persistOne(Issue issue, Set<Integer> reserved, Set<Issue> allocated) {
+        transactionTemplate.execute(status -> {
+            IssueChangedEvent change = persist(issue, reserved, allocated);
+            entityManager.flush();
+            eventPublisher.publishEvent(new IssueBatchChangedEvent(Collections.singletonList(change)));
+            return null;
+        });
+    }
+
+    private IssueChangedEvent persist(Issue issue, Set<Integer> reserved, Set<Issue> allocated) {
+        if (issue.getNumber() == null) {
+            issue.setNumber(issueNumberAllocator.allocate(reserved));
+            allocated.add(issue);
+        }
+        entityManager.persist(issue);
+        return IssueChangedEvent.created(issue);
+    }
+}
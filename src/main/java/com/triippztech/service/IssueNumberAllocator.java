@@ -0,0 +1,153 @@
+package com.triippztech.service;
+
+import com.triippztech.domain.Issue;
+import com.triippztech.repository.IssueRepository;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Allocator of the {@link Issue} numbers.
+ * <p>
+ * Numbers are handed out from blocks of {@value #BLOCK_SIZE} held in memory; each value of the
+ * {@value #SEQUENCE_NAME} database sequence is the first number of a block. Creating an issue therefore does not
+ * query the issues for the highest number, and only takes a sequence value once every {@value #BLOCK_SIZE} issues.
+ * Numbers are unique, but the rest of a block is lost when the application stops, and the instances of a cluster
+ * allocate from different blocks, so numbers are not always consecutive nor in creation order.
+ * <p>
+ * Issues may also be created with their own number. Only the numbers up to the highest one known to be used are
+ * checked before being allocated: it is read from the issues by the first allocation, then raised by
+ * {@link #used(int)}. A number above it may still have been used meanwhile, on another instance: saving the issue then
+ * violates the {@value #UNIQUE_CONSTRAINT_NAME} constraint, and the caller retries with a new number after calling
+ * {@link #refreshUsed()}.
+ */
+@Service
+public class IssueNumberAllocator {
+
+    public static final String SEQUENCE_NAME = "issue_number_sequence";
+
+    /**
+     * Name of the unique constraint on the issue numbers.
+     */
+    public static final String UNIQUE_CONSTRAINT_NAME = "ux_issue_number";
+
+    /**
+     * Must match the increment of {@value #SEQUENCE_NAME}.
+     */
+    public static final int BLOCK_SIZE = 50;
+
+    private final Logger log = LoggerFactory.getLogger(IssueNumberAllocator.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final IssueRepository issueRepository;
+
+    private final String nextBlockQuery;
+
+    private int next;
+
+    private int limit;
+
+    private final AtomicInteger highestUsed = new AtomicInteger();
+
+    private volatile boolean highestUsedRead;
+
+    public IssueNumberAllocator(DataSource dataSource, EntityManagerFactory entityManagerFactory,
+                                IssueRepository issueRepository) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.issueRepository = issueRepository;
+        this.nextBlockQuery = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices()
+            .getDialect().getSequenceNextValString(SEQUENCE_NAME);
+    }
+
+    /**
+     * Allocate the number of a new issue.
+     * <p>
+     * Known used numbers, typically of issues created or imported with their own number, are skipped.
+     *
+     * @return the number.
+     */
+    public int allocate() {
+        return allocate(Collections.emptySet());
+    }
+
+    /**
+     * Allocate the number of a new issue, skipping the numbers reserved by the caller.
+     * <p>
+     * The reserved numbers are typically those of issues persisted in the current transaction but not yet flushed,
+     * which the check of the used numbers cannot see.
+     *
+     * @param reserved the numbers which must not be allocated.
+     * @return the number.
+     */
+    public int allocate(Set<Integer> reserved) {
+        if (!highestUsedRead) {
+            issueRepository.findMaxNumber().ifPresent(this::used);
+            highestUsedRead = true;
+        }
+        int number = next();
+        while (reserved.contains(number) || number <= highestUsed.get() && issueRepository.existsByNumber(number)) {
+            log.debug("Issue number {} is already used, skipping it", number);
+            number = next();
+        }
+        return number;
+    }
+
+    /**
+     * Record a number given to an issue by the client, so that it is not allocated.
+     *
+     * @param number the number of the issue.
+     */
+    public void used(int number) {
+        highestUsed.accumulateAndGet(number, Math::max);
+    }
+
+    /**
+     * Have the next allocation read the highest used number from the issues again, typically after an allocated
+     * number turned out to be used, so that the numbers up to it are checked. It is read within the transaction of
+     * the allocation, which writes to the primary database.
+     */
+    public void refreshUsed() {
+        highestUsedRead = false;
+    }
+
+    /**
+     * Tell whether an exception is caused by an issue number which is already used.
+     *
+     * @param e the exception thrown when writing issues.
+     * @return whether it is a violation of the {@value #UNIQUE_CONSTRAINT_NAME} constraint.
+     */
+    public static boolean isNumberUsed(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String constraintName = cause instanceof ConstraintViolationException ?
+                ((ConstraintViolationException) cause).getConstraintName() : null;
+            if (constraintName != null && constraintName.toLowerCase(Locale.ROOT).contains(UNIQUE_CONSTRAINT_NAME)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the next number of the current block, taking a new block from the sequence when it is exhausted.
+     */
+    private synchronized int next() {
+        if (next == limit) {
+            next = Math.toIntExact(jdbcTemplate.queryForObject(nextBlockQuery, Long.class));
+            limit = next + BLOCK_SIZE;
+            log.debug("Allocated issue numbers {} to {}", next, limit - 1);
+        }
+        return next++;
+    }
+}
@@ -1,23 +1,50 @@
 package com.triippztech.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
 
+import org.hibernate.Session;
+import org.hibernate.annotations.QueryHints;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import io.github.jhipster.service.QueryService;
 
+import com.triippztech.aop.coalescing.Coalesced;
 import com.triippztech.domain.Issue;
 import com.triippztech.domain.*; // for static metamodels
 import com.triippztech.repository.IssueRepository;
 import com.triippztech.service.dto.IssueCriteria;
+import com.triippztech.service.dto.IssueCursor;
+import com.triippztech.service.util.SparseFieldsUtil;
 
 /**
  * Service for executing complex queries for {@link Issue} entities in the database.
@@ -29,24 +56,141 @@ import com.triippztech.service.dto.IssueCriteria;
 @Transactional(readOnly = true)
 public class IssueQueryService extends QueryService<Issue> {
 
+    /**
+     * Number of rows fetched per database round trip when exporting issues.
+     */
+    private static final int EXPORT_FETCH_SIZE = 500;
+
     private final Logger log = LoggerFactory.getLogger(IssueQueryService.class);
 
     private final IssueRepository issueRepository;
 
-    public IssueQueryService(IssueRepository issueRepository) {
+    private final EntityManager entityManager;
+
+    private final IssueCriteriaCache issueCriteriaCache;
+
+    public IssueQueryService(IssueRepository issueRepository, EntityManager entityManager,
+                             IssueCriteriaCache issueCriteriaCache) {
         this.issueRepository = issueRepository;
+        this.entityManager = entityManager;
+        this.issueCriteriaCache = issueCriteriaCache;
     }
 
     /**
      * Return a {@link List} of {@link Issue} which matches the criteria from the database.
+     * The ids of the matching entities are cached, so a repeated criteria only loads the entities by id,
+     * from the second-level cache when enabled.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @return the matching entities.
      */
     @Transactional(readOnly = true)
     public List<Issue> findByCriteria(IssueCriteria criteria) {
         log.debug("find by criteria : {}", criteria);
+        Optional<List<Long>> cachedIds = issueCriteriaCache.getIds(criteria);
+        if (cachedIds.isPresent()) {
+            return entityManager.unwrap(Session.class).byMultipleIds(Issue.class)
+                .multiLoad(cachedIds.get()).stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        }
+        long generation = issueCriteriaCache.generation();
+        final Specification<Issue> specification = createSpecification(criteria);
+        List<Issue> issues = issueRepository.findAll(specification);
+        issueCriteriaCache.putIds(criteria, issues.stream().map(Issue::getId).collect(Collectors.toList()), generation);
+        return issues;
+    }
+
+    /**
+     * Return a {@link List} of {@link Issue} which matches the criteria from the database, in the given order.
+     * Sorting by {@code priority} follows the severity, most severe first when ascending; unless the sort says
+     * otherwise, the issues of a priority are then ordered by {@code reportedDate} and {@code id} in the same
+     * direction, which is the order of the priority index so the database reads the issues already sorted.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param sort The order of the entities, or unsorted for {@link #findByCriteria(IssueCriteria)}.
+     * @return the matching entities.
+     * @throws IllegalArgumentException if the issues cannot be {@link #checkSortable(Sort) sorted} that way.
+     */
+    @Transactional(readOnly = true)
+    public List<Issue> findByCriteria(IssueCriteria criteria, Sort sort) {
+        log.debug("find by criteria : {}, sort: {}", criteria, sort);
+        if (sort.isUnsorted()) {
+            return findByCriteria(criteria);
+        }
+        checkSortable(sort);
+        final Specification<Issue> specification = createSpecification(criteria);
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Issue> query = builder.createQuery(Issue.class);
+        Root<Issue> root = query.from(Issue.class);
+        root.fetch(Issue_.user, JoinType.LEFT);
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : withPriorityTieBreakers(sort)) {
+            orders.add(order(builder, root.get(order.getProperty()), order.getDirection()));
+        }
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root).orderBy(orders);
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private static Order order(CriteriaBuilder builder, Expression<?> expression, Sort.Direction direction) {
+        return direction.isAscending() ? builder.asc(expression) : builder.desc(expression);
+    }
+
+    /**
+     * @return the sort, followed by {@code reportedDate} and {@code id} in the same direction when it starts with the
+     * {@code priority} and does not order on them.
+     */
+    private static Sort withPriorityTieBreakers(Sort sort) {
+        if (sort.isUnsorted()) {
+            return sort;
+        }
+        Sort.Order first = sort.iterator().next();
+        if (Issue_.PRIORITY.equals(first.getProperty())
+            && sort.getOrderFor(Issue_.REPORTED_DATE) == null && sort.getOrderFor(Issue_.ID) == null) {
+            return sort.and(Sort.by(first.getDirection(), Issue_.REPORTED_DATE, Issue_.ID));
+        }
+        return sort;
+    }
+
+    /**
+     * Return some fields of the {@link Issue}s which match the criteria from the database, in the given order then
+     * in id order, sorting by {@code priority} as {@link #findByCriteria(IssueCriteria, Sort)} does.
+     * Only the columns of the requested fields are read, so the descriptions are not unless requested.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param fields The names of the fields to return; the id is always returned.
+     * @param sort The order of the entities.
+     * @return a map from field name to value per matching entity.
+     * @throws IllegalArgumentException if a field or a sort property is unknown or not a basic field of the issues.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findFieldsByCriteria(IssueCriteria criteria, Collection<String> fields, Sort sort) {
+        log.debug("find fields : {} by criteria : {}, sort: {}", fields, criteria, sort);
         final Specification<Issue> specification = createSpecification(criteria);
-        return issueRepository.findAll(specification);
+        // The comment filter joins the comments, which repeats the issues having several of them
+        boolean distinct = criteria != null && criteria.getCommentId() != null;
+        return SparseFieldsUtil.findFields(entityManager, Issue.class, specification, fields,
+            withPriorityTieBreakers(sort), distinct);
+    }
+
+    /**
+     * @return the names of the fields which can be read by {@link #findFieldsByCriteria(IssueCriteria, Collection, Sort)},
+     * and sorted on unless they are large objects, like the description.
+     */
+    public List<String> getFieldNames() {
+        return SparseFieldsUtil.fieldNames(entityManager, Issue.class);
+    }
+
+    /**
+     * Check that the issues can be sorted that way.
+     *
+     * @param sort the order of the issues.
+     * @throws IllegalArgumentException if a sort property is not a basic field of the issues, like an association,
+     * or is a large object, like the description.
+     */
+    public void checkSortable(Sort sort) {
+        SparseFieldsUtil.checkSortable(entityManager, Issue.class, sort);
     }
 
     /**
@@ -62,22 +206,161 @@ public class IssueQueryService extends QueryService<Issue> {
         return issueRepository.findAll(specification, page);
     }
 
+    /**
+     * Return a {@link Slice} of {@link Issue} which matches the criteria from the database, using keyset pagination.
+     * Issues are ordered by {@code reportedDate} then {@code id}, newest first, with issues without a reported date last.
+     * Each page seeks directly after the given cursor, so its cost does not depend on how deep it is.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param after The position of the last issue of the previous page, or {@code null} for the first page.
+     * @param size The maximum number of issues to return.
+     * @return the matching entities, and whether a next page exists.
+     */
+    @Transactional(readOnly = true)
+    public Slice<Issue> findByCriteria(IssueCriteria criteria, IssueCursor after, int size) {
+        log.debug("find by criteria : {}, after: {}, size: {}", criteria, after, size);
+        final Specification<Issue> specification = createSpecification(criteria);
+        List<Issue> content = new ArrayList<>(size + 1);
+        // Rows with a reported date come first; the database null ordering differs between vendors,
+        // so both segments are queried separately, each with its own keyset predicate.
+        if (after == null || after.getReportedDate() != null) {
+            content.addAll(findKeysetSegment(specification.and(reportedBefore(after)), size + 1));
+        }
+        if (content.size() <= size) {
+            IssueCursor nullSegmentAfter = after != null && after.getReportedDate() == null ? after : null;
+            content.addAll(findKeysetSegment(specification.and(unreportedBefore(nullSegmentAfter)), size + 1 - content.size()));
+        }
+        boolean hasNext = content.size() > size;
+        if (hasNext) {
+            content = content.subList(0, size);
+        }
+        return new SliceImpl<>(content, PageRequest.of(0, size, Sort.by(Sort.Direction.DESC, Issue_.REPORTED_DATE, Issue_.ID)), hasNext);
+    }
+
+    /**
+     * Hand every {@link Issue} which matches the criteria to the consumer, in id order.
+     * The query runs as a forward-only cursor fetching {@value #EXPORT_FETCH_SIZE} rows per round trip,
+     * and issues are detached once consumed, so memory stays flat whatever the number of matching issues.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param consumer The callback receiving each matching entity; it must not keep a reference to it.
+     */
+    @Transactional(readOnly = true)
+    public void exportByCriteria(IssueCriteria criteria, Consumer<Issue> consumer) {
+        log.debug("export by criteria : {}", criteria);
+        final Specification<Issue> specification = createSpecification(criteria);
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Issue> query = builder.createQuery(Issue.class);
+        Root<Issue> root = query.from(Issue.class);
+        root.fetch(Issue_.user, JoinType.LEFT);
+        query.select(root)
+            .where(specification.toPredicate(root, query, builder))
+            .orderBy(builder.asc(root.get(Issue_.id)));
+        try (Stream<Issue> issues = entityManager.createQuery(query)
+            .setHint(QueryHints.FETCH_SIZE, EXPORT_FETCH_SIZE)
+            .setHint(QueryHints.READ_ONLY, true)
+            .getResultStream()) {
+            long exported = 0;
+            Iterator<Issue> iterator = issues.iterator();
+            while (iterator.hasNext()) {
+                Issue issue = iterator.next();
+                consumer.accept(issue);
+                entityManager.detach(issue);
+                if (++exported % EXPORT_FETCH_SIZE == 0) {
+                    // Also drop the users loaded along with the issues
+                    entityManager.clear();
+                }
+            }
+            log.debug("exported {} issues", exported);
+        }
+    }
+
+    /**
+     * Return the ids, among the given ones, of the {@link Issue}s which match the criteria, without loading the entities.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param ids The candidate ids.
+     * @return the matching ids, in no particular order.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findIdsByCriteria(IssueCriteria criteria, Collection<Long> ids) {
+        log.debug("find ids by criteria : {}, among {} ids", criteria, ids.size());
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final Specification<Issue> specification = createSpecification(criteria)
+            .and((root, query, builder) -> root.get(Issue_.id).in(ids));
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<Issue> root = query.from(Issue.class);
+        query.select(root.get(Issue_.id))
+            .distinct(true)
+            .where(specification.toPredicate(root, query, builder));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private List<Issue> findKeysetSegment(Specification<Issue> specification, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Issue> query = builder.createQuery(Issue.class);
+        Root<Issue> root = query.from(Issue.class);
+        root.fetch(Issue_.user, JoinType.LEFT);
+        query.select(root)
+            .where(specification.toPredicate(root, query, builder))
+            .orderBy(builder.desc(root.get(Issue_.reportedDate)), builder.desc(root.get(Issue_.id)));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Issues with a reported date, strictly after the cursor in {@code (reportedDate desc, id desc)} order.
+     */
+    private Specification<Issue> reportedBefore(IssueCursor after) {
+        return (root, query, builder) -> {
+            if (after == null) {
+                return builder.isNotNull(root.get(Issue_.reportedDate));
+            }
+            return builder.or(
+                builder.lessThan(root.get(Issue_.reportedDate), after.getReportedDate()),
+                builder.and(
+                    builder.equal(root.get(Issue_.reportedDate), after.getReportedDate()),
+                    builder.lessThan(root.get(Issue_.id), after.getId())));
+        };
+    }
+
+    /**
+     * Issues without a reported date, strictly after the cursor in {@code id desc} order.
+     */
+    private Specification<Issue> unreportedBefore(IssueCursor after) {
+        return (root, query, builder) -> {
+            if (after == null) {
+                return builder.isNull(root.get(Issue_.reportedDate));
+            }
+            return builder.and(
+                builder.isNull(root.get(Issue_.reportedDate)),
+                builder.lessThan(root.get(Issue_.id), after.getId()));
+        };
+    }
+
     /**
      * Return the number of matching entities in the database.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @return the number of matching entities.
      */
+    @Coalesced
     @Transactional(readOnly = true)
     public long countByCriteria(IssueCriteria criteria) {
         log.debug("count by criteria : {}", criteria);
+        OptionalLong cachedCount = issueCriteriaCache.getCount(criteria);
+        if (cachedCount.isPresent()) {
+            return cachedCount.getAsLong();
+        }
+        long generation = issueCriteriaCache.generation();
         final Specification<Issue> specification = createSpecification(criteria);
-        return issueRepository.count(specification);
+        long count = issueRepository.count(specification);
+        issueCriteriaCache.putCount(criteria, count, generation);
+        return count;
     }
 
     /**
      * Function to convert IssueCriteria to a {@link Specification}.
      */
-    private Specification<Issue> createSpecification(IssueCriteria criteria) {
+    protected Specification<Issue> createSpecification(IssueCriteria criteria) {
         Specification<Issue> specification = Specification.where(null);
         if (criteria != null) {
             if (criteria.getId() != null) {
@@ -103,8 +386,9 @@ public class IssueQueryService extends QueryService<Issue> {
                     root -> root.join(Issue_.comments, JoinType.LEFT).get(Comment_.id)));
             }
             if (criteria.getUserId() != null) {
+                // A path rather than a join, so that the foreign key of the issue is filtered, which is indexed
                 specification = specification.and(buildSpecification(criteria.getUserId(),
-                    root -> root.join(Issue_.user, JoinType.LEFT).get(User_.id)));
+                    root -> root.get(Issue_.user).get(User_.id)));
             }
         }
         return specification;
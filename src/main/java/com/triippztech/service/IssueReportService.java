@@ -0,0 +1,114 @@
+package com.triippztech.service;
+
+import com.triippztech.config.SqlFunctionsContributor;
+import com.triippztech.domain.Issue;
+import com.triippztech.domain.Issue_;
+import com.triippztech.domain.User_;
+import com.triippztech.service.dto.IssueCriteria;
+import com.triippztech.service.dto.IssueReportDTO;
+import com.triippztech.service.dto.IssueReportDimension;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service computing aggregate reports of the {@link Issue}s.
+ * <p>
+ * A report counts the issues matching an {@link IssueCriteria}, grouped by {@link IssueReportDimension}s, with a
+ * single {@code GROUP BY} query: only the groups are read from the database, whatever the number of issues.
+ */
+@Service
+@Transactional(readOnly = true)
+public class IssueReportService {
+
+    private final Logger log = LoggerFactory.getLogger(IssueReportService.class);
+
+    private final IssueQueryService issueQueryService;
+
+    private final EntityManager entityManager;
+
+    public IssueReportService(IssueQueryService issueQueryService, EntityManager entityManager) {
+        this.issueQueryService = issueQueryService;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Count the issues matching the criteria, per group.
+     *
+     * @param criteria the criteria which the counted issues should match.
+     * @param dimensions the dimensions of the groups, or none to only count the matching issues.
+     * @return the count of each non-empty group, ordered by the dimensions, without the issues lacking a date
+     * when grouped by week or month.
+     */
+    public IssueReportDTO report(IssueCriteria criteria, List<IssueReportDimension> dimensions) {
+        log.debug("report by criteria : {}, grouped by: {}", criteria, dimensions);
+        Specification<Issue> specification = issueQueryService.createSpecification(criteria);
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Issue> root = query.from(Issue.class);
+
+        List<Expression<?>> groups = new ArrayList<>();
+        List<Order> orders = new ArrayList<>();
+        for (IssueReportDimension dimension : dimensions) {
+            Expression<?> group = expression(dimension, root, builder);
+            groups.add(group);
+            orders.add(builder.asc(group));
+            if (dimension == IssueReportDimension.WEEK || dimension == IssueReportDimension.MONTH) {
+                specification = specification.and((issue, issueQuery, issueBuilder) ->
+                    issueBuilder.isNotNull(issue.get(Issue_.reportedDate)));
+            }
+        }
+        List<Selection<?>> selections = new ArrayList<>(groups);
+        // The comment filter joins the comments, which repeats the issues having several of them
+        boolean distinct = criteria != null && criteria.getCommentId() != null;
+        selections.add(distinct ? builder.countDistinct(root) : builder.count(root));
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.multiselect(selections)
+            .groupBy(groups)
+            .orderBy(orders);
+
+        IssueReportDTO report = new IssueReportDTO(dimensions);
+        for (Tuple row : entityManager.createQuery(query).getResultList()) {
+            report.addRow(row.toArray());
+        }
+        return report;
+    }
+
+    private static Expression<?> expression(IssueReportDimension dimension, Root<Issue> root, CriteriaBuilder builder) {
+        switch (dimension) {
+            case PRIORITY:
+                return root.get(Issue_.priority);
+            case RESOLUTION:
+                return root.get(Issue_.resolution);
+            case REVIEWER:
+                return root.get(Issue_.reviewerId);
+            case USER:
+                return root.get(Issue_.user).get(User_.id);
+            case WEEK:
+                return builder.function(SqlFunctionsContributor.WEEK_START, Instant.class, root.get(Issue_.reportedDate));
+            case MONTH:
+                return builder.function(SqlFunctionsContributor.MONTH_START, Instant.class, root.get(Issue_.reportedDate));
+            default:
+                throw new IllegalArgumentException("Unsupported issue report dimension: " + dimension);
+        }
+    }
+}
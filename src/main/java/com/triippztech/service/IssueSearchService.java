@@ -0,0 +1,529 @@
+package com.triippztech.service;
+
+import com.triippztech.config.ApplicationProperties;
+import com.triippztech.repository.CommentRepository;
+import com.triippztech.repository.IssueRepository;
+import com.triippztech.service.dto.IssueCriteria;
+import com.triippztech.service.dto.IssueSearchResult;
+import com.triippztech.service.event.ChangeType;
+import com.triippztech.service.event.CommentChangedEvent;
+import com.triippztech.service.event.IssueBatchChangedEvent;
+import com.triippztech.service.event.IssueChangedEvent;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Service for the full-text search of {@link com.triippztech.domain.Issue}s, on their description and the description
+ * of their comments.
+ * <p>
+ * The descriptions are kept in an embedded Lucene index, with one document per issue and one per comment, updated from
+ * the {@link IssueChangedEvent}s and {@link CommentChangedEvent}s of committed transactions. Each instance maintains
+ * its own index, which is built from the database on start when empty.
+ * <p>
+ * The index is also periodically reconciled with the database, from the versions of the issues and comments, which
+ * bounds the drift caused by changes made on other instances, while this one was down, or lost in a crash.
+ */
+@Service
+public class IssueSearchService {
+
+    /**
+     * Maximum number of issues returned by a search, which is also the number of matching documents read at once.
+     */
+    public static final int MAX_HITS = 1000;
+
+    /**
+     * Maximum number of matching documents read by a search, when few of them match the criteria.
+     */
+    public static final int MAX_SCANNED_HITS = 10 * MAX_HITS;
+
+    private static final String KEY = "key";
+
+    private static final String ISSUE_ID = "issueId";
+
+    private static final String VERSION = "version";
+
+    private static final String TEXT = "text";
+
+    private static final String ISSUE_KEY_PREFIX = "issue-";
+
+    private static final String COMMENT_KEY_PREFIX = "comment-";
+
+    /**
+     * Commit user data identifying the fields of the documents, so that an index written by an older version is
+     * rebuilt instead of reconciled.
+     */
+    private static final String FORMAT = "format";
+
+    private static final String CURRENT_FORMAT = "2";
+
+    private static final int RECONCILE_BATCH_SIZE = 500;
+
+    private static final Set<String> ISSUE_ID_FIELDS = Collections.singleton(ISSUE_ID);
+
+    private static final Set<String> VERSION_FIELDS = new HashSet<>(Arrays.asList(KEY, VERSION));
+
+    private final Logger log = LoggerFactory.getLogger(IssueSearchService.class);
+
+    private final ApplicationProperties applicationProperties;
+
+    private final IssueRepository issueRepository;
+
+    private final CommentRepository commentRepository;
+
+    private final IssueQueryService issueQueryService;
+
+    private final TransactionTemplate readTransactionTemplate;
+
+    /**
+     * Reads the current rows from the primary database, in a transaction of its own.
+     */
+    private final TransactionTemplate currentTransactionTemplate;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+
+    /**
+     * Serializes the writes of the documents, so that a reconciliation does not overwrite a change applied after it
+     * read the database.
+     */
+    private final Object writeLock = new Object();
+
+    /**
+     * Set when the index changed since the searcher was last refreshed; the refresh is deferred to the next search,
+     * so a burst of writes only pays for one.
+     */
+    private final AtomicBoolean stale = new AtomicBoolean();
+
+    private Directory directory;
+
+    private IndexWriter indexWriter;
+
+    private SearcherManager searcherManager;
+
+    public IssueSearchService(ApplicationProperties applicationProperties, IssueRepository issueRepository,
+                              CommentRepository commentRepository, IssueQueryService issueQueryService,
+                              PlatformTransactionManager transactionManager) {
+        this.applicationProperties = applicationProperties;
+        this.issueRepository = issueRepository;
+        this.commentRepository = commentRepository;
+        this.issueQueryService = issueQueryService;
+        this.readTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readTransactionTemplate.setReadOnly(true);
+        this.currentTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.currentTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        String indexDirectory = applicationProperties.getSearch().getIndexDirectory();
+        if (StringUtils.isEmpty(indexDirectory)) {
+            directory = new ByteBuffersDirectory();
+        } else {
+            log.debug("Opening the search index in {}", indexDirectory);
+            directory = FSDirectory.open(Paths.get(indexDirectory));
+        }
+        indexWriter = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+        searcherManager = new SearcherManager(indexWriter, null);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        indexWriter.close();
+        directory.close();
+    }
+
+    /**
+     * Build the index from the database if it is empty, typically on the first start or with an in-memory index, or
+     * written by an older version; otherwise catch up with the changes made since it was last committed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void onApplicationReady() throws IOException {
+        if (indexWriter.getDocStats().numDocs == 0 || !CURRENT_FORMAT.equals(commitData().get(FORMAT))) {
+            rebuild();
+        } else {
+            reconcile();
+        }
+    }
+
+    /**
+     * Drop the index and build it again from the database.
+     */
+    @Transactional(readOnly = true)
+    public void reindex() throws IOException {
+        rebuild();
+    }
+
+    /**
+     * Search the issues whose description, or the description of one of their comments, match the query.
+     * <p>
+     * The matching documents are read by batches of {@value #MAX_HITS}, in score order, and the issues of each batch
+     * are filtered on the criteria, until enough issues are found, all the documents are read, or
+     * {@value #MAX_SCANNED_HITS} documents are read: the result is then truncated.
+     *
+     * @param q the query, in the Lucene query syntax.
+     * @param criteria the filters which the issues should also match, or {@code null}.
+     * @param size the maximum number of ids to return.
+     * @return the ids of the matching issues, best match first.
+     * @throws IllegalArgumentException if the query is not valid.
+     */
+    public IssueSearchResult search(String q, IssueCriteria criteria, int size) {
+        log.debug("Request to search Issues for query {} and criteria {}", q, criteria);
+        Query query = parse(q);
+        boolean filtered = criteria != null && !criteria.equals(new IssueCriteria());
+        Set<Long> seen = new HashSet<>();
+        List<Long> result = new ArrayList<>();
+        boolean truncated = false;
+        try {
+            if (stale.getAndSet(false)) {
+                searcherManager.maybeRefreshBlocking();
+            }
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                ScoreDoc after = null;
+                int scanned = 0;
+                while (result.size() < size) {
+                    ScoreDoc[] scoreDocs = searcher.searchAfter(after, query, MAX_HITS).scoreDocs;
+                    // Documents are sorted by score, so an issue is ranked by its best matching description
+                    Set<Long> ranked = new LinkedHashSet<>();
+                    for (ScoreDoc scoreDoc : scoreDocs) {
+                        Long issueId = Long.valueOf(searcher.doc(scoreDoc.doc, ISSUE_ID_FIELDS).get(ISSUE_ID));
+                        if (seen.add(issueId)) {
+                            ranked.add(issueId);
+                        }
+                    }
+                    if (filtered && !ranked.isEmpty()) {
+                        ranked.retainAll(new HashSet<>(issueQueryService.findIdsByCriteria(criteria, ranked)));
+                    }
+                    result.addAll(ranked);
+                    if (scoreDocs.length < MAX_HITS) {
+                        break;
+                    }
+                    scanned += scoreDocs.length;
+                    if (scanned >= MAX_SCANNED_HITS && result.size() < size) {
+                        truncated = true;
+                        break;
+                    }
+                    after = scoreDocs[scoreDocs.length - 1];
+                }
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new IssueSearchResult(result.size() > size ? new ArrayList<>(result.subList(0, size)) : result, truncated);
+    }
+
+    /**
+     * Apply a committed issue change to the index.
+     *
+     * @param event the change.
+     */
+    @TransactionalEventListener
+    public void onIssueChanged(IssueChangedEvent event) {
+        try {
+            synchronized (writeLock) {
+                if (event.getType() == ChangeType.DELETED) {
+                    deleteIssue(event.getIssueId());
+                } else {
+                    // Without version, as the event does not know it: the next reconciliation reads it
+                    indexIssue(event.getIssueId(), null, event.getDescription());
+                }
+            }
+            stale.set(true);
+        } catch (IOException e) {
+            log.warn("Could not index Issue {}: {}", event.getIssueId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Apply committed issue changes to the index.
+     *
+     * @param event the changes.
+     */
+    @TransactionalEventListener
+    public void onIssuesChanged(IssueBatchChangedEvent event) {
+        try {
+            synchronized (writeLock) {
+                for (IssueChangedEvent change : event.getChanges()) {
+                    if (change.getType() == ChangeType.DELETED) {
+                        deleteIssue(change.getIssueId());
+                    } else {
+                        indexIssue(change.getIssueId(), null, change.getDescription());
+                    }
+                }
+            }
+            stale.set(true);
+        } catch (IOException e) {
+            log.warn("Could not index {} Issues: {}", event.getChanges().size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Apply a committed comment change to the index.
+     *
+     * @param event the change.
+     */
+    @TransactionalEventListener
+    public void onCommentChanged(CommentChangedEvent event) {
+        try {
+            synchronized (writeLock) {
+                if (event.getType() == ChangeType.DELETED || event.getIssueId() == null) {
+                    indexWriter.deleteDocuments(commentKey(event.getCommentId()));
+                } else {
+                    indexComment(event.getCommentId(), event.getIssueId(), null, event.getDescription());
+                }
+            }
+            stale.set(true);
+        } catch (IOException e) {
+            log.warn("Could not index Comment {}: {}", event.getCommentId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Persist the changes applied to the index since the last commit.
+     * <p>
+     * This is scheduled to get fired every {@code application.search.commit-delay-ms}.
+     */
+    @Scheduled(initialDelayString = "${application.search.commit-delay-ms:10000}",
+        fixedDelayString = "${application.search.commit-delay-ms:10000}")
+    public void commit() throws IOException {
+        if (indexWriter.hasUncommittedChanges()) {
+            indexWriter.commit();
+        }
+    }
+
+    /**
+     * Apply to the index the changes it missed.
+     * <p>
+     * The versions of the documents are compared with the versions in the database, and the documents which differ,
+     * have no version or no row are then written from the current rows, read again from the primary database.
+     * <p>
+     * This is scheduled to get fired every {@code application.search.reconcile-delay-ms}.
+     */
+    @Scheduled(initialDelayString = "${application.search.reconcile-delay-ms:300000}",
+        fixedDelayString = "${application.search.reconcile-delay-ms:300000}")
+    public void reconcile() throws IOException {
+        Map<String, Long> indexed = indexedVersions();
+        Set<Long> staleIssueIds = new HashSet<>();
+        Set<Long> staleCommentIds = new HashSet<>();
+        readTransactionTemplate.execute(status -> {
+            try (Stream<Object[]> issues = issueRepository.streamAllVersions()) {
+                issues.forEach(row -> {
+                    if (!Objects.equals(indexed.remove(issueKey((Long) row[0]).text()), row[1])) {
+                        staleIssueIds.add((Long) row[0]);
+                    }
+                });
+            }
+            try (Stream<Object[]> comments = commentRepository.streamAllVersions()) {
+                comments.forEach(row -> {
+                    if (!Objects.equals(indexed.remove(commentKey((Long) row[0]).text()), row[1])) {
+                        staleCommentIds.add((Long) row[0]);
+                    }
+                });
+            }
+            return null;
+        });
+        // Left in the index without a row
+        for (String key : indexed.keySet()) {
+            if (key.startsWith(ISSUE_KEY_PREFIX)) {
+                staleIssueIds.add(Long.valueOf(key.substring(ISSUE_KEY_PREFIX.length())));
+            } else {
+                staleCommentIds.add(Long.valueOf(key.substring(COMMENT_KEY_PREFIX.length())));
+            }
+        }
+        if (staleIssueIds.isEmpty() && staleCommentIds.isEmpty()) {
+            return;
+        }
+        log.info("Reconciling {} issues and {} comments of the search index", staleIssueIds.size(), staleCommentIds.size());
+        for (List<Long> ids : batches(staleIssueIds)) {
+            synchronized (writeLock) {
+                Set<Long> deleted = new HashSet<>(ids);
+                for (Object[] row : currentTransactionTemplate.execute(status -> issueRepository.findDescriptionsByIdIn(ids))) {
+                    indexIssue((Long) row[0], (Long) row[1], (String) row[2]);
+                    deleted.remove(row[0]);
+                }
+                for (Long issueId : deleted) {
+                    deleteIssue(issueId);
+                }
+            }
+        }
+        for (List<Long> ids : batches(staleCommentIds)) {
+            synchronized (writeLock) {
+                Set<Long> deleted = new HashSet<>(ids);
+                for (Object[] row : currentTransactionTemplate.execute(status -> commentRepository.findDescriptionsByIdIn(ids))) {
+                    indexComment((Long) row[0], (Long) row[1], (Long) row[2], (String) row[3]);
+                    deleted.remove(row[0]);
+                }
+                for (Long commentId : deleted) {
+                    indexWriter.deleteDocuments(commentKey(commentId));
+                }
+            }
+        }
+        stale.set(true);
+    }
+
+    private void rebuild() throws IOException {
+        log.info("Building the search index from the database");
+        synchronized (writeLock) {
+            indexWriter.deleteAll();
+            try (Stream<Object[]> issues = issueRepository.streamAllDescriptions()) {
+                for (Object[] row : (Iterable<Object[]>) issues::iterator) {
+                    Long issueId = (Long) row[0];
+                    indexWriter.addDocument(document(issueKey(issueId), issueId, (Long) row[1], (String) row[2]));
+                }
+            }
+            try (Stream<Object[]> comments = commentRepository.streamAllDescriptions()) {
+                for (Object[] row : (Iterable<Object[]>) comments::iterator) {
+                    indexWriter.addDocument(document(commentKey((Long) row[0]), (Long) row[1], (Long) row[2],
+                        (String) row[3]));
+                }
+            }
+            indexWriter.setLiveCommitData(Collections.singletonMap(FORMAT, CURRENT_FORMAT).entrySet());
+            indexWriter.commit();
+        }
+        searcherManager.maybeRefreshBlocking();
+        log.info("Search index built with {} documents", indexWriter.getDocStats().numDocs);
+    }
+
+    private void indexIssue(Long issueId, Long version, String description) throws IOException {
+        indexWriter.updateDocument(issueKey(issueId), document(issueKey(issueId), issueId, version, description));
+    }
+
+    private void deleteIssue(Long issueId) throws IOException {
+        // Also removes the comments, which cannot outlive their issue anyway
+        indexWriter.deleteDocuments(new Term(ISSUE_ID, issueId.toString()));
+    }
+
+    private void indexComment(Long commentId, Long issueId, Long version, String description) throws IOException {
+        indexWriter.updateDocument(commentKey(commentId), document(commentKey(commentId), issueId, version, description));
+    }
+
+    /**
+     * @return the version of every document, by key, or {@code null} for the documents written without version.
+     */
+    private Map<String, Long> indexedVersions() throws IOException {
+        searcherManager.maybeRefreshBlocking();
+        Map<String, Long> versions = new HashMap<>();
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            for (LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+                LeafReader reader = leaf.reader();
+                Bits liveDocs = reader.getLiveDocs();
+                for (int doc = 0; doc < reader.maxDoc(); doc++) {
+                    if (liveDocs == null || liveDocs.get(doc)) {
+                        Document document = reader.document(doc, VERSION_FIELDS);
+                        IndexableField version = document.getField(VERSION);
+                        versions.put(document.get(KEY), version == null ? null : version.numericValue().longValue());
+                    }
+                }
+            }
+        } finally {
+            searcherManager.release(searcher);
+        }
+        return versions;
+    }
+
+    private Map<String, String> commitData() {
+        Map<String, String> commitData = new HashMap<>();
+        Iterable<Map.Entry<String, String>> liveCommitData = indexWriter.getLiveCommitData();
+        if (liveCommitData != null) {
+            for (Map.Entry<String, String> entry : liveCommitData) {
+                commitData.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return commitData;
+    }
+
+    private static List<List<Long>> batches(Set<Long> ids) {
+        List<Long> list = new ArrayList<>(ids);
+        List<List<Long>> batches = new ArrayList<>();
+        for (int from = 0; from < list.size(); from += RECONCILE_BATCH_SIZE) {
+            batches.add(list.subList(from, Math.min(from + RECONCILE_BATCH_SIZE, list.size())));
+        }
+        return batches;
+    }
+
+    private Query parse(String q) {
+        try {
+            return new QueryParser(TEXT, analyzer).parse(q);
+        } catch (ParseException | BooleanQuery.TooManyClauses e) {
+            throw new IllegalArgumentException("Invalid search query: " + e.getMessage(), e);
+        }
+    }
+
+    private static Term issueKey(Long issueId) {
+        return new Term(KEY, ISSUE_KEY_PREFIX + issueId);
+    }
+
+    private static Term commentKey(Long commentId) {
+        return new Term(KEY, COMMENT_KEY_PREFIX + commentId);
+    }
+
+    private static Document document(Term key, Long issueId, Long version, String description) {
+        Document document = new Document();
+        document.add(new StringField(KEY, key.text(), Field.Store.YES));
+        document.add(new StringField(ISSUE_ID, issueId.toString(), Field.Store.YES));
+        if (version != null) {
+            document.add(new StoredField(VERSION, version));
+        }
+        if (description != null) {
+            document.add(new TextField(TEXT, description, Field.Store.NO));
+        }
+        return document;
+    }
+}
@@ -1,14 +1,28 @@
 package com.triippztech.service;
 
+import com.triippztech.aop.coalescing.Coalesced;
 import com.triippztech.domain.Issue;
 import com.triippztech.domain.enumeration.Resolution;
 import com.triippztech.repository.IssueRepository;
+import com.triippztech.service.dto.BatchResultDTO;
+import com.triippztech.service.dto.IssueSummary;
+import com.triippztech.service.event.IssueChangedEvent;
+import com.triippztech.service.util.BatchFetchUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,23 +33,106 @@ import java.util.Optional;
 @Transactional
 public class IssueService {
 
+    private static final List<String> UNPATCHABLE_PROPERTIES = Arrays.asList("id", "version", "comments");
+
     private final Logger log = LoggerFactory.getLogger(IssueService.class);
 
     private final IssueRepository issueRepository;
 
-    public IssueService(IssueRepository issueRepository) {
+    private final IssueNumberAllocator issueNumberAllocator;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ObjectMapper objectMapper;
+
+    private final EntityManager entityManager;
+
+    public IssueService(IssueRepository issueRepository, IssueNumberAllocator issueNumberAllocator,
+                        ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper,
+                        EntityManager entityManager) {
         this.issueRepository = issueRepository;
+        this.issueNumberAllocator = issueNumberAllocator;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
     }
 
     /**
      * Save a issue.
+     * <p>
+     * A new issue without a number gets the next allocated one; an existing issue without a number keeps its own.
+     * An existing issue without a version overwrites the stored one.
      *
      * @param issue the entity to save.
      * @return the persisted entity.
+     * @throws ObjectOptimisticLockingFailureException if the issue was changed since the version of the entity.
      */
     public Issue save(Issue issue) {
         log.debug("Request to save Issue : {}", issue);
-        return issueRepository.save(issue);
+        // Loaded in the persistence context, so the save below merges into it without another query
+        Optional<Issue> existing = issue.getId() == null ? Optional.empty() : issueRepository.findById(issue.getId());
+        Optional<IssueChangedEvent.State> previous = existing.map(IssueChangedEvent.State::of);
+        if (issue.getNumber() == null) {
+            issue.setNumber(previous.isPresent() ? previous.get().getNumber() : issueNumberAllocator.allocate());
+        } else if (!previous.isPresent() || !issue.getNumber().equals(previous.get().getNumber())) {
+            issueNumberAllocator.used(issue.getNumber());
+        }
+        if (issue.getVersion() == null) {
+            existing.ifPresent(stored -> issue.setVersion(stored.getVersion()));
+        }
+        // The comment activity is not written with the issue: return the stored one
+        issue.setCommentCount(existing.map(Issue::getCommentCount).orElse(0));
+        issue.setLastCommentDate(existing.map(Issue::getLastCommentDate).orElse(null));
+        Issue result = issueRepository.save(issue);
+        eventPublisher.publishEvent(previous.isPresent() ?
+            IssueChangedEvent.updated(previous.get(), result) : IssueChangedEvent.created(result));
+        return result;
+    }
+
+    /**
+     * Tell that saving a new issue failed because its allocated number was used meanwhile, so that the numbers
+     * allocated next are checked.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void onAllocatedNumberUsed() {
+        issueNumberAllocator.refreshUsed();
+    }
+
+    /**
+     * Apply changes to an issue: only the properties present in the changes are written, as a JSON merge patch.
+     *
+     * @param id the id of the entity.
+     * @param version the version which the issue must still have, or {@code null}.
+     * @param changes the new values of the changed properties; its {@code id} and {@code version} are ignored.
+     * @return the updated entity, or empty if the issue does not exist.
+     * @throws ObjectOptimisticLockingFailureException if the issue does not have the version anymore.
+     * @throws IllegalArgumentException if the changes are not valid values of the properties.
+     */
+    public Optional<Issue> partialUpdate(Long id, Long version, ObjectNode changes) {
+        log.debug("Request to partially update Issue : {} with : {}", id, changes);
+        Optional<Issue> existing = issueRepository.findById(id);
+        if (!existing.isPresent()) {
+            return Optional.empty();
+        }
+        Issue issue = existing.get();
+        if (version != null && !version.equals(issue.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Issue.class, id);
+        }
+        IssueChangedEvent.State previous = IssueChangedEvent.State.of(issue);
+        try {
+            objectMapper.readerForUpdating(issue).readValue(changes.deepCopy().without(UNPATCHABLE_PROPERTIES));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid issue changes: " + e.getMessage(), e);
+        }
+        if (issue.getNumber() == null) {
+            issue.setNumber(previous.getNumber());
+        } else if (!issue.getNumber().equals(previous.getNumber())) {
+            issueNumberAllocator.used(issue.getNumber());
+        }
+        // Written now, to report invalid values and to return the new version
+        issueRepository.flush();
+        eventPublisher.publishEvent(IssueChangedEvent.updated(previous, issue));
+        return Optional.of(issue);
     }
 
     /**
@@ -50,6 +147,21 @@ public class IssueService {
     }
 
 
+    /**
+     * Get the summaries of all the issues, or of the issues with the given resolution.
+     *
+     * @param resolution the resolution to filter on, or {@code null} for all the issues.
+     * @return the list of summaries.
+     */
+    @Transactional(readOnly = true)
+    public List<IssueSummary> findAllSummaries(Resolution resolution) {
+        log.debug("Request to get Issue summaries with resolution : {}", resolution);
+        if (resolution == null) {
+            return issueRepository.findAllSummaries();
+        }
+        return issueRepository.findAllSummariesByResolution(resolution);
+    }
+
     /**
      * Get one issue by id.
      *
@@ -62,6 +174,30 @@ public class IssueService {
         return issueRepository.findById(id);
     }
 
+    /**
+     * Get the issues with the given ids, from the second-level cache or else with a single query.
+     *
+     * @param ids the ids of the entities.
+     * @return the found entities and the missing ids, in the order of the ids.
+     */
+    @Transactional(readOnly = true)
+    public BatchResultDTO<Issue> findAllById(Collection<Long> ids) {
+        log.debug("Request to get Issues : {}", ids);
+        return BatchFetchUtil.findAllById(entityManager, Issue.class, ids);
+    }
+
+    /**
+     * Get the issue with the given number.
+     *
+     * @param number the number of the entity.
+     * @return the entity.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Issue> findOneByNumber(Integer number) {
+        log.debug("Request to get Issue by number : {}", number);
+        return issueRepository.findOneByNumber(number);
+    }
+
     /**
      * Delete the issue by id.
      *
@@ -69,9 +205,13 @@ public class IssueService {
      */
     public void delete(Long id) {
         log.debug("Request to delete Issue : {}", id);
+        Optional<Issue> existing = issueRepository.findById(id);
         issueRepository.deleteById(id);
+        existing.ifPresent(issue ->
+            eventPublisher.publishEvent(IssueChangedEvent.deleted(id, IssueChangedEvent.State.of(issue))));
     }
 
+    @Coalesced
     @Transactional(readOnly = true)
     public List<Issue> findAllOpenIssues()
     {
@@ -79,6 +219,7 @@ public class IssueService {
         return issueRepository.findAllByResolution(Resolution.NEW);
     }
 
+    @Coalesced
     @Transactional(readOnly = true)
     public List<Issue> findAllReviewedIssues()
     {
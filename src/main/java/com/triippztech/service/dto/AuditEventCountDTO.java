@@ -0,0 +1,59 @@
+package com.triippztech.service.dto;
+
+import com.triippztech.domain.PersistentAuditEventCount;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * A DTO representing the number of audit events of a principal and type on a UTC day.
+ */
+public class AuditEventCountDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final LocalDate day;
+
+    private final String principal;
+
+    private final String type;
+
+    private final long count;
+
+    public AuditEventCountDTO(LocalDate day, String principal, String type, long count) {
+        this.day = day;
+        this.principal = principal;
+        this.type = type;
+        this.count = count;
+    }
+
+    public AuditEventCountDTO(PersistentAuditEventCount count) {
+        this(count.getId().getDay(), count.getId().getPrincipal(), count.getId().getAuditEventType(), count.getCount());
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public String getPrincipal() {
+        return principal;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "AuditEventCountDTO{" +
+            "day=" + day +
+            ", principal='" + principal + "'" +
+            ", type='" + type + "'" +
+            ", count=" + count +
+            "}";
+    }
+}
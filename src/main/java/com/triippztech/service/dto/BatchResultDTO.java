@@ -0,0 +1,44 @@
+package com.triippztech.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing the outcome of a batch fetch by ids: the found entities and the ids which were not found,
+ * both in the order of the requested ids.
+ *
+ * @param <T> the type of the entities.
+ */
+public class BatchResultDTO<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<T> items = new ArrayList<>();
+
+    private final List<Long> missingIds = new ArrayList<>();
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void addItem(T item) {
+        items.add(item);
+    }
+
+    public List<Long> getMissingIds() {
+        return missingIds;
+    }
+
+    public void addMissingId(Long id) {
+        missingIds.add(id);
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResultDTO{" +
+            "items=" + items.size() +
+            ", missingIds=" + missingIds +
+            "}";
+    }
+}
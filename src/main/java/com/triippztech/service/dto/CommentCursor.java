@@ -0,0 +1,101 @@
+package com.triippztech.service.dto;
+
+import com.triippztech.domain.Comment;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * An opaque keyset position over {@code (jhi_date, id)} of the comments of an issue.
+ * <p>
+ * Like {@link IssueCursor}, clients receive it encoded from {@link #encode()} and send it back unchanged to get the
+ * next page.
+ */
+public final class CommentCursor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Instant date;
+
+    private final Long id;
+
+    public CommentCursor(Instant date, Long id) {
+        this.date = Objects.requireNonNull(date, "date");
+        this.id = Objects.requireNonNull(id, "id");
+    }
+
+    /**
+     * Build the cursor pointing right after the given comment.
+     *
+     * @param comment the last comment of a page.
+     * @return the cursor of the following page.
+     */
+    public static CommentCursor of(Comment comment) {
+        return new CommentCursor(comment.getDate(), comment.getId());
+    }
+
+    /**
+     * Decode a cursor previously produced by {@link #encode()}.
+     *
+     * @param value the encoded cursor.
+     * @return the decoded cursor.
+     * @throws IllegalArgumentException if the value is not a valid cursor.
+     */
+    public static CommentCursor decode(String value) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + value);
+            }
+            return new CommentCursor(Instant.parse(raw.substring(0, separator)), Long.valueOf(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + value, e);
+        }
+    }
+
+    /**
+     * @return the URL-safe representation of this cursor.
+     */
+    public String encode() {
+        String raw = date + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Instant getDate() {
+        return date;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        CommentCursor that = (CommentCursor) o;
+        return Objects.equals(date, that.date) &&
+            Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(date, id);
+    }
+
+    @Override
+    public String toString() {
+        return "CommentCursor{" +
+            "date=" + date +
+            ", id=" + id +
+            "}";
+    }
+}
@@ -0,0 +1,115 @@
+package com.triippztech.service.dto;
+
+import com.triippztech.service.event.ChangeType;
+import com.triippztech.service.event.CommentChangedEvent;
+import com.triippztech.service.event.IssueChangedEvent;
+
+import java.io.Serializable;
+
+/**
+ * A DTO representing a committed change of an issue or of one of its comments, as published by the issue change feed.
+ */
+public class IssueChangeDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The changed entity.
+     */
+    public enum Entity {
+        ISSUE, COMMENT
+    }
+
+    private final Entity entity;
+
+    private final ChangeType type;
+
+    private final Long issueId;
+
+    private final Long previousIssueId;
+
+    private final Long commentId;
+
+    private final IssueChangedEvent.State previous;
+
+    private final IssueChangedEvent.State current;
+
+    private final String description;
+
+    private IssueChangeDTO(Entity entity, ChangeType type, Long issueId, Long previousIssueId, Long commentId,
+                           IssueChangedEvent.State previous, IssueChangedEvent.State current, String description) {
+        this.entity = entity;
+        this.type = type;
+        this.issueId = issueId;
+        this.previousIssueId = previousIssueId;
+        this.commentId = commentId;
+        this.previous = previous;
+        this.current = current;
+        this.description = description;
+    }
+
+    public static IssueChangeDTO of(IssueChangedEvent event) {
+        return new IssueChangeDTO(Entity.ISSUE, event.getType(), event.getIssueId(), null, null, event.getPrevious(),
+            event.getCurrent(), event.getDescription());
+    }
+
+    public static IssueChangeDTO of(CommentChangedEvent event) {
+        return new IssueChangeDTO(Entity.COMMENT, event.getType(), event.getIssueId(), event.getPreviousIssueId(),
+            event.getCommentId(), null, null, event.getDescription());
+    }
+
+    public Entity getEntity() {
+        return entity;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    /**
+     * @return the issue, or the issue of the comment after the change; {@code null} for a deleted comment.
+     */
+    public Long getIssueId() {
+        return issueId;
+    }
+
+    /**
+     * @return the issue of the comment before the change, {@code null} for an issue change.
+     */
+    public Long getPreviousIssueId() {
+        return previousIssueId;
+    }
+
+    public Long getCommentId() {
+        return commentId;
+    }
+
+    /**
+     * @return the state of the issue before the change, {@code null} for a comment change or an issue creation.
+     */
+    public IssueChangedEvent.State getPrevious() {
+        return previous;
+    }
+
+    /**
+     * @return the state of the issue after the change, {@code null} for a comment change or an issue deletion.
+     */
+    public IssueChangedEvent.State getCurrent() {
+        return current;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public String toString() {
+        return "IssueChangeDTO{" +
+            "entity=" + entity +
+            ", type=" + type +
+            ", issueId=" + issueId +
+            ", previousIssueId=" + previousIssueId +
+            ", commentId=" + commentId +
+            "}";
+    }
+}
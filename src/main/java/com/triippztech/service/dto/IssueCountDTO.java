@@ -0,0 +1,48 @@
+package com.triippztech.service.dto;
+
+import com.triippztech.domain.enumeration.Priority;
+import com.triippztech.domain.enumeration.Resolution;
+
+import java.io.Serializable;
+
+/**
+ * A DTO representing the number of issues with a given priority and resolution.
+ * A {@code null} priority or resolution stands for the issues without one.
+ */
+public class IssueCountDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Priority priority;
+
+    private final Resolution resolution;
+
+    private final long count;
+
+    public IssueCountDTO(Priority priority, Resolution resolution, long count) {
+        this.priority = priority;
+        this.resolution = resolution;
+        this.count = count;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    public Resolution getResolution() {
+        return resolution;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "IssueCountDTO{" +
+            "priority=" + priority +
+            ", resolution=" + resolution +
+            ", count=" + count +
+            "}";
+    }
+}
@@ -0,0 +1,105 @@
+package com.triippztech.service.dto;
+
+import com.triippztech.domain.Issue;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * An opaque keyset position over {@code (reported_date, id)} of the {@link Issue} table.
+ * <p>
+ * Clients receive it encoded from {@link #encode()} and send it back unchanged to get the next page,
+ * so the database can seek directly to that position instead of skipping over all previous rows.
+ */
+public final class IssueCursor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String NULL_DATE = "~";
+
+    private final Instant reportedDate;
+
+    private final Long id;
+
+    public IssueCursor(Instant reportedDate, Long id) {
+        this.reportedDate = reportedDate;
+        this.id = Objects.requireNonNull(id, "id");
+    }
+
+    /**
+     * Build the cursor pointing right after the given issue.
+     *
+     * @param issue the last issue of a page.
+     * @return the cursor of the following page.
+     */
+    public static IssueCursor of(Issue issue) {
+        return new IssueCursor(issue.getReportedDate(), issue.getId());
+    }
+
+    /**
+     * Decode a cursor previously produced by {@link #encode()}.
+     *
+     * @param value the encoded cursor.
+     * @return the decoded cursor.
+     * @throws IllegalArgumentException if the value is not a valid cursor.
+     */
+    public static IssueCursor decode(String value) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + value);
+            }
+            String date = raw.substring(0, separator);
+            Long id = Long.valueOf(raw.substring(separator + 1));
+            return new IssueCursor(NULL_DATE.equals(date) ? null : Instant.parse(date), id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + value, e);
+        }
+    }
+
+    /**
+     * @return the URL-safe representation of this cursor.
+     */
+    public String encode() {
+        String raw = (reportedDate == null ? NULL_DATE : reportedDate.toString()) + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Instant getReportedDate() {
+        return reportedDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        IssueCursor that = (IssueCursor) o;
+        return Objects.equals(reportedDate, that.reportedDate) &&
+            Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(reportedDate, id);
+    }
+
+    @Override
+    public String toString() {
+        return "IssueCursor{" +
+            "reportedDate=" + reportedDate +
+            ", id=" + id +
+            "}";
+    }
+}
@@ -0,0 +1,77 @@
+package com.triippztech.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing the outcome of a bulk issue import: the number of imported issues, and why the other rows failed.
+ */
+public class IssueImportResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long imported;
+
+    private final List<RowFailure> failures = new ArrayList<>();
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void addImported(long count) {
+        imported += count;
+    }
+
+    public List<RowFailure> getFailures() {
+        return failures;
+    }
+
+    public void addFailure(long row, String message) {
+        failures.add(new RowFailure(row, message));
+    }
+
+    @Override
+    public String toString() {
+        return "IssueImportResultDTO{" +
+            "imported=" + imported +
+            ", failures=" + failures.size() +
+            "}";
+    }
+
+    /**
+     * A row which was not imported.
+     */
+    public static class RowFailure implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long row;
+
+        private final String message;
+
+        public RowFailure(long row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        /**
+         * @return the position of the row in the input, starting at 1.
+         */
+        public long getRow() {
+            return row;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "RowFailure{" +
+                "row=" + row +
+                ", message='" + message + "'" +
+                "}";
+        }
+    }
+}
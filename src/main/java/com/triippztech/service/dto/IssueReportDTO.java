@@ -0,0 +1,58 @@
+package com.triippztech.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A DTO representing the number of issues per group of a report, in columns.
+ * <p>
+ * Each group by dimension, then {@value #COUNT_COLUMN}, has a column holding a value per row, so that the names
+ * of the columns are not repeated on every row.
+ */
+public class IssueReportDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String COUNT_COLUMN = "count";
+
+    private final Map<String, List<Object>> columns = new LinkedHashMap<>();
+
+    private int rowCount;
+
+    public IssueReportDTO(List<IssueReportDimension> dimensions) {
+        dimensions.forEach(dimension -> columns.put(dimension.getColumn(), new ArrayList<>()));
+        columns.put(COUNT_COLUMN, new ArrayList<>());
+    }
+
+    /**
+     * Append a row.
+     *
+     * @param values the value of each column, in order.
+     */
+    public void addRow(Object... values) {
+        int i = 0;
+        for (List<Object> column : columns.values()) {
+            column.add(values[i++]);
+        }
+        rowCount++;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public Map<String, List<Object>> getColumns() {
+        return columns;
+    }
+
+    @Override
+    public String toString() {
+        return "IssueReportDTO{" +
+            "columns=" + columns.keySet() +
+            ", rowCount=" + rowCount +
+            "}";
+    }
+}
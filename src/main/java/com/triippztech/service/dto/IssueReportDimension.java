@@ -0,0 +1,51 @@
+package com.triippztech.service.dto;
+
+import java.util.Locale;
+
+/**
+ * A dimension by which the issues of a report are grouped.
+ */
+public enum IssueReportDimension {
+
+    PRIORITY("priority"),
+    RESOLUTION("resolution"),
+    REVIEWER("reviewer"),
+    USER("user"),
+    /**
+     * The week of the reported date, by its first day, a Monday, in UTC.
+     */
+    WEEK("week"),
+    /**
+     * The month of the reported date, by its first day, in UTC.
+     */
+    MONTH("month");
+
+    private final String column;
+
+    IssueReportDimension(String column) {
+        this.column = column;
+    }
+
+    /**
+     * @return the name of the dimension in requests, and of its column in reports.
+     */
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * Find the dimension with the given column name.
+     *
+     * @param column the name of the dimension, case insensitive.
+     * @return the dimension.
+     * @throws IllegalArgumentException if no dimension has this name.
+     */
+    public static IssueReportDimension fromColumn(String column) {
+        for (IssueReportDimension dimension : values()) {
+            if (dimension.column.equals(column.trim().toLowerCase(Locale.ROOT))) {
+                return dimension;
+            }
+        }
+        throw new IllegalArgumentException("Unknown issue report dimension: " + column);
+    }
+}
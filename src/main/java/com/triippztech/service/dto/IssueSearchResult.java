@@ -0,0 +1,40 @@
+package com.triippztech.service.dto;
+
+import java.util.List;
+
+/**
+ * The result of a full-text search of the issues.
+ */
+public class IssueSearchResult {
+
+    private final List<Long> ids;
+
+    private final boolean truncated;
+
+    public IssueSearchResult(List<Long> ids, boolean truncated) {
+        this.ids = ids;
+        this.truncated = truncated;
+    }
+
+    /**
+     * @return the ids of the matching issues, best match first.
+     */
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    /**
+     * @return whether the search stopped before reading all the matching documents, so that more issues may match.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    @Override
+    public String toString() {
+        return "IssueSearchResult{" +
+            "ids=" + ids +
+            ", truncated=" + truncated +
+            "}";
+    }
+}
@@ -0,0 +1,92 @@
+package com.triippztech.service.dto;
+
+import com.triippztech.domain.enumeration.Priority;
+import com.triippztech.domain.enumeration.Resolution;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A lightweight, read-only view of an {@link com.triippztech.domain.Issue} for list screens.
+ * <p>
+ * It is built directly by a JPQL constructor expression, so it never loads the issue description,
+ * its user entity or its comments; the comment activity comes from the counters maintained on the issue.
+ */
+public class IssueSummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+
+    private final Integer number;
+
+    private final Priority priority;
+
+    private final Resolution resolution;
+
+    private final Instant reportedDate;
+
+    private final String userLogin;
+
+    private final long commentCount;
+
+    private final Instant lastCommentDate;
+
+    public IssueSummary(Long id, Integer number, Priority priority, Resolution resolution, Instant reportedDate,
+                        String userLogin, Integer commentCount, Instant lastCommentDate) {
+        this.id = id;
+        this.number = number;
+        this.priority = priority;
+        this.resolution = resolution;
+        this.reportedDate = reportedDate;
+        this.userLogin = userLogin;
+        this.commentCount = commentCount == null ? 0 : commentCount;
+        this.lastCommentDate = lastCommentDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Integer getNumber() {
+        return number;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    public Resolution getResolution() {
+        return resolution;
+    }
+
+    public Instant getReportedDate() {
+        return reportedDate;
+    }
+
+    public String getUserLogin() {
+        return userLogin;
+    }
+
+    public long getCommentCount() {
+        return commentCount;
+    }
+
+    public Instant getLastCommentDate() {
+        return lastCommentDate;
+    }
+
+    @Override
+    public String toString() {
+        return "IssueSummary{" +
+            "id=" + id +
+            ", number=" + number +
+            ", priority='" + priority + "'" +
+            ", resolution='" + resolution + "'" +
+            ", reportedDate='" + reportedDate + "'" +
+            ", userLogin='" + userLogin + "'" +
+            ", commentCount=" + commentCount +
+            ", lastCommentDate='" + lastCommentDate + "'" +
+            "}";
+    }
+}
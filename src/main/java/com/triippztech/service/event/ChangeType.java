@@ -0,0 +1,8 @@
+package com.triippztech.service.event;
+
+/**
+ * The kind of change carried by an entity change event.
+ */
+public enum ChangeType {
+    CREATED, UPDATED, DELETED
+}
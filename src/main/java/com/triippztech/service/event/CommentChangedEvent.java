@@ -0,0 +1,77 @@
+package com.triippztech.service.event;
+
+import com.triippztech.domain.Comment;
+
+/**
+ * Published by {@link com.triippztech.service.CommentService} when a {@link Comment} is created, updated or deleted.
+ * <p>
+ * It carries the issue of the comment before and after the change, as well as the new description,
+ * so that listeners maintaining aggregates or indexes can apply the change without reloading the comment.
+ */
+public class CommentChangedEvent {
+
+    private final ChangeType type;
+
+    private final Long commentId;
+
+    private final Long previousIssueId;
+
+    private final Long issueId;
+
+    private final String description;
+
+    private CommentChangedEvent(ChangeType type, Long commentId, Long previousIssueId, Long issueId, String description) {
+        this.type = type;
+        this.commentId = commentId;
+        this.previousIssueId = previousIssueId;
+        this.issueId = issueId;
+        this.description = description;
+    }
+
+    public static CommentChangedEvent created(Comment comment) {
+        return new CommentChangedEvent(ChangeType.CREATED, comment.getId(), null, issueIdOf(comment), comment.getDescription());
+    }
+
+    public static CommentChangedEvent updated(Long previousIssueId, Comment comment) {
+        return new CommentChangedEvent(ChangeType.UPDATED, comment.getId(), previousIssueId, issueIdOf(comment),
+            comment.getDescription());
+    }
+
+    public static CommentChangedEvent deleted(Long commentId, Long previousIssueId) {
+        return new CommentChangedEvent(ChangeType.DELETED, commentId, previousIssueId, null, null);
+    }
+
+    private static Long issueIdOf(Comment comment) {
+        return comment.getIssue() == null ? null : comment.getIssue().getId();
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public Long getCommentId() {
+        return commentId;
+    }
+
+    public Long getPreviousIssueId() {
+        return previousIssueId;
+    }
+
+    public Long getIssueId() {
+        return issueId;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public String toString() {
+        return "CommentChangedEvent{" +
+            "type=" + type +
+            ", commentId=" + commentId +
+            ", previousIssueId=" + previousIssueId +
+            ", issueId=" + issueId +
+            "}";
+    }
+}
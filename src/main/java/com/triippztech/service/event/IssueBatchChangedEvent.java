@@ -0,0 +1,31 @@
+package com.triippztech.service.event;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Published by {@link com.triippztech.service.IssueImportService} for the issues written by a transaction, instead of
+ * one {@link IssueChangedEvent} per issue, so that listeners apply a whole chunk of an import at once.
+ */
+public class IssueBatchChangedEvent {
+
+    private final List<IssueChangedEvent> changes;
+
+    public IssueBatchChangedEvent(List<IssueChangedEvent> changes) {
+        this.changes = Collections.unmodifiableList(changes);
+    }
+
+    /**
+     * @return the changes, in the order they were made.
+     */
+    public List<IssueChangedEvent> getChanges() {
+        return changes;
+    }
+
+    @Override
+    public String toString() {
+        return "IssueBatchChangedEvent{" +
+            "changes=" + changes.size() +
+            "}";
+    }
+}
@@ -0,0 +1,167 @@
+package com.triippztech.service.event;
+
+import com.triippztech.domain.Issue;
+import com.triippztech.domain.enumeration.Priority;
+import com.triippztech.domain.enumeration.Resolution;
+
+import java.time.Instant;
+
+/**
+ * Published by {@link com.triippztech.service.IssueService} when an {@link Issue} is created, updated or deleted.
+ * <p>
+ * It carries the state of the issue before and after the change, as well as the new description,
+ * so that listeners maintaining aggregates, indexes or caches can apply the change without reloading the issue.
+ */
+public class IssueChangedEvent {
+
+    private final ChangeType type;
+
+    private final Long issueId;
+
+    private final State previous;
+
+    private final State current;
+
+    private final String description;
+
+    private IssueChangedEvent(ChangeType type, Long issueId, State previous, State current, String description) {
+        this.type = type;
+        this.issueId = issueId;
+        this.previous = previous;
+        this.current = current;
+        this.description = description;
+    }
+
+    public static IssueChangedEvent created(Issue issue) {
+        return new IssueChangedEvent(ChangeType.CREATED, issue.getId(), null, State.of(issue), issue.getDescription());
+    }
+
+    public static IssueChangedEvent updated(State previous, Issue issue) {
+        return new IssueChangedEvent(ChangeType.UPDATED, issue.getId(), previous, State.of(issue), issue.getDescription());
+    }
+
+    public static IssueChangedEvent deleted(Long issueId, State previous) {
+        return new IssueChangedEvent(ChangeType.DELETED, issueId, previous, null, null);
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public Long getIssueId() {
+        return issueId;
+    }
+
+    /**
+     * @return the state before the change, or {@code null} for a creation.
+     */
+    public State getPrevious() {
+        return previous;
+    }
+
+    /**
+     * @return the state after the change, or {@code null} for a deletion.
+     */
+    public State getCurrent() {
+        return current;
+    }
+
+    public Priority getPreviousPriority() {
+        return previous == null ? null : previous.getPriority();
+    }
+
+    public Resolution getPreviousResolution() {
+        return previous == null ? null : previous.getResolution();
+    }
+
+    public Priority getPriority() {
+        return current == null ? null : current.getPriority();
+    }
+
+    public Resolution getResolution() {
+        return current == null ? null : current.getResolution();
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public String toString() {
+        return "IssueChangedEvent{" +
+            "type=" + type +
+            ", issueId=" + issueId +
+            ", previous=" + previous +
+            ", current=" + current +
+            "}";
+    }
+
+    /**
+     * An immutable snapshot of the filterable fields of an {@link Issue}.
+     * <p>
+     * It must be taken before the issue is modified, as saving merges the changes into the managed entity.
+     */
+    public static final class State {
+
+        private final Integer number;
+
+        private final Priority priority;
+
+        private final Resolution resolution;
+
+        private final Long reviewerId;
+
+        private final Instant reportedDate;
+
+        private final Long userId;
+
+        private State(Issue issue) {
+            this.number = issue.getNumber();
+            this.priority = issue.getPriority();
+            this.resolution = issue.getResolution();
+            this.reviewerId = issue.getReviewerId();
+            this.reportedDate = issue.getReportedDate();
+            this.userId = issue.getUser() == null ? null : issue.getUser().getId();
+        }
+
+        public static State of(Issue issue) {
+            return new State(issue);
+        }
+
+        public Integer getNumber() {
+            return number;
+        }
+
+        public Priority getPriority() {
+            return priority;
+        }
+
+        public Resolution getResolution() {
+            return resolution;
+        }
+
+        public Long getReviewerId() {
+            return reviewerId;
+        }
+
+        public Instant getReportedDate() {
+            return reportedDate;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        @Override
+        public String toString() {
+            return "State{" +
+                "number=" + number +
+                ", priority=" + priority +
+                ", resolution=" + resolution +
+                ", reviewerId=" + reviewerId +
+                ", reportedDate=" + reportedDate +
+                ", userId=" + userId +
+                "}";
+        }
+    }
+}
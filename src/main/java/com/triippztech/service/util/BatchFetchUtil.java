@@ -0,0 +1,103 @@
+package com.triippztech.service.util;
+
+import com.triippztech.service.dto.BatchResultDTO;
+
+import org.hibernate.Cache;
+import org.hibernate.Session;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Fetch;
+import javax.persistence.criteria.FetchParent;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.SingularAttribute;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Utility class for fetching entities by a list of ids.
+ * <p>
+ * The entities held by the second-level cache are taken from it, and all the others are read by a single
+ * {@code IN} query, instead of a query per id, which also fetches their to-one associations.
+ */
+public final class BatchFetchUtil {
+
+    private BatchFetchUtil() {
+    }
+
+    /**
+     * Fetch the entities having the given ids.
+     *
+     * @param entityManager the entity manager loading the entities.
+     * @param type the type of the entities.
+     * @param ids the requested ids; repeated ids are only fetched and returned once.
+     * @param <T> the type of the entities.
+     * @return the found entities and the missing ids, in the order of the requested ids.
+     */
+    public static <T> BatchResultDTO<T> findAllById(EntityManager entityManager, Class<T> type, Collection<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        Map<Object, T> found = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        Cache cache = entityManager.unwrap(Session.class).getSessionFactory().getCache();
+        for (Long id : requested) {
+            T entity = cache.containsEntity(type, id) ? entityManager.find(type, id) : null;
+            if (entity != null) {
+                found.put(id, entity);
+            } else {
+                misses.add(id);
+            }
+        }
+        if (!misses.isEmpty()) {
+            PersistenceUnitUtil persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+            EntityType<T> entityType = entityManager.getMetamodel().entity(type);
+            CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+            CriteriaQuery<T> query = builder.createQuery(type);
+            Root<T> root = query.from(type);
+            fetchAssociations(entityManager, root, entityType, new HashSet<>(Collections.singleton(type)));
+            query.select(root)
+                .where(root.get(entityType.getId(entityType.getIdType().getJavaType())).in(misses));
+            for (T entity : entityManager.createQuery(query).getResultList()) {
+                found.put(persistenceUnitUtil.getIdentifier(entity), entity);
+            }
+        }
+
+        BatchResultDTO<T> result = new BatchResultDTO<>();
+        for (Long id : requested) {
+            T entity = found.get(id);
+            if (entity != null) {
+                result.addItem(entity);
+            } else {
+                result.addMissingId(id);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Fetch the to-one associations, which are eager, and theirs, in the query reading the entities, so that they are
+     * not loaded with a select per row. An association back to a type already fetched on the path is not followed.
+     */
+    private static void fetchAssociations(EntityManager entityManager, FetchParent<?, ?> parent, ManagedType<?> type,
+                                          Set<Class<?>> path) {
+        for (SingularAttribute<?, ?> attribute : type.getSingularAttributes()) {
+            Class<?> target = attribute.getJavaType();
+            if (attribute.isAssociation() && path.add(target)) {
+                Fetch<?, ?> fetch = parent.fetch(attribute.getName(), JoinType.LEFT);
+                fetchAssociations(entityManager, fetch, entityManager.getMetamodel().entity(target), path);
+                path.remove(target);
+            }
+        }
+    }
+}
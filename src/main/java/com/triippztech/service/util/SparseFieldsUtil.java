@@ -0,0 +1,153 @@
+package com.triippztech.service.util;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Lob;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Member;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Utility class for the sparse fieldsets, which read only some columns of the entities.
+ * <p>
+ * The requested fields are selected by a tuple query, so the other columns, like the large descriptions, are never
+ * read from the database.
+ */
+public final class SparseFieldsUtil {
+
+    private SparseFieldsUtil() {
+    }
+
+    /**
+     * Read some fields of the entities matching a specification, in the given order then in id order.
+     *
+     * @param entityManager the entity manager running the query.
+     * @param type the type of the entities.
+     * @param specification the specification which the entities should match, or {@code null} for all of them.
+     * @param fields the names of the basic attributes to read; the id is always read.
+     * @param sort the order of the entities, on basic attributes which need not be read, and are not large objects.
+     * @param distinct whether the specification joins collections, which would repeat the entities.
+     * @param <T> the type of the entities.
+     * @return a map per entity, from field name to value, with the id first then the fields in the requested order.
+     * @throws IllegalArgumentException if a field or a sort property is not a basic attribute of the entities, or if a
+     * sort property is a large object.
+     */
+    public static <T> List<Map<String, Object>> findFields(EntityManager entityManager, Class<T> type,
+                                                           Specification<T> specification, Collection<String> fields,
+                                                           Sort sort, boolean distinct) {
+        EntityType<T> entityType = entityManager.getMetamodel().entity(type);
+        SingularAttribute<? super T, ?> id = entityType.getId(entityType.getIdType().getJavaType());
+        List<SingularAttribute<? super T, ?>> attributes = new ArrayList<>();
+        attributes.add(id);
+        for (String field : fields) {
+            SingularAttribute<? super T, ?> attribute = basicAttribute(entityType, field.trim());
+            if (!attributes.contains(attribute)) {
+                attributes.add(attribute);
+            }
+        }
+
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<T> root = query.from(type);
+        List<Selection<?>> selections = new ArrayList<>();
+        for (SingularAttribute<? super T, ?> attribute : attributes) {
+            selections.add(root.get(attribute).alias(attribute.getName()));
+        }
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Path<?> path = root.get(sortableAttribute(entityType, order.getProperty()));
+            orders.add(order.isAscending() ? builder.asc(path) : builder.desc(path));
+        }
+        if (sort.getOrderFor(id.getName()) == null) {
+            orders.add(builder.asc(root.get(id)));
+        }
+        query.multiselect(selections)
+            .distinct(distinct)
+            .orderBy(orders);
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (SingularAttribute<? super T, ?> attribute : attributes) {
+                row.put(attribute.getName(), tuple.get(attribute.getName()));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * @param entityManager the entity manager.
+     * @param type the type of the entities.
+     * @param <T> the type of the entities.
+     * @return the names of the basic attributes of the entities, which can be read and sorted on, in name order.
+     */
+    public static <T> List<String> fieldNames(EntityManager entityManager, Class<T> type) {
+        return entityManager.getMetamodel().entity(type).getSingularAttributes().stream()
+            .filter(attribute -> attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC)
+            .map(Attribute::getName)
+            .sorted()
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Check that the entities can be sorted on the properties of a sort.
+     *
+     * @param entityManager the entity manager.
+     * @param type the type of the entities.
+     * @param sort the order of the entities.
+     * @param <T> the type of the entities.
+     * @throws IllegalArgumentException if a sort property is not a basic attribute of the entities, or is a large
+     * object, which databases cannot or should not sort on.
+     */
+    public static <T> void checkSortable(EntityManager entityManager, Class<T> type, Sort sort) {
+        EntityType<T> entityType = entityManager.getMetamodel().entity(type);
+        for (Sort.Order order : sort) {
+            sortableAttribute(entityType, order.getProperty());
+        }
+    }
+
+    private static <T> SingularAttribute<? super T, ?> sortableAttribute(EntityType<T> entityType, String name) {
+        SingularAttribute<? super T, ?> attribute = basicAttribute(entityType, name);
+        Member member = attribute.getJavaMember();
+        if (member instanceof AnnotatedElement && ((AnnotatedElement) member).isAnnotationPresent(Lob.class)) {
+            throw new IllegalArgumentException("Large object field of " + entityType.getName() + ": " + name);
+        }
+        return attribute;
+    }
+
+    private static <T> SingularAttribute<? super T, ?> basicAttribute(EntityType<T> entityType, String name) {
+        SingularAttribute<? super T, ?> attribute;
+        try {
+            attribute = entityType.getSingularAttribute(name);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown field of " + entityType.getName() + ": " + name, e);
+        }
+        if (attribute.getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC) {
+            throw new IllegalArgumentException("Not a basic field of " + entityType.getName() + ": " + name);
+        }
+        return attribute;
+    }
+}
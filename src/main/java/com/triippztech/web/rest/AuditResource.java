@@ -1,6 +1,7 @@
 package com.triippztech.web.rest;
 
 import com.triippztech.service.AuditEventService;
+import com.triippztech.service.dto.AuditEventCountDTO;
 
 import io.github.jhipster.web.util.PaginationUtil;
 import io.github.jhipster.web.util.ResponseUtil;
@@ -67,6 +68,21 @@ public class AuditResource {
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
+    /**
+     * {@code GET  /audits/counts} : get the daily counts of the {@link AuditEvent}s between the {@code fromDate} and
+     * {@code toDate}, including the purged ones.
+     *
+     * @param fromDate the first UTC day of the counts to get.
+     * @param toDate the last UTC day of the counts to get.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the counts per day, principal and type in body.
+     */
+    @GetMapping("/counts")
+    public List<AuditEventCountDTO> getCounts(
+        @RequestParam(value = "fromDate") LocalDate fromDate,
+        @RequestParam(value = "toDate") LocalDate toDate) {
+        return auditEventService.findCounts(fromDate, toDate);
+    }
+
     /**
      * {@code GET  /audits/:id} : get an {@link AuditEvent} by id.
      *
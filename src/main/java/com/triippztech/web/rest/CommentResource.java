@@ -2,21 +2,32 @@ package com.triippztech.web.rest;
 
 import com.triippztech.domain.Comment;
 import com.triippztech.service.CommentService;
+import com.triippztech.service.dto.BatchResultDTO;
+import com.triippztech.service.dto.CommentCursor;
 import com.triippztech.web.rest.errors.BadRequestAlertException;
+import com.triippztech.web.rest.util.ETagUtil;
 
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.github.jhipster.web.util.HeaderUtil;
-import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import javax.validation.Valid;
 import java.net.URI;
 import java.net.URISyntaxException;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -30,6 +41,10 @@ public class CommentResource {
 
     private static final String ENTITY_NAME = "comment";
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private static final int MAX_BATCH_SIZE = 100;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -60,25 +75,94 @@ public class CommentResource {
 
     /**
      * {@code PUT  /comments} : Updates an existing comment.
+     * <p>
+     * The update is rejected if the comment was changed since the version of the entity, or since the entity tag of
+     * the {@code If-Match} header when present. An entity without a version overwrites the stored comment.
      *
      * @param comment the comment to update.
+     * @param ifMatch the entity tag which the comment must still have.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated comment,
      * or with status {@code 400 (Bad Request)} if the comment is not valid,
+     * or with status {@code 409 (Conflict)} if the comment changed since its version,
+     * or with status {@code 412 (Precondition Failed)} if the comment does not match the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the comment couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/comments")
-    public ResponseEntity<Comment> updateComment(@Valid @RequestBody Comment comment) throws URISyntaxException {
+    public ResponseEntity<Comment> updateComment(@Valid @RequestBody Comment comment,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+        throws URISyntaxException {
         log.debug("REST request to update Comment : {}", comment);
         if (comment.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
         }
-        Comment result = commentService.save(comment);
+        Optional<Long> version;
+        try {
+            version = ETagUtil.parseIfMatch(ifMatch);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        version.ifPresent(comment::setVersion);
+        Comment result;
+        try {
+            result = commentService.save(comment);
+        } catch (OptimisticLockingFailureException e) {
+            if (version.isPresent()) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+            throw e;
+        }
         return ResponseEntity.ok()
+            .eTag(ETagUtil.eTag(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, comment.getId().toString()))
             .body(result);
     }
 
+    /**
+     * {@code PATCH  /comments/:id} : Partially updates the "id" comment, as a JSON merge patch.
+     * <p>
+     * Only the properties present in the body are changed, and only the changed columns are written. The update is
+     * rejected if the comment was changed since the entity tag of the {@code If-Match} header, or else since the
+     * {@code version} of the body, when present.
+     *
+     * @param id the id of the comment to update.
+     * @param changes the new values of the changed properties.
+     * @param ifMatch the entity tag which the comment must still have.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated comment,
+     * or with status {@code 400 (Bad Request)} if the changes are not valid,
+     * or with status {@code 404 (Not Found)} if the comment does not exist,
+     * or with status {@code 409 (Conflict)} if the comment changed since the version of the body,
+     * or with status {@code 412 (Precondition Failed)} if the comment does not match the {@code If-Match} header.
+     */
+    @PatchMapping(value = "/comments/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Comment> partialUpdateComment(@PathVariable Long id, @RequestBody ObjectNode changes,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.debug("REST request to partially update Comment : {} with : {}", id, changes);
+        Optional<Long> version;
+        try {
+            version = ETagUtil.parseIfMatch(ifMatch);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        Long expectedVersion = version.orElse(changes.hasNonNull("version") ? changes.get("version").asLong() : null);
+        Optional<Comment> result;
+        try {
+            result = commentService.partialUpdate(id, expectedVersion, changes);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid changes", ENTITY_NAME, "changesinvalid");
+        } catch (OptimisticLockingFailureException e) {
+            if (version.isPresent()) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+            throw e;
+        }
+        return result.map(comment -> ResponseEntity.ok()
+            .eTag(ETagUtil.eTag(comment.getVersion()))
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, id.toString()))
+            .body(comment))
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     /**
      * {@code GET  /comments} : get all the comments.
      *
@@ -90,17 +174,109 @@ public class CommentResource {
         return commentService.findAll();
     }
 
+    /**
+     * {@code GET  /comments?fields=} : get some fields of all the comments.
+     * <p>
+     * Only the requested columns are read, so list views not showing the descriptions do not load them.
+     *
+     * @param fields the names of the fields to return, as in {@code fields=date,version}; the id is always returned.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the fields of each comment in body,
+     * or with status {@code 400 (Bad Request)} if a field is unknown.
+     */
+    @GetMapping(value = "/comments", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllCommentFields(@RequestParam List<String> fields) {
+        log.debug("REST request to get the fields {} of all Comments", fields);
+        try {
+            return ResponseEntity.ok().body(commentService.findAllFields(fields));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Fields must be among: " +
+                String.join(", ", commentService.getFieldNames()), ENTITY_NAME, "fieldsinvalid");
+        }
+    }
+
+    /**
+     * {@code GET  /issues/:issueId/comments} : get a keyset page of the comments of the "issueId" issue, oldest first.
+     * <p>
+     * Without a cursor, the first page is returned; the cursor of the next page is returned in the
+     * {@code X-Next-Cursor} header and in a {@code Link} header with {@code rel="next"}.
+     *
+     * @param issueId the id of the issue.
+     * @param cursor the cursor returned with the previous page, or empty for the first page.
+     * @param size the maximum number of comments in the page.
+     * @param uriBuilder the current request URI builder.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of comments in body,
+     * or with status {@code 400 (Bad Request)} if the cursor or the size are invalid,
+     * or with status {@code 404 (Not Found)} if the issue does not exist.
+     */
+    @GetMapping("/issues/{issueId}/comments")
+    public ResponseEntity<List<Comment>> getIssueComments(@PathVariable Long issueId,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(defaultValue = "20") int size,
+                                                          UriComponentsBuilder uriBuilder) {
+        log.debug("REST request to get Comments of Issue : {} after cursor : {}", issueId, cursor);
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestAlertException("Page size must be between 1 and " + MAX_PAGE_SIZE, ENTITY_NAME, "sizeinvalid");
+        }
+        CommentCursor after;
+        try {
+            after = StringUtils.hasText(cursor) ? CommentCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+        Optional<Slice<Comment>> slice = commentService.findAllByIssue(issueId, after, size);
+        if (!slice.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        HttpHeaders headers = new HttpHeaders();
+        if (slice.get().hasNext()) {
+            String nextCursor = CommentCursor.of(slice.get().getContent().get(slice.get().getNumberOfElements() - 1)).encode();
+            String link = uriBuilder.path("/api/issues/{issueId}/comments")
+                .queryParam("cursor", nextCursor)
+                .queryParam("size", size)
+                .buildAndExpand(issueId)
+                .toUriString();
+            headers.add(IssueResource.NEXT_CURSOR_HEADER, nextCursor);
+            headers.add(HttpHeaders.LINK, "<" + link + ">; rel=\"next\"");
+        }
+        return ResponseEntity.ok().headers(headers).body(slice.get().getContent());
+    }
+
+    /**
+     * {@code GET  /comments/batch?ids=} : get the comments with the given ids, in one request.
+     * <p>
+     * The comments held by the second-level cache are taken from it, and the others are read with a single query.
+     *
+     * @param ids the ids of the comments to retrieve, at most {@value #MAX_BATCH_SIZE}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and in body the found comments and the missing ids,
+     * in the order of the ids, or with status {@code 400 (Bad Request)} if there are too many ids.
+     */
+    @GetMapping("/comments/batch")
+    public ResponseEntity<BatchResultDTO<Comment>> getCommentBatch(@RequestParam List<Long> ids) {
+        log.debug("REST request to get Comments : {}", ids);
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestAlertException("At most " + MAX_BATCH_SIZE + " ids can be fetched at once", ENTITY_NAME, "batchsizeinvalid");
+        }
+        return ResponseEntity.ok().body(commentService.findAllById(ids));
+    }
+
     /**
      * {@code GET  /comments/:id} : get the "id" comment.
      *
+     * <p>
+     * The response has the entity tag of the comment version; a request whose {@code If-None-Match} header matches
+     * it gets no body.
+     *
      * @param id the id of the comment to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the comment, or with status {@code 404 (Not Found)}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the comment,
+     * or with status {@code 304 (Not Modified)} if the comment matches the {@code If-None-Match} header,
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/comments/{id}")
     public ResponseEntity<Comment> getComment(@PathVariable Long id) {
         log.debug("REST request to get Comment : {}", id);
         Optional<Comment> comment = commentService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(comment);
+        return comment.map(response -> ResponseEntity.ok().eTag(ETagUtil.eTag(response.getVersion())).body(response))
+            .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     /**
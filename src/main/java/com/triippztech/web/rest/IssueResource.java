@@ -1,24 +1,57 @@
 package com.triippztech.web.rest;
 
 import com.triippztech.domain.Issue;
+import com.triippztech.domain.enumeration.Resolution;
+import com.triippztech.service.IssueChangeFeedService;
+import com.triippztech.service.IssueCounterService;
+import com.triippztech.service.IssueImportService;
+import com.triippztech.service.IssueNumberAllocator;
+import com.triippztech.service.IssueSearchService;
 import com.triippztech.service.IssueService;
 import com.triippztech.web.rest.errors.BadRequestAlertException;
+import com.triippztech.service.dto.BatchResultDTO;
+import com.triippztech.service.dto.IssueChangeDTO;
+import com.triippztech.service.dto.IssueCountDTO;
 import com.triippztech.service.dto.IssueCriteria;
+import com.triippztech.service.dto.IssueCursor;
+import com.triippztech.service.dto.IssueImportResultDTO;
+import com.triippztech.service.dto.IssueSearchResult;
+import com.triippztech.service.dto.IssueSummary;
 import com.triippztech.service.IssueQueryService;
+import com.triippztech.web.rest.util.ETagUtil;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.github.jhipster.web.util.HeaderUtil;
-import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -32,6 +65,18 @@ public class IssueResource {
 
     private static final String ENTITY_NAME = "issue";
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public static final String SEARCH_TRUNCATED_HEADER = "X-Search-Truncated";
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private static final int MAX_BATCH_SIZE = 100;
+
+    private static final int MAX_SAVE_ATTEMPTS = 3;
+
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -39,16 +84,35 @@ public class IssueResource {
 
     private final IssueQueryService issueQueryService;
 
-    public IssueResource(IssueService issueService, IssueQueryService issueQueryService) {
+    private final IssueCounterService issueCounterService;
+
+    private final IssueSearchService issueSearchService;
+
+    private final IssueImportService issueImportService;
+
+    private final IssueChangeFeedService issueChangeFeedService;
+
+    private final ObjectWriter exportWriter;
+
+    public IssueResource(IssueService issueService, IssueQueryService issueQueryService,
+                         IssueCounterService issueCounterService, IssueSearchService issueSearchService,
+                         IssueImportService issueImportService, IssueChangeFeedService issueChangeFeedService,
+                         ObjectMapper objectMapper) {
         this.issueService = issueService;
         this.issueQueryService = issueQueryService;
+        this.issueCounterService = issueCounterService;
+        this.issueSearchService = issueSearchService;
+        this.issueImportService = issueImportService;
+        this.issueChangeFeedService = issueChangeFeedService;
+        this.exportWriter = objectMapper.writerFor(Issue.class).without(SerializationFeature.INDENT_OUTPUT);
     }
 
     /**
      * {@code POST  /issues} : Create a new issue.
      *
      * @param issue the issue to create.
-     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new issue, or with status {@code 400 (Bad Request)} if the issue has already an ID.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new issue, or with status {@code 400 (Bad Request)} if the issue has already an ID
+     * or its number is used by another issue. A number is allocated when the issue has none.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PostMapping("/issues")
@@ -57,46 +121,269 @@ public class IssueResource {
         if (issue.getId() != null) {
             throw new BadRequestAlertException("A new issue cannot already have an ID", ENTITY_NAME, "idexists");
         }
-        Issue result = issueService.save(issue);
+        checkNumberIsFree(issue.getId(), issue.getNumber());
+        Issue result = save(issue);
         return ResponseEntity.created(new URI("/api/issues/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
             .body(result);
     }
 
+    /**
+     * {@code POST  /issues/import} : Import issues in bulk, from a JSON array or newline-delimited JSON.
+     * <p>
+     * Valid rows are imported even when other rows fail; the failed rows are reported with their position.
+     *
+     * @param input the issues to create, which must not have an ID.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the number of imported issues
+     * and the failed rows in body.
+     * @throws IOException if the request body cannot be read.
+     */
+    @PostMapping(value = "/issues/import", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public ResponseEntity<IssueImportResultDTO> importIssues(InputStream input) throws IOException {
+        log.debug("REST request to import Issues");
+        IssueImportResultDTO result = issueImportService.importIssues(input);
+        return ResponseEntity.ok().body(result);
+    }
+
     /**
      * {@code PUT  /issues} : Updates an existing issue.
+     * <p>
+     * The update is rejected if the issue was changed since the version of the entity, or since the entity tag of the
+     * {@code If-Match} header when present. An entity without a version overwrites the stored issue.
      *
      * @param issue the issue to update.
+     * @param ifMatch the entity tag which the issue must still have.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated issue,
-     * or with status {@code 400 (Bad Request)} if the issue is not valid,
+     * or with status {@code 400 (Bad Request)} if the issue is not valid or its number is used by another issue,
+     * or with status {@code 409 (Conflict)} if the issue changed since its version,
+     * or with status {@code 412 (Precondition Failed)} if the issue does not match the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the issue couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/issues")
-    public ResponseEntity<Issue> updateIssue(@Valid @RequestBody Issue issue) throws URISyntaxException {
+    public ResponseEntity<Issue> updateIssue(@Valid @RequestBody Issue issue,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+        throws URISyntaxException {
         log.debug("REST request to update Issue : {}", issue);
         if (issue.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
         }
-        Issue result = issueService.save(issue);
+        Optional<Long> version;
+        try {
+            version = ETagUtil.parseIfMatch(ifMatch);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        version.ifPresent(issue::setVersion);
+        checkNumberIsFree(issue.getId(), issue.getNumber());
+        Issue result;
+        try {
+            result = save(issue);
+        } catch (OptimisticLockingFailureException e) {
+            if (version.isPresent()) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+            throw e;
+        }
         return ResponseEntity.ok()
+            .eTag(ETagUtil.eTag(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, issue.getId().toString()))
             .body(result);
     }
 
+    /**
+     * {@code PATCH  /issues/:id} : Partially updates the "id" issue, as a JSON merge patch.
+     * <p>
+     * Only the properties present in the body are changed, and only the changed columns are written. The update is
+     * rejected if the issue was changed since the entity tag of the {@code If-Match} header, or else since the
+     * {@code version} of the body, when present.
+     *
+     * @param id the id of the issue to update.
+     * @param changes the new values of the changed properties.
+     * @param ifMatch the entity tag which the issue must still have.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated issue,
+     * or with status {@code 400 (Bad Request)} if the changes are not valid or the number is used by another issue,
+     * or with status {@code 404 (Not Found)} if the issue does not exist,
+     * or with status {@code 409 (Conflict)} if the issue changed since the version of the body,
+     * or with status {@code 412 (Precondition Failed)} if the issue does not match the {@code If-Match} header.
+     */
+    @PatchMapping(value = "/issues/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Issue> partialUpdateIssue(@PathVariable Long id, @RequestBody ObjectNode changes,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.debug("REST request to partially update Issue : {} with : {}", id, changes);
+        Optional<Long> version;
+        try {
+            version = ETagUtil.parseIfMatch(ifMatch);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        if (changes.hasNonNull("number")) {
+            checkNumberIsFree(id, changes.get("number").asInt());
+        }
+        Long expectedVersion = version.orElse(changes.hasNonNull("version") ? changes.get("version").asLong() : null);
+        Optional<Issue> result;
+        try {
+            result = issueService.partialUpdate(id, expectedVersion, changes);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid changes", ENTITY_NAME, "changesinvalid");
+        } catch (DataIntegrityViolationException e) {
+            if (IssueNumberAllocator.isNumberUsed(e)) {
+                throw numberUsed();
+            }
+            throw e;
+        } catch (OptimisticLockingFailureException e) {
+            if (version.isPresent()) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+            throw e;
+        }
+        return result.map(issue -> ResponseEntity.ok()
+            .eTag(ETagUtil.eTag(issue.getVersion()))
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, id.toString()))
+            .body(issue))
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     /**
      * {@code GET  /issues} : get all the issues.
+     * <p>
+     * With {@code sort=priority}, the issues are sorted by severity, most severe first, then newest last.
      *
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of issues in body.
+     * @param sort the order of the issues, as in {@code sort=priority,desc}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of issues in body,
+     * or with status {@code 400 (Bad Request)} if a sort property is unknown, an association or the description.
      */
     @GetMapping("/issues")
-    public ResponseEntity<List<Issue>> getAllIssues(IssueCriteria criteria) {
-        log.debug("REST request to get Issues by criteria: {}", criteria);
-        List<Issue> entityList = issueQueryService.findByCriteria(criteria);
+    public ResponseEntity<List<Issue>> getAllIssues(IssueCriteria criteria, Sort sort) {
+        log.debug("REST request to get Issues by criteria: {}, sort: {}", criteria, sort);
+        try {
+            issueQueryService.checkSortable(sort);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid sort: " + sort, ENTITY_NAME, "sortinvalid");
+        }
+        List<Issue> entityList = issueQueryService.findByCriteria(criteria, sort);
         return ResponseEntity.ok().body(entityList);
     }
 
+    /**
+     * {@code GET  /issues?fields=} : get some fields of the issues.
+     * <p>
+     * Only the requested columns are read, so list views not showing the descriptions do not load them.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param fields the names of the fields to return, as in {@code fields=number,priority}; the id is always returned.
+     * @param sort the order of the issues, as for {@code GET /issues}, then by id.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the fields of each issue in body,
+     * or with status {@code 400 (Bad Request)} if a field or a sort property is unknown.
+     */
+    @GetMapping(value = "/issues", params = {"fields", "!cursor"})
+    public ResponseEntity<List<Map<String, Object>>> getAllIssueFields(IssueCriteria criteria,
+                                                                       @RequestParam List<String> fields, Sort sort) {
+        log.debug("REST request to get the fields {} of Issues by criteria: {}, sort: {}", fields, criteria, sort);
+        return ResponseEntity.ok().body(findFieldsByCriteria(criteria, fields, sort));
+    }
+
+    /**
+     * {@code GET  /issues?cursor=} : get a keyset page of the issues, newest first.
+     * <p>
+     * An empty cursor returns the first page; the cursor of the next page is returned in the
+     * {@code X-Next-Cursor} header and in a {@code Link} header with {@code rel="next"}. Sparse fields are not
+     * supported with a cursor, which is built from the fields of the last issue.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param cursor the cursor returned with the previous page, or empty for the first page.
+     * @param size the maximum number of issues in the page.
+     * @param queryParams the request parameters, used to build the next page link.
+     * @param uriBuilder the current request URI builder.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of issues in body,
+     * or with status {@code 400 (Bad Request)} if the cursor or the size are invalid, or if fields are requested.
+     */
+    @GetMapping(value = "/issues", params = "cursor")
+    public ResponseEntity<List<Issue>> getIssuesAfterCursor(IssueCriteria criteria,
+                                                            @RequestParam String cursor,
+                                                            @RequestParam(defaultValue = "20") int size,
+                                                            @RequestParam MultiValueMap<String, String> queryParams,
+                                                            UriComponentsBuilder uriBuilder) {
+        log.debug("REST request to get Issues by criteria: {} after cursor: {}", criteria, cursor);
+        if (queryParams.containsKey("fields")) {
+            throw new BadRequestAlertException("Fields cannot be requested with a cursor", ENTITY_NAME, "fieldsunsupported");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestAlertException("Page size must be between 1 and " + MAX_PAGE_SIZE, ENTITY_NAME, "sizeinvalid");
+        }
+        IssueCursor after;
+        try {
+            after = StringUtils.hasText(cursor) ? IssueCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+        Slice<Issue> slice = issueQueryService.findByCriteria(criteria, after, size);
+        HttpHeaders headers = new HttpHeaders();
+        if (slice.hasNext()) {
+            String nextCursor = IssueCursor.of(slice.getContent().get(slice.getNumberOfElements() - 1)).encode();
+            String link = uriBuilder.path("/api/issues")
+                .queryParams(queryParams)
+                .replaceQueryParam("cursor", nextCursor)
+                .replaceQueryParam("size", size)
+                .toUriString();
+            headers.add(NEXT_CURSOR_HEADER, nextCursor);
+            headers.add(HttpHeaders.LINK, "<" + link + ">; rel=\"next\"");
+        }
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
+    /**
+     * {@code GET  /issues/export} : stream all the issues matching the criteria as newline-delimited JSON.
+     * <p>
+     * Issues are written one per line while they are read from the database, so the export
+     * never holds the whole result set in memory.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the issues streamed in body.
+     */
+    @GetMapping("/issues/export")
+    public ResponseEntity<StreamingResponseBody> exportIssues(IssueCriteria criteria) {
+        log.debug("REST request to export Issues by criteria: {}", criteria);
+        StreamingResponseBody body = outputStream -> {
+            try {
+                issueQueryService.exportByCriteria(criteria, issue -> {
+                    try {
+                        outputStream.write(exportWriter.writeValueAsBytes(issue));
+                        outputStream.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * {@code GET  /issues/stream} : subscribe to the changes of the issues and of their comments, as server-sent events.
+     * <p>
+     * Each committed change is sent as an {@code issue} or {@code comment} event, whose data is an
+     * {@link IssueChangeDTO}. A client reconnecting with a {@code Last-Event-ID} header receives the changes it missed,
+     * or a {@code reset} event if they are no longer known, after which it should reload its issues. A client falling
+     * too far behind is disconnected, and reconnects the same way.
+     * <p>
+     * A browser {@code EventSource}, which cannot send an {@code Authorization} header, passes its token in the
+     * {@code access_token} query parameter.
+     *
+     * @param criteria the criteria which the issues should match before or after their changes.
+     * @param lastEventId the id of the last event received by the client.
+     * @return the {@link SseEmitter} of the changes.
+     */
+    @GetMapping(value = "/issues/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamIssueChanges(IssueCriteria criteria,
+                                         @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        log.debug("REST request to stream Issue changes by criteria: {}, from: {}", criteria, lastEventId);
+        return issueChangeFeedService.subscribe(criteria, lastEventId);
+    }
+
     /**
      * {@code GET  /openissues} : get all the open issues.
      *
@@ -109,6 +396,23 @@ public class IssueResource {
         return ResponseEntity.ok().body(entityList);
     }
 
+    /**
+     * {@code GET  /openissues?fields=} : get some fields of the open issues.
+     *
+     * @param fields the names of the fields to return; the id is always returned.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the fields of each open issue in body,
+     * or with status {@code 400 (Bad Request)} if a field is unknown.
+     */
+    @GetMapping(value = "/openissues", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getOpenIssueFields(@RequestParam List<String> fields) {
+        log.debug("REST request to get the fields {} of all open Issues", fields);
+        IssueCriteria criteria = new IssueCriteria();
+        IssueCriteria.ResolutionFilter resolution = new IssueCriteria.ResolutionFilter();
+        resolution.setEquals(Resolution.NEW);
+        criteria.setResolution(resolution);
+        return ResponseEntity.ok().body(findFieldsByCriteria(criteria, fields, Sort.unsorted()));
+    }
+
     /**
      * {@code GET  /reviewedissues} : get all the reviewed issues.
      *
@@ -121,8 +425,23 @@ public class IssueResource {
         return ResponseEntity.ok().body(entityList);
     }
 
+    /**
+     * {@code GET  /issues/summaries} : get the summaries of all the issues.
+     *
+     * @param resolution the optional resolution the issues should have.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of issue summaries in body.
+     */
+    @GetMapping("/issues/summaries")
+    public ResponseEntity<List<IssueSummary>> getIssueSummaries(@RequestParam(required = false) Resolution resolution) {
+        log.debug("REST request to get Issue summaries with resolution: {}", resolution);
+        return ResponseEntity.ok().body(issueService.findAllSummaries(resolution));
+    }
+
     /**
     * {@code GET  /issues/count} : count all the issues.
+    * <p>
+    * Criteria filtering only on the priority and the resolution are answered from the maintained counters, without
+    * querying the database; other criteria are counted in the database.
     *
     * @param criteria the criteria which the requested entities should match.
     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body.
@@ -130,20 +449,87 @@ public class IssueResource {
     @GetMapping("/issues/count")
     public ResponseEntity<Long> countIssues(IssueCriteria criteria) {
         log.debug("REST request to count Issues by criteria: {}", criteria);
-        return ResponseEntity.ok().body(issueQueryService.countByCriteria(criteria));
+        long count = issueCounterService.count(criteria).orElseGet(() -> issueQueryService.countByCriteria(criteria));
+        return ResponseEntity.ok().body(count);
+    }
+
+    /**
+     * {@code GET  /issues/stats} : get the number of issues for each priority and resolution.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the non-zero counts in body.
+     */
+    @GetMapping("/issues/stats")
+    public ResponseEntity<List<IssueCountDTO>> getIssueStats() {
+        log.debug("REST request to get Issue stats");
+        return ResponseEntity.ok().body(issueCounterService.getCounts());
+    }
+
+    /**
+     * {@code SEARCH  /_search/issues?q=:query} : search the issues whose description, or the description
+     * of one of their comments, match the query.
+     *
+     * @param q the query, in the Lucene query syntax.
+     * @param criteria the criteria which the issues should also match.
+     * @param size the maximum number of ids to return.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the ids of the matching issues in body, best match first,
+     * with a {@value #SEARCH_TRUNCATED_HEADER} header when too few of the matching documents match the criteria to read them all.
+     */
+    @GetMapping("/_search/issues")
+    public ResponseEntity<List<Long>> searchIssues(@RequestParam String q, IssueCriteria criteria,
+                                                   @RequestParam(defaultValue = "100") int size) {
+        log.debug("REST request to search Issues for query {} and criteria: {}", q, criteria);
+        if (size < 1 || size > IssueSearchService.MAX_HITS) {
+            throw new BadRequestAlertException("Size must be between 1 and " + IssueSearchService.MAX_HITS, ENTITY_NAME, "sizeinvalid");
+        }
+        IssueSearchResult result;
+        try {
+            result = issueSearchService.search(q, criteria, size);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "queryinvalid");
+        }
+        HttpHeaders headers = new HttpHeaders();
+        if (result.isTruncated()) {
+            headers.add(SEARCH_TRUNCATED_HEADER, "true");
+        }
+        return ResponseEntity.ok().headers(headers).body(result.getIds());
+    }
+
+    /**
+     * {@code GET  /issues/batch?ids=} : get the issues with the given ids, in one request.
+     * <p>
+     * The issues held by the second-level cache are taken from it, and the others are read with a single query.
+     *
+     * @param ids the ids of the issues to retrieve, at most {@value #MAX_BATCH_SIZE}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and in body the found issues and the missing ids,
+     * in the order of the ids, or with status {@code 400 (Bad Request)} if there are too many ids.
+     */
+    @GetMapping("/issues/batch")
+    public ResponseEntity<BatchResultDTO<Issue>> getIssueBatch(@RequestParam List<Long> ids) {
+        log.debug("REST request to get Issues : {}", ids);
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestAlertException("At most " + MAX_BATCH_SIZE + " ids can be fetched at once", ENTITY_NAME, "batchsizeinvalid");
+        }
+        return ResponseEntity.ok().body(issueService.findAllById(ids));
     }
 
     /**
      * {@code GET  /issues/:id} : get the "id" issue.
+     * <p>
+     * The response has the entity tag of the issue version; a request whose {@code If-None-Match} header matches it
+     * gets no body.
      *
      * @param id the id of the issue to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the issue, or with status {@code 404 (Not Found)}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the issue,
+     * or with status {@code 304 (Not Modified)} if the issue matches the {@code If-None-Match} header,
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/issues/{id}")
     public ResponseEntity<Issue> getIssue(@PathVariable Long id) {
         log.debug("REST request to get Issue : {}", id);
         Optional<Issue> issue = issueService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(issue);
+        // Spring MVC answers 304 (Not Modified) itself when the entity tag matches
+        return issue.map(response -> ResponseEntity.ok().eTag(ETagUtil.eTag(response.getVersion())).body(response))
+            .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     /**
@@ -158,4 +544,50 @@ public class IssueResource {
         issueService.delete(id);
         return ResponseEntity.noContent().headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id.toString())).build();
     }
+
+    private List<Map<String, Object>> findFieldsByCriteria(IssueCriteria criteria, List<String> fields, Sort sort) {
+        try {
+            return issueQueryService.findFieldsByCriteria(criteria, fields, sort);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Fields and sort properties must be among: " +
+                String.join(", ", issueQueryService.getFieldNames()), ENTITY_NAME, "fieldsinvalid");
+        }
+    }
+
+    private void checkNumberIsFree(Long id, Integer number) {
+        if (number != null && issueService.findOneByNumber(number)
+            .filter(other -> !other.getId().equals(id)).isPresent()) {
+            throw numberUsed();
+        }
+    }
+
+    /**
+     * Save an issue, also rejecting a number given concurrently to another issue, which {@link #checkNumberIsFree}
+     * cannot see. A number allocated to a new issue may also have been given meanwhile to an issue created with its
+     * own number, on another instance: the new issue is then saved again with another allocated number.
+     */
+    private Issue save(Issue issue) {
+        boolean allocated = issue.getId() == null && issue.getNumber() == null;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return issueService.save(issue);
+            } catch (DataIntegrityViolationException e) {
+                if (!IssueNumberAllocator.isNumberUsed(e)) {
+                    throw e;
+                }
+                if (!allocated || attempt == MAX_SAVE_ATTEMPTS) {
+                    throw numberUsed();
+                }
+                log.debug("Allocated issue number {} is already used, allocating another one", issue.getNumber());
+                issueService.onAllocatedNumberUsed();
+                issue.setId(null);
+                issue.setNumber(null);
+                issue.setVersion(null);
+            }
+        }
+    }
+
+    private static BadRequestAlertException numberUsed() {
+        return new BadRequestAlertException("Issue number already used", ENTITY_NAME, "numberexists");
+    }
 }
@@ -0,0 +1,65 @@
+package com.triippztech.web.rest;
+
+import com.triippztech.service.IssueReportService;
+import com.triippztech.service.dto.IssueCriteria;
+import com.triippztech.service.dto.IssueReportDTO;
+import com.triippztech.service.dto.IssueReportDimension;
+import com.triippztech.web.rest.errors.BadRequestAlertException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * REST controller for getting aggregate reports.
+ */
+@RestController
+@RequestMapping("/api/reports")
+public class ReportResource {
+
+    private final Logger log = LoggerFactory.getLogger(ReportResource.class);
+
+    private static final String ENTITY_NAME = "issue";
+
+    private final IssueReportService issueReportService;
+
+    public ReportResource(IssueReportService issueReportService) {
+        this.issueReportService = issueReportService;
+    }
+
+    /**
+     * {@code GET  /reports/issues?groupBy=:dimensions} : count the issues matching the criteria, per group.
+     * <p>
+     * The dimensions are {@code priority}, {@code resolution}, {@code reviewer}, {@code user}, and {@code week} or
+     * {@code month} of the reported date; the report has a column per dimension then a {@code count} column.
+     *
+     * @param criteria the criteria which the counted issues should match.
+     * @param groupBy the dimensions of the groups, or none to only count the matching issues.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the report in body,
+     * or with status {@code 400 (Bad Request)} if a dimension is unknown.
+     */
+    @GetMapping("/issues")
+    public ResponseEntity<IssueReportDTO> getIssueReport(IssueCriteria criteria,
+                                                         @RequestParam(required = false) List<String> groupBy) {
+        log.debug("REST request to get an Issue report by criteria: {}, grouped by: {}", criteria, groupBy);
+        List<IssueReportDimension> dimensions = new ArrayList<>();
+        if (groupBy != null) {
+            for (String column : groupBy) {
+                IssueReportDimension dimension;
+                try {
+                    dimension = IssueReportDimension.fromColumn(column);
+                } catch (IllegalArgumentException e) {
+                    throw new BadRequestAlertException("Unknown group by dimension: " + column, ENTITY_NAME, "groupbyinvalid");
+                }
+                if (!dimensions.contains(dimension)) {
+                    dimensions.add(dimension);
+                }
+            }
+        }
+        return ResponseEntity.ok().body(issueReportService.report(criteria, dimensions));
+    }
+}
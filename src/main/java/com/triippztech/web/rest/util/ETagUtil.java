@@ -0,0 +1,45 @@
+package com.triippztech.web.rest.util;
+
+import java.util.Optional;
+
+/**
+ * Utility class for the entity tags of the versioned entities, which are their version.
+ * <p>
+ * {@code GET} responses carrying an entity tag are answered with {@code 304 (Not Modified)} by Spring MVC when the
+ * request has a matching {@code If-None-Match} header; updates are made conditional with {@code If-Match}.
+ */
+public final class ETagUtil {
+
+    private ETagUtil() {
+    }
+
+    /**
+     * @param version the version of an entity.
+     * @return the strong entity tag of this version.
+     */
+    public static String eTag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Parse the version required by an {@code If-Match} header.
+     *
+     * @param ifMatch the header value, or {@code null}.
+     * @return the version, or empty if the header is absent or {@code *}.
+     * @throws IllegalArgumentException if the header is not a single entity tag of a version, which never matches.
+     */
+    public static Optional<Long> parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return Optional.empty();
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new IllegalArgumentException("Invalid If-Match header: " + ifMatch);
+        }
+        try {
+            return Optional.of(Long.valueOf(tag.substring(1, tag.length() - 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid If-Match header: " + ifMatch, e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.triippztech.web.rest.util;
+
+import com.triippztech.config.ReferencesModule;
+import com.triippztech.web.rest.CommentResource;
+import com.triippztech.web.rest.IssueResource;
+import com.triippztech.web.rest.UserResource;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Expands the associations named by the {@code expand} request parameter in the JSON responses, as in
+ * {@code ?expand=issue,user}; the other associations are written as references by the {@link ReferencesModule}.
+ * <p>
+ * Names which are not associations of the returned entities are ignored.
+ */
+@ControllerAdvice(assignableTypes = {IssueResource.class, CommentResource.class, UserResource.class})
+public class ExpandResponseBodyAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    public static final String EXPAND_PARAMETER = "expand";
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest)) {
+            return;
+        }
+        String[] values = ((ServletServerHttpRequest) request).getServletRequest().getParameterValues(EXPAND_PARAMETER);
+        if (values == null) {
+            return;
+        }
+        Set<String> expand = new HashSet<>();
+        for (String value : values) {
+            for (String name : StringUtils.commaDelimitedListToStringArray(value)) {
+                expand.add(name.trim());
+            }
+        }
+        bodyContainer.setFilters(ReferencesModule.filters(expand));
+    }
+}
@@ -113,7 +113,6 @@ export class IssueUpdate extends React.Component<IIssueUpdateProps, IIssueUpdate
                     className="form-control"
                     name="number"
                     validate={{
-                      required: { value: true, errorMessage: 'This field is required.' },
                       number: { value: true, errorMessage: 'This field should be a number.' }
                     }}
                   />
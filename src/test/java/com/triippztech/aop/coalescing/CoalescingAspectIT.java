@@ -0,0 +1,174 @@
+package com.triippztech.aop.coalescing;
+
+import com.triippztech.IssueTrackerApp;
+import com.triippztech.domain.Issue;
+import com.triippztech.service.IssueService;
+import com.triippztech.service.dto.IssueCriteria;
+
+import io.github.jhipster.service.filter.LongFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration tests for the {@link CoalescingAspect}.
+ */
+@SpringBootTest(classes = IssueTrackerApp.class)
+public class CoalescingAspectIT {
+
+    private static final int CALLERS = 4;
+
+    @Autowired
+    private CoalescingAspect coalescingAspect;
+
+    @Autowired
+    private IssueService issueService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void concurrentIdenticalCallsShareOneExecution() throws Exception {
+        SlowCounter target = new SlowCounter();
+        SlowCounter counter = proxy(target);
+        long shared = count("SlowCounter", "count", "shared");
+
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                // Same criteria, with the in list in another order
+                List<Long> ids = i % 2 == 0 ? Arrays.asList(1L, 2L) : Arrays.asList(2L, 1L);
+                results.add(executor.submit(() -> counter.count(criteria(ids))));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (count("SlowCounter", "count", "shared") < shared + CALLERS - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            target.release.countDown();
+
+            for (Future<Long> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo(1L);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(target.executions.get()).isEqualTo(1);
+        assertThat(count("SlowCounter", "count", "shared")).isEqualTo(shared + CALLERS - 1);
+    }
+
+    @Test
+    public void sequentialCallsAreExecuted() throws Exception {
+        SlowCounter target = new SlowCounter();
+        target.release.countDown();
+        SlowCounter counter = proxy(target);
+
+        assertThat(counter.count(criteria(Arrays.asList(1L, 2L)))).isEqualTo(1L);
+        assertThat(counter.count(criteria(Arrays.asList(1L, 2L)))).isEqualTo(2L);
+    }
+
+    @Test
+    public void waitingCallsExecuteAfterTheTimeout() throws Exception {
+        SlowCounter target = new SlowCounter();
+        SlowCounter counter = proxy(target, new CoalescingAspect(meterRegistry, 100));
+        long timedOut = count("SlowCounter", "count", "timed-out");
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Long> first = executor.submit(() -> counter.count(criteria(Arrays.asList(1L, 2L))));
+            awaitExecutions(target, 1);
+            Future<Long> second = executor.submit(() -> counter.count(criteria(Arrays.asList(1L, 2L))));
+            // The second call gave up waiting for the first one, still running, and executed the method itself
+            awaitExecutions(target, 2);
+            target.release.countDown();
+
+            assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo(1L);
+            assertThat(second.get(10, TimeUnit.SECONDS)).isEqualTo(2L);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(count("SlowCounter", "count", "timed-out")).isEqualTo(timedOut + 1);
+    }
+
+    @Test
+    public void coalescesServiceCallsOutsideOfTransactions() {
+        long executed = count("IssueService", "findAllOpenIssues", "executed");
+
+        List<Issue> openIssues = issueService.findAllOpenIssues();
+        assertThat(count("IssueService", "findAllOpenIssues", "executed")).isEqualTo(executed + 1);
+        // Shared between the callers
+        assertThatThrownBy(() -> openIssues.add(new Issue())).isInstanceOf(UnsupportedOperationException.class);
+
+        // Calls within a transaction are not advised
+        transactionTemplate.execute(status -> issueService.findAllOpenIssues());
+        assertThat(count("IssueService", "findAllOpenIssues", "executed")).isEqualTo(executed + 1);
+    }
+
+    private SlowCounter proxy(SlowCounter target) {
+        return proxy(target, coalescingAspect);
+    }
+
+    private static SlowCounter proxy(SlowCounter target, CoalescingAspect aspect) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        return factory.getProxy();
+    }
+
+    private static void awaitExecutions(SlowCounter target, int executions) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (target.executions.get() < executions && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(target.executions.get()).isEqualTo(executions);
+    }
+
+    private static IssueCriteria criteria(List<Long> ids) {
+        IssueCriteria criteria = new IssueCriteria();
+        LongFilter id = new LongFilter();
+        id.setIn(ids);
+        criteria.setId(id);
+        return criteria;
+    }
+
+    private long count(String type, String method, String result) {
+        Counter counter = meterRegistry.find(CoalescingAspect.METRIC_NAME)
+            .tag("class", type).tag("method", method).tag("result", result)
+            .counter();
+        return counter == null ? 0 : (long) counter.count();
+    }
+
+    public static class SlowCounter {
+
+        private final AtomicInteger executions = new AtomicInteger();
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Coalesced
+        public long count(IssueCriteria criteria) throws InterruptedException {
+            int execution = executions.incrementAndGet();
+            release.await(10, TimeUnit.SECONDS);
+            return execution;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.triippztech.aop.metrics;
+
+import com.triippztech.IssueTrackerApp;
+import com.triippztech.service.IssueService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration tests for the {@link MetricsAspect}.
+ */
+@SpringBootTest(classes = IssueTrackerApp.class)
+@Transactional
+public class MetricsAspectIT {
+
+    @Autowired
+    private IssueService issueService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void timesServiceAndRepositoryMethods() {
+        long serviceCount = count("IssueService", "findOne", "success", "none");
+        long repositoryCount = count("IssueRepository", "findById", "success", "none");
+
+        issueService.findOne(Long.MAX_VALUE);
+
+        assertThat(count("IssueService", "findOne", "success", "none")).isEqualTo(serviceCount + 1);
+        // Inherited from Spring Data, reported under the application repository
+        assertThat(count("IssueRepository", "findById", "success", "none")).isEqualTo(repositoryCount + 1);
+    }
+
+    @Test
+    public void tagsTheExceptionOfFailedMethods() {
+        long count = count("IssueService", "delete", "error", "EmptyResultDataAccessException");
+
+        assertThatThrownBy(() -> issueService.delete(Long.MAX_VALUE)).isInstanceOf(EmptyResultDataAccessException.class);
+
+        assertThat(count("IssueService", "delete", "error", "EmptyResultDataAccessException")).isEqualTo(count + 1);
+    }
+
+    private long count(String type, String method, String outcome, String exception) {
+        Timer timer = meterRegistry.find(MetricsAspect.METRIC_NAME)
+            .tag("class", type).tag("method", method).tag("outcome", outcome).tag("exception", exception)
+            .timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
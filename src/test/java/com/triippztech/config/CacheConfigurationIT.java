@@ -0,0 +1,101 @@
+package com.triippztech.config;
+
+import com.triippztech.IssueTrackerApp;
+import com.triippztech.domain.Authority;
+import com.triippztech.domain.Issue;
+
+import io.github.jhipster.config.JHipsterProperties;
+import org.ehcache.config.CacheRuntimeConfiguration;
+import org.ehcache.config.ResourcePools;
+import org.ehcache.config.ResourceType;
+import org.ehcache.config.SizedResourcePool;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import javax.cache.CacheManager;
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the per region sizing of {@link CacheConfiguration}.
+ */
+@SpringBootTest(classes = IssueTrackerApp.class)
+public class CacheConfigurationIT {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    public void configuredRegionHasItsOwnTiers() {
+        ResourcePools pools = resourcePools(Issue.class.getName());
+
+        SizedResourcePool heap = pools.getPoolForResource(ResourceType.Core.HEAP);
+        assertThat(heap.getSize()).isEqualTo(200);
+        assertThat(heap.getUnit()).isEqualTo(EntryUnit.ENTRIES);
+        SizedResourcePool offHeap = pools.getPoolForResource(ResourceType.Core.OFFHEAP);
+        assertThat(MemoryUnit.B.toBytes(offHeap.getSize())).isEqualTo(MemoryUnit.MB.toBytes(2));
+        assertThat(pools.getPoolForResource(ResourceType.Core.DISK)).isNull();
+    }
+
+    @Test
+    public void otherRegionsUseTheDefaultSizing() {
+        ResourcePools pools = resourcePools(Authority.class.getName());
+
+        assertThat(pools.getResourceTypeSet()).containsExactly(ResourceType.Core.HEAP);
+    }
+
+    @Test
+    public void diskDirectoryEnablesTheDiskTier() throws Exception {
+        File diskDirectory = Files.createTempDirectory("cache").toFile();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getCache().setDiskDirectory(diskDirectory.getPath());
+        ApplicationProperties.Cache.Region region = new ApplicationProperties.Cache.Region();
+        region.setHeapEntries(10L);
+        region.setOffHeap(DataSize.ofMegabytes(1));
+        region.setDisk(DataSize.ofMegabytes(2));
+        applicationProperties.getCache().getRegions().put(Issue.class.getName(), region);
+        CacheConfiguration cacheConfiguration = new CacheConfiguration(new JHipsterProperties(), applicationProperties);
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("cacheManagerCustomizer", cacheConfiguration.cacheManagerCustomizer());
+
+        CacheManager diskCacheManager = cacheConfiguration.jCacheCacheManager(beanFactory.getBeanProvider(JCacheManagerCustomizer.class));
+        try {
+            ResourcePools pools = resourcePools(diskCacheManager, Issue.class.getName());
+            SizedResourcePool disk = pools.getPoolForResource(ResourceType.Core.DISK);
+            assertThat(MemoryUnit.B.toBytes(disk.getSize())).isEqualTo(MemoryUnit.MB.toBytes(2));
+            assertThat(disk.isPersistent()).isFalse();
+            // The customizers created the other regions with the default sizing
+            assertThat(resourcePools(diskCacheManager, Authority.class.getName()).getResourceTypeSet())
+                .containsExactly(ResourceType.Core.HEAP);
+
+            javax.cache.Cache<Object, Object> cache = diskCacheManager.getCache(Issue.class.getName());
+            cache.put(1L, "issue");
+            assertThat(cache.get(1L)).isEqualTo("issue");
+            assertThat(diskDirectory.list()).isNotEmpty();
+        } finally {
+            diskCacheManager.close();
+            FileSystemUtils.deleteRecursively(diskDirectory);
+        }
+    }
+
+    private ResourcePools resourcePools(String cacheName) {
+        return resourcePools(cacheManager, cacheName);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ResourcePools resourcePools(CacheManager cacheManager, String cacheName) {
+        Eh107Configuration<Object, Object> configuration = cacheManager.getCache(cacheName).getConfiguration(Eh107Configuration.class);
+        CacheRuntimeConfiguration<Object, Object> runtimeConfiguration = configuration.unwrap(CacheRuntimeConfiguration.class);
+        return runtimeConfiguration.getResourcePools();
+    }
+}
@@ -0,0 +1,139 @@
+package com.triippztech.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Unit tests for the {@link ReplicaRoutingDataSource} class, with two PostgreSQL-compatible H2 databases standing
+ * for the primary and its replica.
+ */
+public class ReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+
+    private DataSource replica;
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    public void setup() {
+        primary = createDatabase("primary");
+        replica = spy(createDatabase("replica"));
+        new JdbcTemplate(replica).execute("create table replica_lag (lag_ms bigint)");
+        setLag(0);
+
+        ApplicationProperties.ReadReplicas properties = new ApplicationProperties.ReadReplicas();
+        properties.setMaxLagMs(1000);
+        properties.setLagQuery("select lag_ms from replica_lag");
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica", replica);
+        routingDataSource = new ReplicaRoutingDataSource(primary, replicas, properties);
+        routingDataSource.checkReplicas();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        routingDataSource.close();
+        new JdbcTemplate(primary).execute("drop all objects");
+        new JdbcTemplate(replica).execute("drop all objects");
+    }
+
+    @Test
+    public void readOnlyTransactionsUseTheReplica() {
+        assertThat(readNode(true)).isEqualTo("replica");
+    }
+
+    @Test
+    public void readWriteTransactionsUseThePrimary() {
+        assertThat(readNode(false)).isEqualTo("primary");
+        assertThat(jdbcTemplate.queryForObject("select name from node", String.class)).isEqualTo("primary");
+    }
+
+    @Test
+    public void laggingReplicaIsSkipped() {
+        setLag(5000);
+        routingDataSource.checkReplicas();
+
+        assertThat(readNode(true)).isEqualTo("primary");
+
+        setLag(10);
+        routingDataSource.checkReplicas();
+
+        assertThat(readNode(true)).isEqualTo("replica");
+    }
+
+    @Test
+    public void failingReplicaIsSkipped() throws SQLException {
+        doThrow(new SQLException("Connection refused")).when(replica).getConnection();
+
+        assertThat(readNode(true)).isEqualTo("primary");
+
+        doCallRealMethod().when(replica).getConnection();
+
+        // Only used again once checked
+        assertThat(readNode(true)).isEqualTo("primary");
+        routingDataSource.checkReplicas();
+        assertThat(readNode(true)).isEqualTo("replica");
+    }
+
+    @Test
+    public void tellsWhetherTheTransactionUsesAReplica() {
+        assertThat(readsOnReplica(true)).isTrue();
+        assertThat(ReplicaRoutingDataSource.isCurrentTransactionOnReplica()).isFalse();
+
+        assertThat(readsOnReplica(false)).isFalse();
+    }
+
+    private String readNode(boolean readOnly) {
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("select name from node", String.class));
+    }
+
+    private boolean readsOnReplica(boolean readOnly) {
+        transactionTemplate.setReadOnly(readOnly);
+        Boolean onReplica = transactionTemplate.execute(status -> {
+            jdbcTemplate.queryForObject("select name from node", String.class);
+            return ReplicaRoutingDataSource.isCurrentTransactionOnReplica();
+        });
+        return Boolean.TRUE.equals(onReplica);
+    }
+
+    private void setLag(long lagMs) {
+        JdbcTemplate replicaTemplate = new JdbcTemplate(replica);
+        replicaTemplate.update("delete from replica_lag");
+        replicaTemplate.update("insert into replica_lag (lag_ms) values (?)", lagMs);
+    }
+
+    private static DataSource createDatabase(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:routing-" + name + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("create table node (name varchar(20))");
+        template.update("insert into node (name) values (?)", name);
+        return dataSource;
+    }
+}
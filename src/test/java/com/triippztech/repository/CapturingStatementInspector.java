@@ -0,0 +1,43 @@
+package com.triippztech.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the SQL statements prepared by Hibernate on the current thread while {@link #capture(Runnable)} runs.
+ * <p>
+ * Registered for all the tests by the {@code hibernate.session_factory.statement_inspector} property; it records
+ * nothing outside of {@link #capture(Runnable)}.
+ */
+public class CapturingStatementInspector implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> captured = new ThreadLocal<>();
+
+    /**
+     * Run an action and return the SQL statements which Hibernate prepared for it.
+     *
+     * @param action the action, which must run on the current thread.
+     * @return the statements, in the order they were prepared.
+     */
+    public static List<String> capture(Runnable action) {
+        List<String> statements = new ArrayList<>();
+        captured.set(statements);
+        try {
+            action.run();
+        } finally {
+            captured.remove();
+        }
+        return statements;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> statements = captured.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+}
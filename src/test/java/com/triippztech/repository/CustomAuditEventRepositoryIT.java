@@ -1,9 +1,12 @@
 package com.triippztech.repository;
 
 import com.triippztech.IssueTrackerApp;
+import com.triippztech.config.ApplicationProperties;
 import com.triippztech.config.Constants;
 import com.triippztech.config.audit.AuditEventConverter;
 import com.triippztech.domain.PersistentAuditEvent;
+import com.triippztech.domain.PersistentAuditEventCount;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,10 +15,12 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpSession;
 import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.servlet.http.HttpSession;
 import java.time.Instant;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.List;
@@ -34,9 +39,19 @@ public class CustomAuditEventRepositoryIT {
     @Autowired
     private PersistenceAuditEventRepository persistenceAuditEventRepository;
 
+    @Autowired
+    private PersistentAuditEventCountRepository persistentAuditEventCountRepository;
+
     @Autowired
     private AuditEventConverter auditEventConverter;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ApplicationProperties applicationProperties;
+
+    private PersistentAuditEventWriter persistentAuditEventWriter;
+
     private CustomAuditEventRepository customAuditEventRepository;
 
     private PersistentAuditEvent testUserEvent;
@@ -47,7 +62,13 @@ public class CustomAuditEventRepositoryIT {
 
     @BeforeEach
     public void setup() {
-        customAuditEventRepository = new CustomAuditEventRepository(persistenceAuditEventRepository, auditEventConverter);
+        // Not started: the events stay queued until flushed, in the test transaction
+        applicationProperties = new ApplicationProperties();
+        persistentAuditEventWriter = new PersistentAuditEventWriter(persistenceAuditEventRepository,
+            persistentAuditEventCountRepository, transactionManager,
+            applicationProperties, new SimpleMeterRegistry());
+        customAuditEventRepository = new CustomAuditEventRepository(persistenceAuditEventRepository, auditEventConverter,
+            persistentAuditEventWriter);
         persistenceAuditEventRepository.deleteAll();
         Instant oneHourAgo = Instant.now().minusSeconds(3600);
 
@@ -76,6 +97,7 @@ public class CustomAuditEventRepositoryIT {
         data.put("test-key", "test-value");
         AuditEvent event = new AuditEvent("test-user", "test-type", data);
         customAuditEventRepository.add(event);
+        persistentAuditEventWriter.flush();
         List<PersistentAuditEvent> persistentAuditEvents = persistenceAuditEventRepository.findAll();
         assertThat(persistentAuditEvents).hasSize(1);
         PersistentAuditEvent persistentAuditEvent = persistentAuditEvents.get(0);
@@ -97,6 +119,7 @@ public class CustomAuditEventRepositoryIT {
         data.put("test-key", largeData);
         AuditEvent event = new AuditEvent("test-user", "test-type", data);
         customAuditEventRepository.add(event);
+        persistentAuditEventWriter.flush();
         List<PersistentAuditEvent> persistentAuditEvents = persistenceAuditEventRepository.findAll();
         assertThat(persistentAuditEvents).hasSize(1);
         PersistentAuditEvent persistentAuditEvent = persistentAuditEvents.get(0);
@@ -121,6 +144,7 @@ public class CustomAuditEventRepositoryIT {
         data.put("test-key", details);
         AuditEvent event = new AuditEvent("test-user", "test-type", data);
         customAuditEventRepository.add(event);
+        persistentAuditEventWriter.flush();
         List<PersistentAuditEvent> persistentAuditEvents = persistenceAuditEventRepository.findAll();
         assertThat(persistentAuditEvents).hasSize(1);
         PersistentAuditEvent persistentAuditEvent = persistentAuditEvents.get(0);
@@ -134,6 +158,7 @@ public class CustomAuditEventRepositoryIT {
         data.put("test-key", null);
         AuditEvent event = new AuditEvent("test-user", "test-type", data);
         customAuditEventRepository.add(event);
+        persistentAuditEventWriter.flush();
         List<PersistentAuditEvent> persistentAuditEvents = persistenceAuditEventRepository.findAll();
         assertThat(persistentAuditEvents).hasSize(1);
         PersistentAuditEvent persistentAuditEvent = persistentAuditEvents.get(0);
@@ -146,6 +171,7 @@ public class CustomAuditEventRepositoryIT {
         data.put("test-key", "test-value");
         AuditEvent event = new AuditEvent(Constants.ANONYMOUS_USER, "test-type", data);
         customAuditEventRepository.add(event);
+        persistentAuditEventWriter.flush();
         List<PersistentAuditEvent> persistentAuditEvents = persistenceAuditEventRepository.findAll();
         assertThat(persistentAuditEvents).hasSize(0);
     }
@@ -156,8 +182,55 @@ public class CustomAuditEventRepositoryIT {
         data.put("test-key", "test-value");
         AuditEvent event = new AuditEvent("test-user", "AUTHORIZATION_FAILURE", data);
         customAuditEventRepository.add(event);
+        persistentAuditEventWriter.flush();
         List<PersistentAuditEvent> persistentAuditEvents = persistenceAuditEventRepository.findAll();
         assertThat(persistentAuditEvents).hasSize(0);
     }
 
+    @Test
+    public void addAuditEventIsWrittenInBatches() {
+        for (int i = 0; i < 3; i++) {
+            customAuditEventRepository.add(new AuditEvent("test-user", "test-type-" + i, new HashMap<>()));
+        }
+        assertThat(persistenceAuditEventRepository.findAll()).isEmpty();
+
+        persistentAuditEventWriter.flush();
+        assertThat(persistenceAuditEventRepository.findAll()).extracting(PersistentAuditEvent::getAuditEventType)
+            .containsExactlyInAnyOrder("test-type-0", "test-type-1", "test-type-2");
+    }
+
+    @Test
+    public void addAuditEventUpdatesTheDailyCount() {
+        AuditEvent event = new AuditEvent("test-user", "test-type", new HashMap<>());
+        PersistentAuditEventCount.Key key = new PersistentAuditEventCount.Key(
+            event.getTimestamp().atOffset(ZoneOffset.UTC).toLocalDate(), "test-user", "test-type");
+        long before = persistentAuditEventCountRepository.findById(key).map(PersistentAuditEventCount::getCount).orElse(0L);
+
+        customAuditEventRepository.add(event);
+        customAuditEventRepository.add(new AuditEvent(event.getTimestamp(), "test-user", "test-type", new HashMap<>()));
+        persistentAuditEventWriter.flush();
+        customAuditEventRepository.add(new AuditEvent(event.getTimestamp(), "test-user", "test-type", new HashMap<>()));
+        persistentAuditEventWriter.flush();
+
+        assertThat(persistentAuditEventCountRepository.findById(key)).get()
+            .extracting(PersistentAuditEventCount::getCount).isEqualTo(before + 3);
+    }
+
+    @Test
+    public void addAuditEventDroppedWhenTheQueueIsFull() {
+        applicationProperties.getAudit().setQueueCapacity(1);
+        applicationProperties.getAudit().setOverflowPolicy(ApplicationProperties.Audit.OverflowPolicy.DROP);
+        persistentAuditEventWriter = new PersistentAuditEventWriter(persistenceAuditEventRepository,
+            persistentAuditEventCountRepository, transactionManager,
+            applicationProperties, new SimpleMeterRegistry());
+        customAuditEventRepository = new CustomAuditEventRepository(persistenceAuditEventRepository, auditEventConverter,
+            persistentAuditEventWriter);
+
+        customAuditEventRepository.add(new AuditEvent("test-user", "test-type", new HashMap<>()));
+        customAuditEventRepository.add(new AuditEvent("test-user", "dropped-type", new HashMap<>()));
+        persistentAuditEventWriter.flush();
+
+        assertThat(persistenceAuditEventRepository.findAll()).extracting(PersistentAuditEvent::getAuditEventType)
+            .containsExactly("test-type");
+    }
 }
@@ -0,0 +1,180 @@
+package com.triippztech.repository;
+
+import com.triippztech.IssueTrackerApp;
+import com.triippztech.domain.Issue_;
+import com.triippztech.domain.enumeration.Priority;
+import com.triippztech.service.CommentService;
+import com.triippztech.service.IssueQueryService;
+import com.triippztech.service.IssueService;
+import com.triippztech.service.dto.IssueCriteria;
+import com.triippztech.web.rest.IssueResourceIT;
+
+import io.github.jhipster.service.filter.InstantFilter;
+import io.github.jhipster.service.filter.LongFilter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests checking that the Issue and Comment filter paths are served by an index.
+ * <p>
+ * The statements explained are those which Hibernate generates for the services, captured by the
+ * {@link CapturingStatementInspector}, with a representative value bound to each parameter.
+ * <p>
+ * Runs against the configured test database: H2 by default, or PostgreSQL when the
+ * {@code spring.datasource.*} properties point to one.
+ */
+@SpringBootTest(classes = IssueTrackerApp.class)
+@Transactional
+public class IssueIndexIT {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private IssueService issueService;
+
+    @Autowired
+    private IssueQueryService issueQueryService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private IssueRepository issueRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private boolean postgresql;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, "getDatabaseProductName").toString();
+        postgresql = "PostgreSQL".equalsIgnoreCase(product);
+        if (postgresql) {
+            // The test tables are tiny, so make the planner show whether an index is usable at all
+            jdbcTemplate.execute("set local enable_seqscan = off");
+        }
+    }
+
+    @Test
+    public void openIssuesUseIndex() {
+        assertIndexScans(() -> issueService.findAllOpenIssues());
+    }
+
+    @Test
+    public void reviewedIssuesUseIndex() {
+        assertIndexScans(() -> issueService.findAllReviewedIssues());
+    }
+
+    @Test
+    public void priorityFilterUsesIndex() {
+        IssueCriteria.PriorityFilter priority = new IssueCriteria.PriorityFilter();
+        priority.setEquals(Priority.SHOWSTOPPER);
+        IssueCriteria criteria = new IssueCriteria();
+        criteria.setPriority(priority);
+        assertIndexScans(() -> issueQueryService.findByCriteria(criteria));
+    }
+
+    @Test
+    public void prioritySortUsesIndex() {
+        assertIndexScans(() -> issueQueryService.findByCriteria(new IssueCriteria(), Sort.by(Issue_.PRIORITY)));
+    }
+
+    @Test
+    public void reportedDateFilterUsesIndex() {
+        InstantFilter reportedDate = new InstantFilter();
+        reportedDate.setGreaterOrEqualThan(Instant.parse("2019-06-03T00:00:00Z"));
+        IssueCriteria criteria = new IssueCriteria();
+        criteria.setReportedDate(reportedDate);
+        assertIndexScans(() -> issueQueryService.findByCriteria(criteria));
+    }
+
+    @Test
+    public void userFilterUsesIndex() {
+        LongFilter userId = new LongFilter();
+        userId.setEquals(1L);
+        IssueCriteria criteria = new IssueCriteria();
+        criteria.setUserId(userId);
+        assertIndexScans(() -> issueQueryService.findByCriteria(criteria));
+    }
+
+    @Test
+    public void reviewerFilterUsesIndex() {
+        LongFilter reviewerId = new LongFilter();
+        reviewerId.setEquals(1L);
+        IssueCriteria criteria = new IssueCriteria();
+        criteria.setReviewerId(reviewerId);
+        assertIndexScans(() -> issueQueryService.findByCriteria(criteria));
+    }
+
+    @Test
+    public void issueCommentsUseIndex() {
+        Long issueId = issueRepository.saveAndFlush(IssueResourceIT.createEntity(em)).getId();
+        assertIndexScans(() -> commentService.findAllByIssue(issueId, null, 20));
+    }
+
+    private void assertIndexScans(Runnable action) {
+        List<String> statements = CapturingStatementInspector.capture(action);
+        assertThat(statements).isNotEmpty();
+        for (String sql : statements) {
+            assertIndexScan(sql);
+        }
+    }
+
+    private void assertIndexScan(String sql) {
+        List<String> plan = jdbcTemplate.query("explain " + sql, this::bindRepresentativeValues,
+            (resultSet, row) -> resultSet.getString(1));
+        String text = String.join("\n", plan).toLowerCase();
+        if (postgresql) {
+            assertThat(text).as("plan of %s", sql).contains("index").doesNotContain("seq scan");
+        } else {
+            // H2 names the index it picked in a comment, or reports a tableScan
+            assertThat(text).as("plan of %s", sql).doesNotContain("tablescan");
+        }
+    }
+
+    /**
+     * Bind a non-null value of the type of each parameter, so that the plan is the one of an actual query.
+     */
+    private void bindRepresentativeValues(PreparedStatement statement) throws SQLException {
+        ParameterMetaData parameters = statement.getParameterMetaData();
+        for (int i = 1; i <= parameters.getParameterCount(); i++) {
+            switch (parameters.getParameterType(i)) {
+                case Types.TIMESTAMP:
+                case Types.TIMESTAMP_WITH_TIMEZONE:
+                    statement.setTimestamp(i, Timestamp.from(Instant.parse("2019-06-03T00:00:00Z")));
+                    break;
+                case Types.CHAR:
+                case Types.VARCHAR:
+                case Types.CLOB:
+                    statement.setString(i, "1");
+                    break;
+                default:
+                    statement.setInt(i, 1);
+            }
+        }
+    }
+}
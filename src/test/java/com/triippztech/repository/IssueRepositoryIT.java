@@ -0,0 +1,149 @@
+package com.triippztech.repository;
+
+import com.triippztech.IssueTrackerApp;
+import com.triippztech.domain.Comment;
+import com.triippztech.domain.Issue;
+import com.triippztech.domain.User;
+import com.triippztech.domain.enumeration.Resolution;
+import com.triippztech.service.CommentService;
+import com.triippztech.service.IssueQueryService;
+import com.triippztech.service.IssueService;
+import com.triippztech.service.dto.BatchResultDTO;
+import com.triippztech.service.dto.IssueCriteria;
+import com.triippztech.service.dto.IssueSummary;
+import com.triippztech.web.rest.CommentResourceIT;
+import com.triippztech.web.rest.IssueResourceIT;
+import com.triippztech.web.rest.UserResourceIT;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests checking that the {@link IssueRepository} list queries do not load associations one row at a time.
+ */
+@SpringBootTest(classes = IssueTrackerApp.class)
+@Transactional
+public class IssueRepositoryIT {
+
+    private static final int ISSUE_COUNT = 5;
+
+    @Autowired
+    private IssueRepository issueRepository;
+
+    @Autowired
+    private IssueQueryService issueQueryService;
+
+    @Autowired
+    private IssueService issueService;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager em;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setup() {
+        for (int i = 0; i < ISSUE_COUNT; i++) {
+            User user = UserResourceIT.createEntity(em);
+            em.persist(user);
+            Issue issue = IssueResourceIT.createEntity(em).number(i + 1).resolution(Resolution.NEW);
+            issue.setUser(user);
+            em.persist(issue);
+            Comment comment = CommentResourceIT.createEntity(em);
+            comment.setIssue(issue);
+            em.persist(comment);
+            // Persisted without CommentService, which maintains the issue activity
+            issueRepository.addComment(issue.getId(), comment.getDate());
+        }
+        em.flush();
+        em.clear();
+
+        statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    public void findByCriteriaUsesOneStatement() throws Exception {
+        List<Issue> issues = issueQueryService.findByCriteria(new IssueCriteria());
+        objectMapper.writeValueAsString(issues);
+
+        assertThat(issues).hasSize(ISSUE_COUNT);
+        assertThat(issues).allSatisfy(issue -> assertThat(issue.getUser()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void findAllByResolutionUsesOneStatement() throws Exception {
+        List<Issue> issues = issueRepository.findAllByResolution(Resolution.NEW);
+        objectMapper.writeValueAsString(issues);
+
+        assertThat(issues).hasSize(ISSUE_COUNT);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void findAllIssuesByIdUsesOneStatement() throws Exception {
+        List<Long> ids = issueRepository.findAll().stream().map(Issue::getId).collect(Collectors.toList());
+        em.clear();
+        statistics.clear();
+
+        BatchResultDTO<Issue> result = issueService.findAllById(ids);
+        objectMapper.writeValueAsString(result);
+
+        assertThat(result.getItems()).hasSize(ISSUE_COUNT);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void findAllCommentsByIdUsesOneStatement() throws Exception {
+        List<Long> ids = commentRepository.findAll().stream().map(Comment::getId).collect(Collectors.toList());
+        em.clear();
+        statistics.clear();
+
+        BatchResultDTO<Comment> result = commentService.findAllById(ids);
+        objectMapper.writeValueAsString(result);
+
+        assertThat(result.getItems()).hasSize(ISSUE_COUNT).allSatisfy(comment -> assertThat(comment.getIssue()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void findAllSummariesByResolutionUsesOneStatement() {
+        List<IssueSummary> summaries = issueRepository.findAllSummariesByResolution(Resolution.NEW);
+
+        assertThat(summaries).hasSize(ISSUE_COUNT);
+        assertThat(summaries).allSatisfy(summary -> {
+            assertThat(summary.getUserLogin()).isNotNull();
+            assertThat(summary.getCommentCount()).isEqualTo(1);
+        });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,127 @@
+package com.triippztech.service;
+
+import com.triippztech.IssueTrackerApp;
+import com.triippztech.config.ApplicationProperties;
+import com.triippztech.domain.PersistentAuditEvent;
+import com.triippztech.repository.PersistenceAuditEventRepository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.FileSystemUtils;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link AuditEventRetentionService}.
+ */
+@SpringBootTest(classes = IssueTrackerApp.class)
+@Transactional
+public class AuditEventRetentionServiceIT {
+
+    @Autowired
+    private PersistenceAuditEventRepository persistenceAuditEventRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Path archiveDirectory;
+
+    private AuditEventRetentionService auditEventRetentionService;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        archiveDirectory = Files.createTempDirectory("audit-archive");
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getAudit().setArchiveDirectory(archiveDirectory.toString());
+        auditEventRetentionService = new AuditEventRetentionService(dataSource, transactionManager, objectMapper,
+            applicationProperties);
+        persistenceAuditEventRepository.deleteAll();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        FileSystemUtils.deleteRecursively(archiveDirectory);
+    }
+
+    @Test
+    public void purgeArchivesThenDeletesTheExpiredMonths() throws Exception {
+        createEvent("2015-07-31T23:59:59Z", "old-user", Collections.singletonMap("remoteAddress", "1.2.3.4"));
+        createEvent("2015-08-04T10:11:30Z", "old-user", Collections.emptyMap());
+        createEvent("2015-09-01T00:00:00Z", "kept-user", Collections.emptyMap());
+        persistenceAuditEventRepository.flush();
+
+        assertThat(auditEventRetentionService.purge(YearMonth.of(2015, 9))).isEqualTo(2);
+
+        assertThat(persistenceAuditEventRepository.findAll()).extracting(PersistentAuditEvent::getPrincipal)
+            .containsExactly("kept-user");
+        List<JsonNode> july = readArchive("audit-events-2015-07.ndjson.gz");
+        assertThat(july).hasSize(1);
+        assertThat(july.get(0).get("principal").asText()).isEqualTo("old-user");
+        assertThat(july.get(0).get("date").asText()).isEqualTo("2015-07-31T23:59:59Z");
+        assertThat(july.get(0).get("type").asText()).isEqualTo("test-type");
+        assertThat(july.get(0).get("data").get("remoteAddress").asText()).isEqualTo("1.2.3.4");
+        assertThat(readArchive("audit-events-2015-08.ndjson.gz")).hasSize(1);
+        assertThat(Files.list(archiveDirectory).count()).isEqualTo(2);
+    }
+
+    @Test
+    public void purgeKeepsTheRetainedMonths() {
+        createEvent("2015-09-01T00:00:00Z", "kept-user", Collections.emptyMap());
+        persistenceAuditEventRepository.flush();
+
+        assertThat(auditEventRetentionService.purge(YearMonth.of(2015, 9))).isEqualTo(0);
+
+        assertThat(persistenceAuditEventRepository.count()).isEqualTo(1);
+        assertThat(archiveDirectory.toFile().list()).isEmpty();
+    }
+
+    private void createEvent(String date, String principal, Map<String, String> data) {
+        PersistentAuditEvent event = new PersistentAuditEvent();
+        event.setPrincipal(principal);
+        event.setAuditEventType("test-type");
+        event.setAuditEventDate(Instant.parse(date));
+        event.getData().putAll(data);
+        persistenceAuditEventRepository.save(event);
+    }
+
+    private List<JsonNode> readArchive(String name) throws Exception {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+            new GZIPInputStream(Files.newInputStream(archiveDirectory.resolve(name))), StandardCharsets.UTF_8))) {
+            return reader.lines().map(line -> {
+                try {
+                    return objectMapper.readTree(line);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }).collect(Collectors.toList());
+        }
+    }
+}
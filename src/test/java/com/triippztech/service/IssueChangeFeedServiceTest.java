@@ -0,0 +1,109 @@
+package com.triippztech.service;
+
+import com.triippztech.config.ApplicationProperties;
+import com.triippztech.domain.Issue;
+import com.triippztech.domain.enumeration.Priority;
+import com.triippztech.domain.enumeration.Resolution;
+import com.triippztech.repository.IssueRepository;
+import com.triippztech.service.dto.IssueCriteria;
+import com.triippztech.service.event.IssueChangedEvent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for the {@link IssueChangeFeedService} class.
+ */
+public class IssueChangeFeedServiceTest {
+
+    private static final int QUEUE_SIZE = 2;
+
+    private IssueChangeFeedService issueChangeFeedService;
+
+    @BeforeEach
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getIssueFeed().setQueueSize(QUEUE_SIZE);
+        issueChangeFeedService = new IssueChangeFeedService(mock(IssueRepository.class), applicationProperties);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        issueChangeFeedService.destroy();
+    }
+
+    @Test
+    public void slowSubscribersAreDisconnectedWithoutDelayingTheOthers() throws Exception {
+        TestEmitter slow = new TestEmitter();
+        TestEmitter fast = new TestEmitter();
+        fast.release.countDown();
+        issueChangeFeedService.subscribe(slow, new IssueCriteria(), null);
+        issueChangeFeedService.subscribe(fast, new IssueCriteria(), null);
+
+        publish(1L);
+        // Blocked in the write of the first change, as on a connection which does not read
+        assertThat(slow.sending.await(10, TimeUnit.SECONDS)).isTrue();
+        awaitSent(fast, 1);
+        for (long id = 2; id <= QUEUE_SIZE + 2; id++) {
+            publish(id);
+            awaitSent(fast, (int) id);
+        }
+
+        assertThat(slow.completed.getCount()).isEqualTo(1);
+        slow.release.countDown();
+        assertThat(slow.completed.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(slow.sent.get()).isEqualTo(1);
+        assertThat(fast.completed.getCount()).isEqualTo(1);
+    }
+
+    private void publish(Long id) {
+        Issue issue = new Issue().number(id.intValue()).priority(Priority.LOW).resolution(Resolution.NEW);
+        issue.setId(id);
+        issueChangeFeedService.onIssueChanged(IssueChangedEvent.created(issue));
+    }
+
+    private static void awaitSent(TestEmitter emitter, int events) throws InterruptedException {
+        for (int i = 0; i < 200 && emitter.sent.get() < events; i++) {
+            Thread.sleep(50);
+        }
+        assertThat(emitter.sent.get()).isEqualTo(events);
+    }
+
+    private static class TestEmitter extends SseEmitter {
+
+        private final CountDownLatch sending = new CountDownLatch(1);
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        private final AtomicInteger sent = new AtomicInteger();
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            sent.incrementAndGet();
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.triippztech.service;
+
+import com.triippztech.domain.Issue;
+import com.triippztech.domain.enumeration.Priority;
+import com.triippztech.domain.enumeration.Resolution;
+import com.triippztech.repository.IssueRepository;
+import com.triippztech.service.event.IssueChangedEvent;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the {@link IssueCounterService} class.
+ */
+public class IssueCounterServiceTest {
+
+    private IssueRepository issueRepository;
+
+    private IssueCounterService issueCounterService;
+
+    @BeforeEach
+    public void setup() {
+        issueRepository = mock(IssueRepository.class);
+        issueCounterService = new IssueCounterService(issueRepository);
+    }
+
+    @Test
+    public void keepsTheChangesCommittedWhileReconciling() {
+        when(issueRepository.countGroupedByPriorityAndResolution())
+            .thenReturn(Collections.singletonList(new Object[]{Priority.LOW, Resolution.NEW, 1L}));
+        issueCounterService.reconcile();
+
+        Issue issue = new Issue().priority(Priority.LOW).resolution(Resolution.NEW);
+        issue.setId(2L);
+        when(issueRepository.countGroupedByPriorityAndResolution()).thenAnswer(invocation -> {
+            // Committed after the query read the issues
+            issueCounterService.onIssueChanged(IssueChangedEvent.created(issue));
+            return Collections.singletonList(new Object[]{Priority.LOW, Resolution.NEW, 1L});
+        });
+        issueCounterService.reconcile();
+
+        assertThat(issueCounterService.count(null)).hasValue(2L);
+    }
+}
@@ -0,0 +1,161 @@
+package com.triippztech.service;
+
+import com.triippztech.IssueTrackerApp;
+import com.triippztech.domain.Issue;
+import com.triippztech.domain.enumeration.Priority;
+import com.triippztech.domain.enumeration.Resolution;
+import com.triippztech.service.dto.IssueCriteria;
+import com.triippztech.web.rest.IssueResourceIT;
+
+import io.github.jhipster.service.filter.LongFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.cache.CacheManager;
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link IssueCriteriaCache}.
+ * <p>
+ * Not transactional: the cache is only used from read-only transactions, and evicted after commit.
+ */
+@SpringBootTest(classes = IssueTrackerApp.class)
+public class IssueCriteriaCacheIT {
+
+    @Autowired
+    private IssueService issueService;
+
+    @Autowired
+    private IssueQueryService issueQueryService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManager em;
+
+    private final List<Long> createdIds = new ArrayList<>();
+
+    private IssueCriteria criteria;
+
+    @BeforeEach
+    public void setup() {
+        cacheManager.getCache(IssueCriteriaCache.ISSUES_BY_CRITERIA_CACHE).clear();
+        IssueCriteria.ResolutionFilter resolution = new IssueCriteria.ResolutionFilter();
+        resolution.setEquals(Resolution.REVIEWED);
+        criteria = new IssueCriteria();
+        criteria.setResolution(resolution);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        createdIds.forEach(issueService::delete);
+    }
+
+    @Test
+    public void countIsServedFromCacheUntilAMatchingIssueChanges() {
+        long before = issueQueryService.countByCriteria(criteria);
+        double hits = hits();
+
+        assertThat(issueQueryService.countByCriteria(criteria)).isEqualTo(before);
+        assertThat(hits()).isEqualTo(hits + 1);
+
+        // A new matching issue evicts the result
+        Issue issue = create(Resolution.REVIEWED);
+        assertThat(issueQueryService.countByCriteria(criteria)).isEqualTo(before + 1);
+
+        // A change which does not move the issue out of the criteria keeps it
+        hits = hits();
+        issue = issueService.save(issue.description("Updated").priority(Priority.EMERGENCY));
+        assertThat(issueQueryService.countByCriteria(criteria)).isEqualTo(before + 1);
+        assertThat(hits()).isEqualTo(hits + 1);
+
+        issueService.save(issue.resolution(Resolution.RELEASED));
+        assertThat(issueQueryService.countByCriteria(criteria)).isEqualTo(before);
+    }
+
+    @Test
+    public void idsAreServedFromCacheUntilAMatchingIssueChanges() {
+        Issue issue = create(Resolution.REVIEWED);
+        List<Issue> first = issueQueryService.findByCriteria(criteria);
+        double hits = hits();
+
+        List<Issue> second = issueQueryService.findByCriteria(criteria);
+        assertThat(hits()).isEqualTo(hits + 1);
+        assertThat(second).extracting(Issue::getId).containsExactlyElementsOf(
+            first.stream().map(Issue::getId).collect(Collectors.toList()));
+        assertThat(second).extracting(Issue::getId).contains(issue.getId());
+
+        // An issue which does not match does not evict the result
+        create(Resolution.NEW);
+        issueQueryService.findByCriteria(criteria);
+        assertThat(hits()).isEqualTo(hits + 2);
+
+        issueService.delete(issue.getId());
+        createdIds.remove(issue.getId());
+        assertThat(issueQueryService.findByCriteria(criteria)).extracting(Issue::getId).doesNotContain(issue.getId());
+    }
+
+    @Test
+    public void equivalentCriteriaShareAnEntry() {
+        LongFilter in = new LongFilter();
+        in.setIn(Arrays.asList(3L, 1L, 3L));
+        in.setSpecified(true);
+        LongFilter sorted = new LongFilter();
+        sorted.setIn(Arrays.asList(1L, 3L));
+        IssueCriteria first = new IssueCriteria();
+        first.setId(in);
+        first.setUserId(new LongFilter());
+        IssueCriteria second = new IssueCriteria();
+        second.setId(sorted);
+
+        assertThat(IssueCriteriaMatcher.normalize(first)).isEqualTo(IssueCriteriaMatcher.normalize(second));
+
+        issueQueryService.countByCriteria(first);
+        double hits = hits();
+        issueQueryService.countByCriteria(second);
+        assertThat(hits()).isEqualTo(hits + 1);
+    }
+
+    @Test
+    public void unfilteredResultsAreOnlyEvictedByCreationsAndDeletions() {
+        IssueCriteria all = new IssueCriteria();
+        Issue issue = create(Resolution.NEW);
+        long before = issueQueryService.countByCriteria(all);
+        issueQueryService.countByCriteria(criteria);
+        double hits = hits();
+
+        // Filtering none of the modified properties, so not even tested by the eviction pass
+        issue = issueService.save(issue.priority(Priority.EMERGENCY));
+        assertThat(issueQueryService.countByCriteria(all)).isEqualTo(before);
+        assertThat(issueQueryService.countByCriteria(criteria)).isNotNegative();
+        assertThat(hits()).isEqualTo(hits + 2);
+
+        create(Resolution.NEW);
+        assertThat(issueQueryService.countByCriteria(all)).isEqualTo(before + 1);
+        assertThat(hits()).isEqualTo(hits + 2);
+    }
+
+    private Issue create(Resolution resolution) {
+        Issue issue = issueService.save(IssueResourceIT.createEntity(em).number(null).resolution(resolution));
+        createdIds.add(issue.getId());
+        return issue;
+    }
+
+    private double hits() {
+        return meterRegistry.get("issue.criteria.cache.gets").tag("result", "hit").counter().count();
+    }
+}
@@ -0,0 +1,144 @@
+package com.triippztech.service;
+
+import com.triippztech.IssueTrackerApp;
+import com.triippztech.domain.Issue;
+import com.triippztech.repository.IssueRepository;
+import com.triippztech.web.rest.IssueResourceIT;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Integration tests for {@link IssueNumberAllocator}.
+ * <p>
+ * Not transactional: issues are created from several threads, each in its own transaction.
+ */
+@SpringBootTest(classes = IssueTrackerApp.class)
+public class IssueNumberAllocatorIT {
+
+    private static final int THREADS = 8;
+
+    private static final int ISSUES_PER_THREAD = 40;
+
+    @Autowired
+    private IssueService issueService;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Long> createdIds = Collections.synchronizedList(new ArrayList<>());
+
+    @AfterEach
+    public void tearDown() {
+        createdIds.forEach(issueService::delete);
+    }
+
+    @Test
+    public void concurrentCreationsGetUniqueNumbers() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Integer>>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    List<Integer> numbers = new ArrayList<>();
+                    for (int j = 0; j < ISSUES_PER_THREAD; j++) {
+                        Issue issue = issueService.save(IssueResourceIT.createEntity(em).number(null));
+                        createdIds.add(issue.getId());
+                        numbers.add(issue.getNumber());
+                    }
+                    return numbers;
+                }));
+            }
+            start.countDown();
+            List<Integer> numbers = new ArrayList<>();
+            for (Future<List<Integer>> future : futures) {
+                numbers.addAll(future.get(1, TimeUnit.MINUTES));
+            }
+
+            assertThat(numbers).hasSize(THREADS * ISSUES_PER_THREAD).doesNotHaveDuplicates();
+            // Allocated from consecutive blocks: only the end of the block in use before the test can be skipped
+            List<Integer> sorted = numbers.stream().sorted().collect(Collectors.toList());
+            assertThat(sorted.get(sorted.size() - 1) - sorted.get(0) + 1)
+                .isLessThan(THREADS * ISSUES_PER_THREAD + IssueNumberAllocator.BLOCK_SIZE);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void allocationSkipsUsedNumbers() {
+        Issue allocated = issueService.save(IssueResourceIT.createEntity(em).number(null));
+        createdIds.add(allocated.getId());
+        // Take the next number before the allocator does
+        Issue taken = issueService.save(IssueResourceIT.createEntity(em).number(allocated.getNumber() + 1));
+        createdIds.add(taken.getId());
+
+        Issue next = issueService.save(IssueResourceIT.createEntity(em).number(null));
+        createdIds.add(next.getId());
+
+        assertThat(next.getNumber()).isNotEqualTo(taken.getNumber()).isGreaterThan(allocated.getNumber());
+    }
+
+    @Test
+    public void allocationChecksOnlyTheNumbersUpToTheHighestUsed() {
+        IssueRepository issueRepository = mock(IssueRepository.class);
+        when(issueRepository.findMaxNumber()).thenReturn(Optional.empty());
+        IssueNumberAllocator allocator = new IssueNumberAllocator(dataSource, entityManagerFactory, issueRepository);
+
+        allocator.allocate();
+        allocator.allocate();
+        verify(issueRepository, never()).existsByNumber(anyInt());
+
+        allocator.used(Integer.MAX_VALUE);
+        int next = allocator.allocate();
+        verify(issueRepository).existsByNumber(next);
+    }
+
+    @Test
+    public void refreshReadsTheHighestUsedNumberAgain() {
+        IssueRepository issueRepository = mock(IssueRepository.class);
+        when(issueRepository.findMaxNumber()).thenReturn(Optional.empty());
+        IssueNumberAllocator allocator = new IssueNumberAllocator(dataSource, entityManagerFactory, issueRepository);
+        allocator.allocate();
+
+        // Used on another instance, so only known once read again
+        when(issueRepository.findMaxNumber()).thenReturn(Optional.of(Integer.MAX_VALUE));
+        allocator.allocate();
+        verify(issueRepository, never()).existsByNumber(anyInt());
+
+        allocator.refreshUsed();
+        int next = allocator.allocate();
+        verify(issueRepository).existsByNumber(next);
+    }
+}
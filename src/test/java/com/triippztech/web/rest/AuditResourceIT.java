@@ -3,7 +3,9 @@ package com.triippztech.web.rest;
 import com.triippztech.IssueTrackerApp;
 import com.triippztech.config.audit.AuditEventConverter;
 import com.triippztech.domain.PersistentAuditEvent;
+import com.triippztech.domain.PersistentAuditEventCount;
 import com.triippztech.repository.PersistenceAuditEventRepository;
+import com.triippztech.repository.PersistentAuditEventCountRepository;
 
 import com.triippztech.service.AuditEventService;
 import org.junit.jupiter.api.BeforeEach;
@@ -21,6 +23,7 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.time.LocalDate;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.hamcrest.Matchers.hasItem;
@@ -42,6 +45,9 @@ public class AuditResourceIT {
     @Autowired
     private PersistenceAuditEventRepository auditEventRepository;
 
+    @Autowired
+    private PersistentAuditEventCountRepository auditEventCountRepository;
+
     @Autowired
     private AuditEventConverter auditEventConverter;
 
@@ -63,7 +69,7 @@ public class AuditResourceIT {
     public void setup() {
         MockitoAnnotations.initMocks(this);
         AuditEventService auditEventService =
-            new AuditEventService(auditEventRepository, auditEventConverter);
+            new AuditEventService(auditEventRepository, auditEventCountRepository, auditEventConverter);
         AuditResource auditResource = new AuditResource(auditEventService);
         this.restAuditMockMvc = MockMvcBuilders.standaloneSetup(auditResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
@@ -136,6 +142,25 @@ public class AuditResourceIT {
             .andExpect(header().string("X-Total-Count", "0"));
     }
 
+    @Test
+    public void getAuditCounts() throws Exception {
+        // Initialize the database
+        auditEventCountRepository.save(new PersistentAuditEventCount(
+            new PersistentAuditEventCount.Key(LocalDate.of(2015, 8, 4), SAMPLE_PRINCIPAL, SAMPLE_TYPE), 3));
+        auditEventCountRepository.save(new PersistentAuditEventCount(
+            new PersistentAuditEventCount.Key(LocalDate.of(2015, 8, 6), SAMPLE_PRINCIPAL, SAMPLE_TYPE), 1));
+
+        // Get the counts of the first day only
+        restAuditMockMvc.perform(get("/management/audits/counts?fromDate=2015-08-03&toDate=2015-08-05"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].day").value("2015-08-04"))
+            .andExpect(jsonPath("$.[0].principal").value(SAMPLE_PRINCIPAL))
+            .andExpect(jsonPath("$.[0].type").value(SAMPLE_TYPE))
+            .andExpect(jsonPath("$.[0].count").value(3));
+    }
+
     @Test
     public void getNonExistingAudit() throws Exception {
         // Get the audit
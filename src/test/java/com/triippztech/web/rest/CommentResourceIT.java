@@ -2,9 +2,11 @@ package com.triippztech.web.rest;
 
 import com.triippztech.IssueTrackerApp;
 import com.triippztech.domain.Comment;
+import com.triippztech.domain.Issue;
 import com.triippztech.repository.CommentRepository;
 import com.triippztech.service.CommentService;
 import com.triippztech.web.rest.errors.ExceptionTranslator;
+import com.triippztech.web.rest.util.ExpandResponseBodyAdvice;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,9 +14,11 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Base64Utils;
@@ -27,6 +31,8 @@ import java.util.List;
 
 import static com.triippztech.web.rest.TestUtil.createFormattingConversionService;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -74,7 +80,7 @@ public class CommentResourceIT {
         final CommentResource commentResource = new CommentResource(commentService);
         this.restCommentMockMvc = MockMvcBuilders.standaloneSetup(commentResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
-            .setControllerAdvice(exceptionTranslator)
+            .setControllerAdvice(exceptionTranslator, new ExpandResponseBodyAdvice())
             .setConversionService(createFormattingConversionService())
             .setMessageConverters(jacksonMessageConverter)
             .setValidator(validator).build();
@@ -182,6 +188,26 @@ public class CommentResourceIT {
             .andExpect(jsonPath("$.[*].date").value(hasItem(DEFAULT_DATE.toString())));
     }
     
+    @Test
+    @Transactional
+    public void getAllCommentFields() throws Exception {
+        // Initialize the database
+        commentRepository.saveAndFlush(comment);
+
+        restCommentMockMvc.perform(get("/api/comments?fields=date"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[?(@.id == " + comment.getId() + ")].date").value(contains(DEFAULT_DATE.toString())))
+            .andExpect(jsonPath("$.[*].description").doesNotExist());
+    }
+
+    @Test
+    public void getAllCommentFieldsWithUnknownField() throws Exception {
+        restCommentMockMvc.perform(get("/api/comments?fields=date,issue"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.fieldsinvalid"))
+            .andExpect(jsonPath("$.title").value("Fields must be among: date, description, id, version"));
+    }
+
     @Test
     @Transactional
     public void getComment() throws Exception {
@@ -197,6 +223,40 @@ public class CommentResourceIT {
             .andExpect(jsonPath("$.date").value(DEFAULT_DATE.toString()));
     }
 
+    @Test
+    @Transactional
+    public void getCommentWithIssueReference() throws Exception {
+        // Initialize the database
+        Issue issue = IssueResourceIT.createEntity(em);
+        em.persist(issue);
+        commentRepository.saveAndFlush(comment.issue(issue));
+
+        // The issue is a reference by default
+        restCommentMockMvc.perform(get("/api/comments/{id}", comment.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.issue.id").value(issue.getId().intValue()))
+            .andExpect(jsonPath("$.issue.number").value(issue.getNumber()))
+            .andExpect(jsonPath("$.issue.description").doesNotExist());
+
+        restCommentMockMvc.perform(get("/api/comments?expand=issue,user"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[?(@.id == " + comment.getId() + ")].issue.description").value(contains(issue.getDescription())));
+    }
+
+    @Test
+    @Transactional
+    public void getCommentBatch() throws Exception {
+        // Initialize the database
+        Comment first = commentRepository.save(createEntity(em));
+        Comment second = commentRepository.saveAndFlush(createEntity(em).description(UPDATED_DESCRIPTION));
+
+        restCommentMockMvc.perform(get("/api/comments/batch?ids={ids}", second.getId() + "," + first.getId() + "," + Long.MAX_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items.[*].id").value(contains(second.getId().intValue(), first.getId().intValue())))
+            .andExpect(jsonPath("$.items.[*].description").value(contains(UPDATED_DESCRIPTION, DEFAULT_DESCRIPTION)))
+            .andExpect(jsonPath("$.missingIds").value(contains(Long.MAX_VALUE)));
+    }
+
     @Test
     @Transactional
     public void getNonExistingComment() throws Exception {
@@ -205,6 +265,114 @@ public class CommentResourceIT {
             .andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    public void getIssueCommentsByCursorWalksAllPages() throws Exception {
+        // Initialize the database with comments on both sides of the date ordering, and on another issue
+        Issue issue = IssueResourceIT.createEntity(em);
+        em.persist(issue);
+        Issue otherIssue = IssueResourceIT.createUpdatedEntity(em);
+        em.persist(otherIssue);
+        Comment oldest = commentService.save(createEntity(em).date(DEFAULT_DATE).issue(issue));
+        Comment newest = commentService.save(createEntity(em).date(UPDATED_DATE).issue(issue));
+        Comment sameDate = commentService.save(createEntity(em).date(UPDATED_DATE).issue(issue));
+        commentService.save(createEntity(em).date(DEFAULT_DATE).issue(otherIssue));
+
+        // First page
+        MvcResult result = restCommentMockMvc.perform(get("/api/issues/{issueId}/comments?size=2", issue.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(oldest.getId().intValue(), newest.getId().intValue())))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+            .andReturn();
+        String nextCursor = result.getResponse().getHeader(IssueResource.NEXT_CURSOR_HEADER);
+        assertThat(nextCursor).isNotBlank();
+
+        // Second and last page
+        restCommentMockMvc.perform(get("/api/issues/{issueId}/comments?size=2&cursor=" + nextCursor, issue.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(sameDate.getId().intValue())))
+            .andExpect(header().doesNotExist(IssueResource.NEXT_CURSOR_HEADER))
+            .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    @Transactional
+    public void getIssueCommentsWithInvalidRequest() throws Exception {
+        Issue issue = IssueResourceIT.createEntity(em);
+        em.persist(issue);
+
+        restCommentMockMvc.perform(get("/api/issues/{issueId}/comments?cursor=not-a-cursor", issue.getId()))
+            .andExpect(status().isBadRequest());
+
+        restCommentMockMvc.perform(get("/api/issues/{issueId}/comments?size=0", issue.getId()))
+            .andExpect(status().isBadRequest());
+
+        restCommentMockMvc.perform(get("/api/issues/{issueId}/comments", Long.MAX_VALUE))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    public void issueActivityFollowsComments() throws Exception {
+        Issue issue = IssueResourceIT.createEntity(em);
+        em.persist(issue);
+        Issue otherIssue = IssueResourceIT.createUpdatedEntity(em);
+        em.persist(otherIssue);
+
+        Comment newest = commentService.save(createEntity(em).date(UPDATED_DATE).issue(issue));
+        Comment oldest = commentService.save(createEntity(em).date(DEFAULT_DATE).issue(issue));
+        assertThat(reload(issue).getCommentCount()).isEqualTo(2);
+        assertThat(reload(issue).getLastCommentDate()).isEqualTo(UPDATED_DATE);
+
+        // Moving the newest comment back in time
+        commentService.save(reloadComment(newest).date(DEFAULT_DATE.plusSeconds(1)));
+        assertThat(reload(issue).getLastCommentDate()).isEqualTo(DEFAULT_DATE.plusSeconds(1));
+
+        // Moving it to another issue
+        commentService.save(reloadComment(newest).issue(otherIssue));
+        assertThat(reload(issue).getCommentCount()).isEqualTo(1);
+        assertThat(reload(issue).getLastCommentDate()).isEqualTo(DEFAULT_DATE);
+        assertThat(reload(otherIssue).getCommentCount()).isEqualTo(1);
+        assertThat(reload(otherIssue).getLastCommentDate()).isEqualTo(DEFAULT_DATE.plusSeconds(1));
+
+        // Deleting the last comment
+        restCommentMockMvc.perform(delete("/api/comments/{id}", oldest.getId()))
+            .andExpect(status().isNoContent());
+        assertThat(reload(issue).getCommentCount()).isEqualTo(0);
+        assertThat(reload(issue).getLastCommentDate()).isNull();
+    }
+
+    @Test
+    @Transactional
+    public void issueActivityRefreshesTheLoadedIssue() throws Exception {
+        Issue issue = IssueResourceIT.createEntity(em);
+        em.persist(issue);
+        em.flush();
+        Long version = issue.getVersion();
+
+        commentService.save(createEntity(em).date(UPDATED_DATE).issue(issue));
+
+        // Same instance, loaded in the persistence context before the update
+        assertThat(issue.getCommentCount()).isEqualTo(1);
+        assertThat(issue.getLastCommentDate()).isEqualTo(UPDATED_DATE);
+        assertThat(issue.getVersion()).isEqualTo(version + 1);
+    }
+
+    private Issue reload(Issue issue) {
+        // The activity is updated in the database only
+        em.flush();
+        em.clear();
+        return em.find(Issue.class, issue.getId());
+    }
+
+    private Comment reloadComment(Comment comment) {
+        em.flush();
+        em.clear();
+        Comment reloaded = em.find(Comment.class, comment.getId());
+        em.detach(reloaded);
+        return reloaded;
+    }
+
     @Test
     @Transactional
     public void updateComment() throws Exception {
@@ -252,6 +420,46 @@ public class CommentResourceIT {
         assertThat(commentList).hasSize(databaseSizeBeforeUpdate);
     }
 
+    @Test
+    @Transactional
+    public void partialUpdateComment() throws Exception {
+        // Initialize the database
+        commentService.save(comment);
+        em.flush();
+
+        restCommentMockMvc.perform(patch("/api/comments/{id}", comment.getId())
+            .header(HttpHeaders.IF_MATCH, "\"0\"")
+            .contentType("application/merge-patch+json")
+            .content("{\"description\":\"" + UPDATED_DESCRIPTION + "\"}"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+            .andExpect(jsonPath("$.description").value(UPDATED_DESCRIPTION))
+            .andExpect(jsonPath("$.date").value(DEFAULT_DATE.toString()));
+
+        // Only the patched property changed
+        em.clear();
+        Comment testComment = commentRepository.findById(comment.getId()).get();
+        assertThat(testComment.getDescription()).isEqualTo(UPDATED_DESCRIPTION);
+        assertThat(testComment.getDate()).isEqualTo(DEFAULT_DATE);
+        assertThat(testComment.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    @Transactional
+    public void partialUpdateCommentWithStaleIfMatch() throws Exception {
+        // Initialize the database
+        commentService.save(comment);
+        em.flush();
+
+        restCommentMockMvc.perform(patch("/api/comments/{id}", comment.getId())
+            .header(HttpHeaders.IF_MATCH, "\"5\"")
+            .contentType("application/merge-patch+json")
+            .content("{\"description\":\"" + UPDATED_DESCRIPTION + "\"}"))
+            .andExpect(status().isPreconditionFailed());
+
+        assertThat(commentRepository.findById(comment.getId()).get().getDescription()).isEqualTo(DEFAULT_DESCRIPTION);
+    }
+
     @Test
     @Transactional
     public void deleteComment() throws Exception {
@@ -5,10 +5,20 @@ import com.triippztech.domain.Issue;
 import com.triippztech.domain.Comment;
 import com.triippztech.domain.User;
 import com.triippztech.repository.IssueRepository;
+import com.triippztech.service.CommentService;
+import com.triippztech.service.IssueChangeFeedService;
+import com.triippztech.service.IssueCounterService;
+import com.triippztech.service.IssueImportService;
+import com.triippztech.service.IssueNumberAllocator;
+import com.triippztech.service.IssueSearchService;
 import com.triippztech.service.IssueService;
 import com.triippztech.web.rest.errors.ExceptionTranslator;
+import com.triippztech.web.rest.util.ExpandResponseBodyAdvice;
 import com.triippztech.service.dto.IssueCriteria;
 import com.triippztech.service.IssueQueryService;
+import com.triippztech.service.event.IssueChangedEvent;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,9 +26,13 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.data.web.SortHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.StringHttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Base64Utils;
@@ -27,11 +41,24 @@ import org.springframework.validation.Validator;
 import javax.persistence.EntityManager;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static com.triippztech.web.rest.TestUtil.createFormattingConversionService;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -43,6 +70,8 @@ import com.triippztech.domain.enumeration.Resolution;
 @SpringBootTest(classes = IssueTrackerApp.class)
 public class IssueResourceIT {
 
+    private static final int CONCURRENT_REQUESTS = 4;
+
     private static final Integer DEFAULT_NUMBER = 1;
     private static final Integer UPDATED_NUMBER = 2;
 
@@ -67,15 +96,39 @@ public class IssueResourceIT {
     @Autowired
     private IssueService issueService;
 
+    @Autowired
+    private IssueNumberAllocator issueNumberAllocator;
+
     @Autowired
     private IssueQueryService issueQueryService;
 
+    @Autowired
+    private IssueCounterService issueCounterService;
+
+    @Autowired
+    private IssueSearchService issueSearchService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private IssueImportService issueImportService;
+
+    @Autowired
+    private IssueChangeFeedService issueChangeFeedService;
+
     @Autowired
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Autowired
     private PageableHandlerMethodArgumentResolver pageableArgumentResolver;
 
+    @Autowired
+    private SortHandlerMethodArgumentResolver sortArgumentResolver;
+
     @Autowired
     private ExceptionTranslator exceptionTranslator;
 
@@ -92,12 +145,13 @@ public class IssueResourceIT {
     @BeforeEach
     public void setup() {
         MockitoAnnotations.initMocks(this);
-        final IssueResource issueResource = new IssueResource(issueService, issueQueryService);
+        final IssueResource issueResource = new IssueResource(issueService, issueQueryService, issueCounterService,
+            issueSearchService, issueImportService, issueChangeFeedService, objectMapper);
         this.restIssueMockMvc = MockMvcBuilders.standaloneSetup(issueResource)
-            .setCustomArgumentResolvers(pageableArgumentResolver)
-            .setControllerAdvice(exceptionTranslator)
+            .setCustomArgumentResolvers(pageableArgumentResolver, sortArgumentResolver)
+            .setControllerAdvice(exceptionTranslator, new ExpandResponseBodyAdvice())
             .setConversionService(createFormattingConversionService())
-            .setMessageConverters(jacksonMessageConverter)
+            .setMessageConverters(jacksonMessageConverter, new StringHttpMessageConverter())
             .setValidator(validator).build();
     }
 
@@ -184,20 +238,104 @@ public class IssueResourceIT {
 
     @Test
     @Transactional
-    public void checkNumberIsRequired() throws Exception {
-        int databaseSizeBeforeTest = issueRepository.findAll().size();
+    public void createIssueWithoutNumber() throws Exception {
+        int databaseSizeBeforeCreate = issueRepository.findAll().size();
         // set the field null
         issue.setNumber(null);
 
-        // Create the Issue, which fails.
-
+        // Create the Issue, which gets a number
         restIssueMockMvc.perform(post("/api/issues")
             .contentType(TestUtil.APPLICATION_JSON_UTF8)
             .content(TestUtil.convertObjectToJsonBytes(issue)))
-            .andExpect(status().isBadRequest());
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.number").isNumber());
+
+        List<Issue> issueList = issueRepository.findAll();
+        assertThat(issueList).hasSize(databaseSizeBeforeCreate + 1);
+        Issue testIssue = issueList.get(issueList.size() - 1);
+        assertThat(testIssue.getNumber()).isNotNull();
+
+        // An update without number keeps it
+        Integer number = testIssue.getNumber();
+        em.detach(testIssue);
+        testIssue.setNumber(null);
+        restIssueMockMvc.perform(put("/api/issues")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(testIssue)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.number").value(number));
+    }
+
+    @Test
+    @Transactional
+    public void createIssueWithExistingNumber() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+        int databaseSizeBeforeCreate = issueRepository.findAll().size();
+
+        // An issue cannot have the number of another one, so this API call must fail
+        restIssueMockMvc.perform(post("/api/issues")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(createEntity(em))))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.numberexists"));
 
         List<Issue> issueList = issueRepository.findAll();
-        assertThat(issueList).hasSize(databaseSizeBeforeTest);
+        assertThat(issueList).hasSize(databaseSizeBeforeCreate);
+    }
+
+    @Test
+    public void createIssuesConcurrentlyWithTheSameNumber() throws Exception {
+        int number = issueNumberAllocator.allocate();
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> statuses = new ArrayList<>();
+        try {
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                statuses.add(executor.submit(() -> {
+                    start.await();
+                    return restIssueMockMvc.perform(post("/api/issues")
+                        .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                        .content(TestUtil.convertObjectToJsonBytes(createEntity(em).number(number))))
+                        .andReturn().getResponse().getStatus();
+                }));
+            }
+            start.countDown();
+            List<Integer> results = new ArrayList<>();
+            for (Future<Integer> status : statuses) {
+                results.add(status.get(1, TimeUnit.MINUTES));
+            }
+
+            // Requests passing the check together are rejected by the unique constraint, with the same error
+            assertThat(results).containsOnly(201, 400).containsOnlyOnce(201);
+        } finally {
+            executor.shutdownNow();
+            issueRepository.findOneByNumber(number).ifPresent(created -> issueService.delete(created.getId()));
+        }
+    }
+
+    @Test
+    public void createIssueAllocatesAnotherNumberWhenTheAllocatedOneIsUsed() throws Exception {
+        // Created with its own number on another instance, so unknown to the allocator
+        int next = issueNumberAllocator.allocate() + 1;
+        Issue taken = issueRepository.saveAndFlush(createEntity(em).number(next));
+        Long createdId = null;
+        try {
+            MvcResult result = restIssueMockMvc.perform(post("/api/issues")
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(createEntity(em).number(null))))
+                .andExpect(status().isCreated())
+                .andReturn();
+            Issue created = objectMapper.readValue(result.getResponse().getContentAsString(), Issue.class);
+            createdId = created.getId();
+
+            assertThat(created.getNumber()).isNotNull().isNotEqualTo(next);
+        } finally {
+            issueRepository.deleteById(taken.getId());
+            if (createdId != null) {
+                issueService.delete(createdId);
+            }
+        }
     }
 
     @Test
@@ -218,7 +356,500 @@ public class IssueResourceIT {
             .andExpect(jsonPath("$.[*].reviewerId").value(hasItem(DEFAULT_REVIEWER_ID.intValue())))
             .andExpect(jsonPath("$.[*].reportedDate").value(hasItem(DEFAULT_REPORTED_DATE.toString())));
     }
-    
+
+    @Test
+    @Transactional
+    public void getAllIssuesSortedByPriority() throws Exception {
+        // Initialize the database, with priorities whose names are not in severity order
+        Issue deferred = issueRepository.save(createEntity(em).number(101).priority(Priority.DEFER).reviewerId(424242L));
+        Issue showstopper = issueRepository.save(createEntity(em).number(102).priority(Priority.SHOWSTOPPER).reviewerId(424242L));
+        Issue high = issueRepository.saveAndFlush(createEntity(em).number(103).priority(Priority.HIGH).reviewerId(424242L));
+
+        restIssueMockMvc.perform(get("/api/issues?reviewerId.equals=424242&sort=priority"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(showstopper.getId().intValue(), high.getId().intValue(),
+                deferred.getId().intValue())))
+            .andExpect(jsonPath("$.[*].priority").value(contains("SHOWSTOPPER", "HIGH", "DEFER")));
+
+        restIssueMockMvc.perform(get("/api/issues?reviewerId.equals=424242&sort=priority,desc"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].priority").value(contains("DEFER", "HIGH", "SHOWSTOPPER")));
+    }
+
+    @Test
+    @Transactional
+    public void getAllIssuesWithUnknownSort() throws Exception {
+        restIssueMockMvc.perform(get("/api/issues?sort=color"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.sortinvalid"));
+
+        // Neither associations nor large objects can be sorted on
+        restIssueMockMvc.perform(get("/api/issues?sort=user"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.sortinvalid"));
+        restIssueMockMvc.perform(get("/api/issues?sort=description"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.sortinvalid"));
+    }
+
+    @Test
+    @Transactional
+    public void getAllIssueFields() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+
+        restIssueMockMvc.perform(get("/api/issues?fields=number,priority&id.equals=" + issue.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(issue.getId().intValue()))
+            .andExpect(jsonPath("$.[0].number").value(DEFAULT_NUMBER))
+            .andExpect(jsonPath("$.[0].priority").value(DEFAULT_PRIORITY.toString()))
+            .andExpect(jsonPath("$.[0].description").doesNotExist())
+            .andExpect(jsonPath("$.[0].resolution").doesNotExist());
+
+        restIssueMockMvc.perform(get("/api/openissues?fields=reportedDate"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[?(@.id == " + issue.getId() + ")].reportedDate").value(contains(DEFAULT_REPORTED_DATE.toString())));
+    }
+
+    @Test
+    @Transactional
+    public void getAllIssueFieldsWithUnknownField() throws Exception {
+        restIssueMockMvc.perform(get("/api/issues?fields=number,user"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.fieldsinvalid"))
+            .andExpect(jsonPath("$.title").value(startsWith("Fields and sort properties must be among: ")))
+            .andExpect(jsonPath("$.title").value(containsString("number")))
+            .andExpect(jsonPath("$.title").value(not(containsString("user"))));
+
+        restIssueMockMvc.perform(get("/api/issues?fields=number&sort=color"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.fieldsinvalid"));
+        restIssueMockMvc.perform(get("/api/issues?fields=number&sort=description"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.fieldsinvalid"));
+    }
+
+    @Test
+    @Transactional
+    public void getAllIssueFieldsSorted() throws Exception {
+        // Initialize the database
+        Issue low = issueRepository.saveAndFlush(createEntity(em).number(1).priority(Priority.LOW));
+        Issue showstopper = issueRepository.saveAndFlush(createEntity(em).number(2).priority(Priority.SHOWSTOPPER));
+
+        String ids = low.getId() + "," + showstopper.getId();
+        restIssueMockMvc.perform(get("/api/issues?fields=number&sort=priority&id.in=" + ids))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(showstopper.getId().intValue(), low.getId().intValue())));
+
+        restIssueMockMvc.perform(get("/api/issues?fields=number&sort=number,desc&id.in=" + ids))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].number").value(contains(2, 1)));
+    }
+
+    @Test
+    @Transactional
+    public void getIssuesByCursorWalksAllPages() throws Exception {
+        // Initialize the database with issues on both sides of the reported date ordering
+        Issue oldest = issueRepository.saveAndFlush(createEntity(em).number(1).reportedDate(DEFAULT_REPORTED_DATE));
+        Issue newest = issueRepository.saveAndFlush(createEntity(em).number(2).reportedDate(UPDATED_REPORTED_DATE));
+        Issue sameDate = issueRepository.saveAndFlush(createEntity(em).number(3).reportedDate(UPDATED_REPORTED_DATE));
+        Issue unreported = issueRepository.saveAndFlush(createEntity(em).number(4).reportedDate(null));
+
+        // First page
+        MvcResult result = restIssueMockMvc.perform(get("/api/issues?cursor=&size=2&reviewerId.equals=" + DEFAULT_REVIEWER_ID))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(sameDate.getId().intValue(), newest.getId().intValue())))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+            .andReturn();
+        String nextCursor = result.getResponse().getHeader(IssueResource.NEXT_CURSOR_HEADER);
+        assertThat(nextCursor).isNotBlank();
+
+        // Second and last page
+        restIssueMockMvc.perform(get("/api/issues?size=2&reviewerId.equals=" + DEFAULT_REVIEWER_ID + "&cursor=" + nextCursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(oldest.getId().intValue(), unreported.getId().intValue())))
+            .andExpect(header().doesNotExist(IssueResource.NEXT_CURSOR_HEADER))
+            .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    @Transactional
+    public void getIssuesWithInvalidCursor() throws Exception {
+        restIssueMockMvc.perform(get("/api/issues?cursor=not-a-cursor"))
+            .andExpect(status().isBadRequest());
+
+        restIssueMockMvc.perform(get("/api/issues?cursor=&size=0"))
+            .andExpect(status().isBadRequest());
+
+        // Rather than silently returning all the fields
+        restIssueMockMvc.perform(get("/api/issues?fields=number&cursor="))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.fieldsunsupported"));
+    }
+
+    @Test
+    public void exportIssues() throws Exception {
+        // Initialize the database; the export is streamed from another thread, so the data must be committed
+        Issue first = issueRepository.saveAndFlush(createEntity(em));
+        Issue second = issueRepository.saveAndFlush(createUpdatedEntity(em));
+
+        try {
+            MvcResult result = restIssueMockMvc.perform(get("/api/issues/export?id.in=" + first.getId() + "," + second.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            result.getAsyncResult();
+            restIssueMockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(IssueResource.APPLICATION_NDJSON));
+
+            String[] lines = result.getResponse().getContentAsString().split("\n");
+            assertThat(lines).hasSize(2);
+            assertThat(objectMapper.readValue(lines[0], Issue.class).getId()).isEqualTo(first.getId());
+            Issue exported = objectMapper.readValue(lines[1], Issue.class);
+            assertThat(exported.getId()).isEqualTo(second.getId());
+            assertThat(exported.getNumber()).isEqualTo(UPDATED_NUMBER);
+            assertThat(exported.getDescription()).isEqualTo(UPDATED_DESCRIPTION);
+        } finally {
+            issueRepository.deleteById(first.getId());
+            issueRepository.deleteById(second.getId());
+        }
+    }
+
+    @Test
+    public void importIssues() throws Exception {
+        // Imported in their own transactions, so the data is committed
+        String rows = "[" +
+            "{\"number\": 1, \"description\": \"imported-json\", \"priority\": \"LOW\"}," +
+            "{\"number\": 1, \"description\": \"imported-json\"}," +
+            "{\"id\": 1, \"number\": 3, \"description\": \"imported-json\"}," +
+            "{\"number\": 4, \"description\": \"imported-json\", \"priority\": \"UNKNOWN\"}," +
+            "{\"number\": 5, \"description\": \"imported-json\", \"user\": {\"id\": " + Long.MAX_VALUE + "}}," +
+            "{\"number\": 6, \"description\": \"imported-json\", \"resolution\": \"NEW\"}," +
+            "{\"description\": \"imported-json\"}" +
+            "]";
+        try {
+            restIssueMockMvc.perform(post("/api/issues/import")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(rows))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(3))
+                // Rows failing validation are reported when read, the others when their chunk is persisted
+                .andExpect(jsonPath("$.failures.[*].row").value(contains(3, 4, 2, 5)))
+                .andExpect(jsonPath("$.failures.[0].message").value("A new issue cannot already have an ID"))
+                .andExpect(jsonPath("$.failures.[2].message").value(IssueImportService.NUMBER_USED_MESSAGE))
+                .andExpect(jsonPath("$.failures.[3].message").value(IssueImportService.SAVE_FAILED_MESSAGE));
+
+            assertThat(importedIssues("imported-json")).extracting(Issue::getNumber).contains(1, 6).hasSize(3).doesNotContainNull();
+            // Applied by the listeners of the chunk event
+            restIssueMockMvc.perform(get("/api/_search/issues?q=imported"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3));
+        } finally {
+            importedIssues("imported-json").forEach(imported -> issueService.delete(imported.getId()));
+        }
+    }
+
+    @Test
+    public void importIssuesAllocatesAroundTheNumbersOfTheChunk() throws Exception {
+        Issue allocated = issueService.save(createEntity(em).number(null));
+        // The explicit number is the next one the allocator would hand out, and is persisted first
+        String rows = "[" +
+            "{\"number\": " + (allocated.getNumber() + 1) + ", \"description\": \"imported-reserved\"}," +
+            "{\"description\": \"imported-reserved\"}" +
+            "]";
+        try {
+            restIssueMockMvc.perform(post("/api/issues/import")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(rows))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failures").isEmpty());
+
+            assertThat(importedIssues("imported-reserved")).extracting(Issue::getNumber)
+                .contains(allocated.getNumber() + 1).doesNotHaveDuplicates();
+        } finally {
+            importedIssues("imported-reserved").forEach(imported -> issueService.delete(imported.getId()));
+            issueService.delete(allocated.getId());
+        }
+    }
+
+    @Test
+    public void importIssuesFromNdjson() throws Exception {
+        String rows = "{\"number\": 1, \"description\": \"imported-ndjson\"}\n" +
+            "{\"number\": 2, \"description\": \"imported-ndjson\"}\n" +
+            "{\"number\": 3, \"description\": \"imported-ndjson\"\n" +
+            "{\"number\": 4, \"description\": \"imported-ndjson\"}\n";
+        try {
+            restIssueMockMvc.perform(post("/api/issues/import")
+                .contentType(IssueResource.APPLICATION_NDJSON)
+                .content(rows))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failures.[*].row").value(contains(3)))
+                .andExpect(jsonPath("$.failures.[0].message").value(containsString("Malformed JSON")));
+
+            assertThat(importedIssues("imported-ndjson")).extracting(Issue::getNumber).containsExactlyInAnyOrder(1, 2);
+        } finally {
+            importedIssues("imported-ndjson").forEach(imported -> issueService.delete(imported.getId()));
+        }
+    }
+
+    private List<Issue> importedIssues(String description) {
+        return issueRepository.findAll().stream()
+            .filter(imported -> description.equals(imported.getDescription()))
+            .collect(Collectors.toList());
+    }
+
+    @Test
+    @Transactional
+    public void getIssueSummaries() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+
+        // Get the summaries of the issues with the default resolution
+        restIssueMockMvc.perform(get("/api/issues/summaries?resolution=" + DEFAULT_RESOLUTION))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(issue.getId().intValue())))
+            .andExpect(jsonPath("$.[*].number").value(hasItem(DEFAULT_NUMBER)))
+            .andExpect(jsonPath("$.[*].priority").value(hasItem(DEFAULT_PRIORITY.toString())))
+            .andExpect(jsonPath("$.[*].commentCount").value(hasItem(0)))
+            .andExpect(jsonPath("$.[*].description").doesNotExist());
+
+        // The issue is not listed with another resolution
+        restIssueMockMvc.perform(get("/api/issues/summaries?resolution=" + UPDATED_RESOLUTION))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(issue.getId().intValue()))));
+    }
+
+    @Test
+    @Transactional
+    public void getIssueStats() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+        issueCounterService.reconcile();
+
+        restIssueMockMvc.perform(get("/api/issues/stats"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.[?(@.priority == '" + DEFAULT_PRIORITY + "' && @.resolution == '" + DEFAULT_RESOLUTION + "')].count").value(hasItem(1)));
+    }
+
+    @Test
+    public void countIssuesFromTheCounters() throws Exception {
+        issueCounterService.reconcile();
+        long before = issueCounterService.count(null).getAsLong();
+        // Saved without the service, as by another instance, so the counters miss it until reconciled
+        Issue saved = issueRepository.saveAndFlush(createEntity(em).priority(UPDATED_PRIORITY));
+        try {
+            // Criteria on the priority and resolution are answered from the counters
+            restIssueMockMvc.perform(get("/api/issues/count"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(Long.toString(before)));
+
+            // Other criteria are counted in the database
+            restIssueMockMvc.perform(get("/api/issues/count?id.equals=" + saved.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().string("1"));
+
+            issueCounterService.reconcile();
+            restIssueMockMvc.perform(get("/api/issues/count?priority.equals=" + UPDATED_PRIORITY + "&resolution.in=" + DEFAULT_RESOLUTION + "," + UPDATED_RESOLUTION))
+                .andExpect(status().isOk())
+                .andExpect(content().string(Long.toString(issueRepository.findAll().stream()
+                    .filter(issue -> issue.getPriority() == UPDATED_PRIORITY)
+                    .filter(issue -> issue.getResolution() == DEFAULT_RESOLUTION || issue.getResolution() == UPDATED_RESOLUTION)
+                    .count())));
+        } finally {
+            issueRepository.deleteById(saved.getId());
+            issueCounterService.reconcile();
+        }
+    }
+
+    @Test
+    public void issueCountersFollowCommittedChanges() throws Exception {
+        issueCounterService.reconcile();
+        long before = issueCounterService.count(null).getAsLong();
+
+        // Committed through the service, so the counters are updated after commit
+        Issue saved = issueService.save(createEntity(em));
+        IssueCriteria criteria = new IssueCriteria();
+        IssueCriteria.PriorityFilter priority = new IssueCriteria.PriorityFilter();
+        priority.setEquals(DEFAULT_PRIORITY);
+        criteria.setPriority(priority);
+        long defaultPriorityCount = issueCounterService.count(criteria).getAsLong();
+        assertThat(issueCounterService.count(null).getAsLong()).isEqualTo(before + 1);
+
+        issueService.save(saved.priority(UPDATED_PRIORITY));
+        assertThat(issueCounterService.count(criteria).getAsLong()).isEqualTo(defaultPriorityCount - 1);
+
+        issueService.delete(saved.getId());
+        assertThat(issueCounterService.count(null).getAsLong()).isEqualTo(before);
+    }
+
+    @Test
+    public void searchIssues() throws Exception {
+        // Committed through the services, so the index is updated after commit
+        Issue described = issueService.save(createEntity(em).description("The flux capacitor overheats"));
+        Issue commented = issueService.save(createEntity(em).number(null).priority(UPDATED_PRIORITY).description("Time circuits stuck"));
+        Comment comment = commentService.save(CommentResourceIT.createEntity(em)
+            .description("Probably the capacitor again").issue(commented));
+        try {
+            restIssueMockMvc.perform(get("/api/_search/issues?q=capacitor"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$").value(containsInAnyOrder(described.getId().intValue(), commented.getId().intValue())));
+
+            restIssueMockMvc.perform(get("/api/_search/issues?q=flux AND capacitor"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").value(contains(described.getId().intValue())));
+
+            // Combined with the criteria
+            restIssueMockMvc.perform(get("/api/_search/issues?q=capacitor&priority.equals=" + UPDATED_PRIORITY))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").value(contains(commented.getId().intValue())));
+
+            commentService.save(comment.description("Fixed"));
+            restIssueMockMvc.perform(get("/api/_search/issues?q=capacitor"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").value(contains(described.getId().intValue())));
+
+            restIssueMockMvc.perform(get("/api/_search/issues?q=capacitor AND"))
+                .andExpect(status().isBadRequest());
+        } finally {
+            commentService.delete(comment.getId());
+            issueService.delete(described.getId());
+            issueService.delete(commented.getId());
+        }
+        restIssueMockMvc.perform(get("/api/_search/issues?q=capacitor"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    public void searchIssuesMatchingCriteriaBeyondTheFirstHits() throws Exception {
+        Issue described = issueService.save(createEntity(em).priority(UPDATED_PRIORITY).description("The flux capacitor overheats"));
+        // Better matches, for issues which are not in the database so never match the criteria
+        for (long i = 0; i < IssueSearchService.MAX_HITS; i++) {
+            Issue missing = new Issue().description("capacitor");
+            missing.setId(Long.MAX_VALUE - i);
+            issueSearchService.onIssueChanged(IssueChangedEvent.created(missing));
+        }
+        try {
+            restIssueMockMvc.perform(get("/api/_search/issues?q=capacitor&priority.equals=" + UPDATED_PRIORITY))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").value(contains(described.getId().intValue())));
+        } finally {
+            for (long i = 0; i < IssueSearchService.MAX_HITS; i++) {
+                issueSearchService.onIssueChanged(IssueChangedEvent.deleted(Long.MAX_VALUE - i, null));
+            }
+            issueService.delete(described.getId());
+        }
+    }
+
+    @Test
+    public void searchIssuesStopsAfterTheScannedHits() throws Exception {
+        Issue described = issueService.save(createEntity(em).priority(UPDATED_PRIORITY).description("The flux capacitor overheats"));
+        for (long i = 0; i < IssueSearchService.MAX_SCANNED_HITS; i++) {
+            Issue missing = new Issue().description("capacitor");
+            missing.setId(Long.MAX_VALUE - i);
+            issueSearchService.onIssueChanged(IssueChangedEvent.created(missing));
+        }
+        try {
+            restIssueMockMvc.perform(get("/api/_search/issues?q=capacitor&priority.equals=" + UPDATED_PRIORITY))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IssueResource.SEARCH_TRUNCATED_HEADER, "true"))
+                .andExpect(jsonPath("$.length()").value(0));
+
+            restIssueMockMvc.perform(get("/api/_search/issues?q=capacitor&size=10"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IssueResource.SEARCH_TRUNCATED_HEADER))
+                .andExpect(jsonPath("$.length()").value(10));
+        } finally {
+            for (long i = 0; i < IssueSearchService.MAX_SCANNED_HITS; i++) {
+                issueSearchService.onIssueChanged(IssueChangedEvent.deleted(Long.MAX_VALUE - i, null));
+            }
+            issueService.delete(described.getId());
+        }
+    }
+
+    @Test
+    public void reconcileSearchIndex() throws Exception {
+        // Saved without the service, as by another instance, so the index misses it
+        Issue missed = issueRepository.saveAndFlush(createEntity(em).description("The flux capacitor overheats"));
+        // Indexed, but not in the database
+        Issue orphan = new Issue().description("capacitor");
+        orphan.setId(Long.MAX_VALUE);
+        issueSearchService.onIssueChanged(IssueChangedEvent.created(orphan));
+        try {
+            issueSearchService.reconcile();
+            restIssueMockMvc.perform(get("/api/_search/issues?q=capacitor"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").value(contains(missed.getId().intValue())));
+
+            missed = issueRepository.saveAndFlush(missed.description("Time circuits stuck"));
+            issueSearchService.reconcile();
+            restIssueMockMvc.perform(get("/api/_search/issues?q=circuits"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").value(contains(missed.getId().intValue())));
+        } finally {
+            issueRepository.deleteById(missed.getId());
+        }
+        issueSearchService.reconcile();
+        restIssueMockMvc.perform(get("/api/_search/issues?q=capacitor OR circuits"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    public void streamIssueChanges() throws Exception {
+        MvcResult stream = restIssueMockMvc.perform(get("/api/issues/stream?resolution.equals=" + DEFAULT_RESOLUTION))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        // Committed through the services, so the changes are published after commit
+        Issue open = issueService.save(createEntity(em));
+        Issue other = issueService.save(createEntity(em).number(null).resolution(UPDATED_RESOLUTION));
+        Comment comment = commentService.save(CommentResourceIT.createEntity(em).issue(open));
+        try {
+            // Leaving the criteria is published too; the comment changed the version of the issue
+            issueService.save(issueService.findOne(open.getId()).get().resolution(UPDATED_RESOLUTION));
+            awaitContent(stream, "\"type\":\"UPDATED\"");
+
+            String events = stream.getResponse().getContentAsString();
+            assertThat(events).contains("event:issue", "\"type\":\"CREATED\"", "\"issueId\":" + open.getId());
+            assertThat(events).contains("event:comment", "\"commentId\":" + comment.getId());
+            assertThat(events).doesNotContain("\"issueId\":" + other.getId());
+            assertThat(stream.getResponse().getContentType()).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+
+            // Resume after the creation of the issue
+            String createdId = events.substring(events.indexOf("id:") + 3, events.indexOf('\n', events.indexOf("id:")));
+            MvcResult resumed = restIssueMockMvc.perform(get("/api/issues/stream?resolution.equals=" + DEFAULT_RESOLUTION)
+                .header("Last-Event-ID", createdId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            awaitContent(resumed, "\"type\":\"UPDATED\"");
+            String replayed = resumed.getResponse().getContentAsString();
+            assertThat(replayed).startsWith("id:").contains("event:comment").doesNotContain("\"entity\":\"ISSUE\",\"type\":\"CREATED\"");
+
+            // Unknown event ids cannot be resumed from
+            MvcResult reset = restIssueMockMvc.perform(get("/api/issues/stream").header("Last-Event-ID", "unknown-1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            awaitContent(reset, "event:" + IssueChangeFeedService.RESET_EVENT);
+        } finally {
+            commentService.delete(comment.getId());
+            issueService.delete(open.getId());
+            issueService.delete(other.getId());
+        }
+    }
+
+    private static void awaitContent(MvcResult result, String expected) throws Exception {
+        for (int i = 0; i < 100 && !result.getResponse().getContentAsString().contains(expected); i++) {
+            Thread.sleep(50);
+        }
+        assertThat(result.getResponse().getContentAsString()).contains(expected);
+    }
+
     @Test
     @Transactional
     public void getIssue() throws Exception {
@@ -627,6 +1258,131 @@ public class IssueResourceIT {
         assertThat(issueList).hasSize(databaseSizeBeforeUpdate);
     }
 
+    @Test
+    @Transactional
+    public void getIssueBatch() throws Exception {
+        // Initialize the database
+        Issue first = issueRepository.save(createEntity(em).number(101));
+        Issue second = issueRepository.saveAndFlush(createEntity(em).number(102));
+
+        restIssueMockMvc.perform(get("/api/issues/batch?ids={ids}", second.getId() + "," + Long.MAX_VALUE + "," + first.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items.[*].id").value(contains(second.getId().intValue(), first.getId().intValue())))
+            .andExpect(jsonPath("$.items.[*].number").value(contains(102, 101)))
+            .andExpect(jsonPath("$.missingIds").value(contains(Long.MAX_VALUE)));
+    }
+
+    @Test
+    @Transactional
+    public void getIssueBatchWithTooManyIds() throws Exception {
+        String ids = LongStream.rangeClosed(1, 101).mapToObj(Long::toString).collect(Collectors.joining(","));
+
+        restIssueMockMvc.perform(get("/api/issues/batch?ids={ids}", ids))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.batchsizeinvalid"));
+    }
+
+    @Test
+    @Transactional
+    public void getIssueWithETag() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+
+        restIssueMockMvc.perform(get("/api/issues/{id}", issue.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+            .andExpect(jsonPath("$.version").value(0));
+
+        // An unchanged issue is not sent again
+        restIssueMockMvc.perform(get("/api/issues/{id}", issue.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @Transactional
+    public void updateIssueWithStaleIfMatch() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+
+        Issue updatedIssue = issueRepository.findById(issue.getId()).get();
+        em.detach(updatedIssue);
+        updatedIssue.description(UPDATED_DESCRIPTION);
+
+        restIssueMockMvc.perform(put("/api/issues")
+            .header(HttpHeaders.IF_MATCH, "\"5\"")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(updatedIssue)))
+            .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @Transactional
+    public void updateIssueWithStaleVersion() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+
+        Issue updatedIssue = issueRepository.findById(issue.getId()).get();
+        em.detach(updatedIssue);
+        updatedIssue.description(UPDATED_DESCRIPTION);
+        updatedIssue.setVersion(5L);
+
+        restIssueMockMvc.perform(put("/api/issues")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(updatedIssue)))
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.message").value("error.concurrencyFailure"));
+    }
+
+    @Test
+    @Transactional
+    public void partialUpdateIssue() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+
+        restIssueMockMvc.perform(patch("/api/issues/{id}", issue.getId())
+            .header(HttpHeaders.IF_MATCH, "\"0\"")
+            .contentType("application/merge-patch+json")
+            .content("{\"priority\":\"" + UPDATED_PRIORITY + "\"}"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+            .andExpect(jsonPath("$.priority").value(UPDATED_PRIORITY.toString()))
+            .andExpect(jsonPath("$.description").value(DEFAULT_DESCRIPTION));
+
+        // Only the patched property changed
+        em.clear();
+        Issue testIssue = issueRepository.findById(issue.getId()).get();
+        assertThat(testIssue.getPriority()).isEqualTo(UPDATED_PRIORITY);
+        assertThat(testIssue.getDescription()).isEqualTo(DEFAULT_DESCRIPTION);
+        assertThat(testIssue.getResolution()).isEqualTo(DEFAULT_RESOLUTION);
+        assertThat(testIssue.getNumber()).isEqualTo(DEFAULT_NUMBER);
+        assertThat(testIssue.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    @Transactional
+    public void partialUpdateIssueWithStaleIfMatch() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+
+        restIssueMockMvc.perform(patch("/api/issues/{id}", issue.getId())
+            .header(HttpHeaders.IF_MATCH, "\"5\"")
+            .contentType("application/merge-patch+json")
+            .content("{\"priority\":\"" + UPDATED_PRIORITY + "\"}"))
+            .andExpect(status().isPreconditionFailed());
+
+        assertThat(issueRepository.findById(issue.getId()).get().getPriority()).isEqualTo(DEFAULT_PRIORITY);
+    }
+
+    @Test
+    @Transactional
+    public void partialUpdateNonExistingIssue() throws Exception {
+        restIssueMockMvc.perform(patch("/api/issues/{id}", Long.MAX_VALUE)
+            .contentType("application/merge-patch+json")
+            .content("{\"priority\":\"" + UPDATED_PRIORITY + "\"}"))
+            .andExpect(status().isNotFound());
+    }
+
     @Test
     @Transactional
     public void deleteIssue() throws Exception {
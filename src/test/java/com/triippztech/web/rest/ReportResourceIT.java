@@ -0,0 +1,124 @@
+package com.triippztech.web.rest;
+
+import com.triippztech.IssueTrackerApp;
+import com.triippztech.domain.Issue;
+import com.triippztech.domain.enumeration.Priority;
+import com.triippztech.service.IssueReportService;
+import com.triippztech.web.rest.errors.ExceptionTranslator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.Instant;
+
+import static com.triippztech.web.rest.TestUtil.createFormattingConversionService;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the {@link ReportResource} REST controller.
+ */
+@SpringBootTest(classes = IssueTrackerApp.class)
+@Transactional
+public class ReportResourceIT {
+
+    private static final long REVIEWER_ID = 424242L;
+
+    @Autowired
+    private IssueReportService issueReportService;
+
+    @Autowired
+    private MappingJackson2HttpMessageConverter jacksonMessageConverter;
+
+    @Autowired
+    private ExceptionTranslator exceptionTranslator;
+
+    @Autowired
+    private EntityManager em;
+
+    private MockMvc restReportMockMvc;
+
+    @BeforeEach
+    public void setup() {
+        final ReportResource reportResource = new ReportResource(issueReportService);
+        this.restReportMockMvc = MockMvcBuilders.standaloneSetup(reportResource)
+            .setControllerAdvice(exceptionTranslator)
+            .setConversionService(createFormattingConversionService())
+            .setMessageConverters(jacksonMessageConverter).build();
+
+        createIssue(1, Priority.HIGH, "2026-10-13T10:00:00Z");
+        createIssue(2, Priority.HIGH, "2026-10-14T23:00:00Z");
+        createIssue(3, Priority.LOW, "2026-10-20T08:00:00Z");
+        createIssue(4, Priority.LOW, null);
+        em.flush();
+    }
+
+    private void createIssue(int number, Priority priority, String reportedDate) {
+        Issue issue = IssueResourceIT.createEntity(em)
+            .number(900000 + number)
+            .priority(priority)
+            .reviewerId(REVIEWER_ID)
+            .reportedDate(reportedDate != null ? Instant.parse(reportedDate) : null);
+        em.persist(issue);
+    }
+
+    @Test
+    public void getIssueReportGroupedByPriorityAndWeek() throws Exception {
+        restReportMockMvc.perform(get("/api/reports/issues?reviewerId.equals={reviewerId}&groupBy=priority,week", REVIEWER_ID))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.rowCount").value(2))
+            .andExpect(jsonPath("$.columns.priority").value(contains("HIGH", "LOW")))
+            .andExpect(jsonPath("$.columns.week").value(contains("2026-10-12T00:00:00Z", "2026-10-19T00:00:00Z")))
+            .andExpect(jsonPath("$.columns.count").value(contains(2, 1)));
+    }
+
+    @Test
+    public void getIssueReportGroupedByMonth() throws Exception {
+        // The issue without a reported date has no month
+        restReportMockMvc.perform(get("/api/reports/issues?reviewerId.equals={reviewerId}&groupBy=month", REVIEWER_ID))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.columns.month").value(contains("2026-10-01T00:00:00Z")))
+            .andExpect(jsonPath("$.columns.count").value(contains(3)));
+    }
+
+    @Test
+    public void getIssueReportGroupedByReviewerAndPriority() throws Exception {
+        restReportMockMvc.perform(get("/api/reports/issues?reviewerId.equals={reviewerId}&groupBy=reviewer&groupBy=priority", REVIEWER_ID))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.columns.reviewer").value(contains((int) REVIEWER_ID, (int) REVIEWER_ID)))
+            .andExpect(jsonPath("$.columns.priority").value(contains("HIGH", "LOW")))
+            .andExpect(jsonPath("$.columns.count").value(contains(2, 2)));
+    }
+
+    @Test
+    public void getIssueReportWithoutGroups() throws Exception {
+        restReportMockMvc.perform(get("/api/reports/issues?reviewerId.equals={reviewerId}&priority.equals=LOW", REVIEWER_ID))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rowCount").value(1))
+            .andExpect(jsonPath("$.columns.count").value(contains(2)));
+    }
+
+    @Test
+    public void getIssueReportWithoutCriteria() throws Exception {
+        restReportMockMvc.perform(get("/api/reports/issues"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rowCount").value(1));
+    }
+
+    @Test
+    public void getIssueReportWithUnknownDimension() throws Exception {
+        restReportMockMvc.perform(get("/api/reports/issues?groupBy=priority,color"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.groupbyinvalid"));
+    }
+}